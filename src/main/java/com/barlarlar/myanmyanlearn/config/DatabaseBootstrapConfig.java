@@ -3,6 +3,7 @@ package com.barlarlar.myanmyanlearn.config;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.List;
 import javax.sql.DataSource;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
@@ -10,11 +11,15 @@ import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class DatabaseBootstrapConfig {
+    // Tables added after the initial schema; an existing database missing any of them is upgraded in place.
+    private static final List<String> ADDED_TABLES = List.of("storage_assets", "storage_blobs", "translation_cache",
+            "assessment_score_attempts", "assessment_score_chapters", "assessment_score_slots");
+
     @Bean
     public HibernatePropertiesCustomizer bootstrapHibernateDdlAuto(DataSource dataSource) {
         return props -> {
             try {
-                if (!isDatabaseEmpty(dataSource)) {
+                if (!isDatabaseEmpty(dataSource) && !isMissingAddedTables(dataSource)) {
                     return;
                 }
                 Object current = props.get("hibernate.hbm2ddl.auto");
@@ -27,6 +32,24 @@ public class DatabaseBootstrapConfig {
         };
     }
 
+    private static boolean isMissingAddedTables(DataSource dataSource) throws Exception {
+        try (Connection c = dataSource.getConnection()) {
+            String sql = "select count(*) from information_schema.tables where table_schema = database()"
+                    + " and table_name = ?";
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (String table : ADDED_TABLES) {
+                    ps.setString(1, table);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next() && rs.getLong(1) == 0L) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     private static boolean isDatabaseEmpty(DataSource dataSource) throws Exception {
         try (Connection c = dataSource.getConnection()) {
             String sql = "select count(*) from information_schema.tables where table_schema = database()";
@@ -6,10 +6,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.CookieLocaleResolver;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.lang.NonNull;
-import org.springframework.beans.factory.annotation.Value;
 
 import java.time.Duration;
 import java.util.Locale;
@@ -17,29 +15,6 @@ import java.util.Objects;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-    private final String storageType;
-    private final String localBaseDir;
-
-    public WebConfig(
-            @Value("${app.storage.type:local}") String storageType,
-            @Value("${app.storage.local.base-dir:${user.dir}/.myanmyanlearn/uploads}") String localBaseDir) {
-        this.storageType = storageType != null ? storageType.trim() : "local";
-        this.localBaseDir = localBaseDir != null ? localBaseDir.trim() : "";
-    }
-
-    @Override
-    public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-        if (!"local".equalsIgnoreCase(storageType)) {
-            return;
-        }
-        String base = localBaseDir.isBlank() ? (System.getProperty("user.dir", ".") + "/.myanmyanlearn/uploads")
-                : localBaseDir;
-        if (!base.endsWith("/")) {
-            base = base + "/";
-        }
-        registry.addResourceHandler("/uploads/**").addResourceLocations("file:" + base);
-    }
-
     @Bean
     public MessageSource messageSource() {
         ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.barlarlar.myanmyanlearn.service.AdminCourseDbService;
+import com.barlarlar.myanmyanlearn.service.PreTranslationService;
 import java.io.IOException;
 
 @RestController
@@ -25,11 +26,14 @@ import java.io.IOException;
 public class AdminCoursesApiController {
     private final AdminCourseDbService db;
     private final com.barlarlar.myanmyanlearn.service.ImportStatusService importStatusService;
+    private final PreTranslationService preTranslationService;
 
     public AdminCoursesApiController(AdminCourseDbService db,
-            com.barlarlar.myanmyanlearn.service.ImportStatusService importStatusService) {
+            com.barlarlar.myanmyanlearn.service.ImportStatusService importStatusService,
+            PreTranslationService preTranslationService) {
         this.db = db;
         this.importStatusService = importStatusService;
+        this.preTranslationService = preTranslationService;
     }
 
     @GetMapping("/{courseId}/editor")
@@ -86,8 +90,8 @@ public class AdminCoursesApiController {
                     "message", "Invalid request."));
         }
         try {
-            db.saveCourseEditor(editor);
-            return ResponseEntity.ok(Map.of("ok", true));
+            AdminCourseDbService.SaveSummary summary = db.saveCourseEditor(editor);
+            return ResponseEntity.ok(Map.of("ok", true, "summary", summary));
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(409).body(Map.of(
                     "ok", false,
@@ -199,4 +203,20 @@ public class AdminCoursesApiController {
         }
         return ResponseEntity.ok(status);
     }
+
+    @GetMapping(value = "/pre-translation", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PreTranslationService.Progress> getPreTranslationProgress() {
+        return ResponseEntity.ok(preTranslationService.progress());
+    }
+
+    @PostMapping(value = "/pre-translation", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> startPreTranslation() {
+        if (preTranslationService.isRunning()) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "ok", false,
+                    "message", "Pre-translation is already running."));
+        }
+        preTranslationService.runAsync();
+        return ResponseEntity.accepted().body(Map.of("ok", true));
+    }
 }
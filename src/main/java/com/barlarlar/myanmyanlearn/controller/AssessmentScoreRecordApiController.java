@@ -68,7 +68,7 @@ public class AssessmentScoreRecordApiController {
     public ResponseEntity<Map<String, Object>> get(@PathVariable("id") Long id) throws Exception {
         AssessmentScoreRecord record = service.getOwned(id);
         Map<String, Object> resp = toSummary(record);
-        resp.put("json", objectMapper.readTree(record.getScoreJson()));
+        resp.put("json", service.scoreJson(record));
         return ResponseEntity.ok(resp);
     }
 
@@ -77,7 +77,7 @@ public class AssessmentScoreRecordApiController {
             @PathVariable("id") Long id,
             @RequestParam(name = "pointer", required = false) String pointer) throws Exception {
         AssessmentScoreRecord record = service.getOwned(id);
-        JsonNode root = objectMapper.readTree(record.getScoreJson());
+        JsonNode root = service.scoreJson(record);
         if (pointer == null || pointer.isBlank()) {
             return ResponseEntity.ok(root);
         }
@@ -91,8 +91,7 @@ public class AssessmentScoreRecordApiController {
     @PutMapping("/{id}/json")
     public ResponseEntity<JsonNode> replaceJson(@PathVariable("id") Long id, @RequestBody JsonNode newJson)
             throws Exception {
-        String serialized = objectMapper.writeValueAsString(newJson);
-        service.replaceJson(id, serialized);
+        service.replaceJson(id, newJson);
         return ResponseEntity.ok(newJson);
     }
 
@@ -102,10 +101,9 @@ public class AssessmentScoreRecordApiController {
             @RequestParam(name = "pointer") String pointer,
             @RequestBody JsonNode value) throws Exception {
         AssessmentScoreRecord record = service.getOwned(id);
-        JsonNode root = objectMapper.readTree(record.getScoreJson());
+        JsonNode root = service.scoreJson(record);
         JsonNode updated = setAtPointer(root, pointer, value);
-        String serialized = objectMapper.writeValueAsString(updated);
-        service.replaceJson(id, serialized);
+        service.replaceJson(id, updated);
         return ResponseEntity.ok(updated);
     }
 
@@ -114,10 +112,9 @@ public class AssessmentScoreRecordApiController {
             @PathVariable("id") Long id,
             @RequestParam(name = "pointer") String pointer) throws Exception {
         AssessmentScoreRecord record = service.getOwned(id);
-        JsonNode root = objectMapper.readTree(record.getScoreJson());
+        JsonNode root = service.scoreJson(record);
         JsonNode updated = deleteAtPointer(root, pointer);
-        String serialized = objectMapper.writeValueAsString(updated);
-        service.replaceJson(id, serialized);
+        service.replaceJson(id, updated);
         return ResponseEntity.ok(updated);
     }
 
@@ -15,17 +15,17 @@ import com.barlarlar.myanmyanlearn.model.Course;
 import com.barlarlar.myanmyanlearn.model.Content;
 import com.barlarlar.myanmyanlearn.model.Subcontent;
 import com.barlarlar.myanmyanlearn.service.CourseService;
-import com.barlarlar.myanmyanlearn.service.AssessmentScoreRecordService;
+import com.barlarlar.myanmyanlearn.service.AssessmentScoreWriteBehind;
 import com.fasterxml.jackson.databind.JsonNode;
 
 @Controller
 public class ContentsController {
     private final CourseService courseService;
-    private final AssessmentScoreRecordService scoreRecordService;
+    private final AssessmentScoreWriteBehind scoreWriteBehind;
 
-    public ContentsController(CourseService courseService, AssessmentScoreRecordService scoreRecordService) {
+    public ContentsController(CourseService courseService, AssessmentScoreWriteBehind scoreWriteBehind) {
         this.courseService = courseService;
-        this.scoreRecordService = scoreRecordService;
+        this.scoreWriteBehind = scoreWriteBehind;
     }
 
     @GetMapping("/contents")
@@ -67,7 +67,7 @@ public class ContentsController {
         if (course != null) {
             courseHasQuestions = course.getId() != null
                     && courseService.countTotalQuestionsForCourse(course.getId()) > 0;
-            Optional<JsonNode> scoreJsonOpt = scoreRecordService
+            Optional<JsonNode> scoreJsonOpt = scoreWriteBehind
                     .latestScoreJsonForCurrentUser(Optional.ofNullable(course.getId()));
             if (scoreJsonOpt.isPresent()) {
                 JsonNode scoreJson = scoreJsonOpt.get();
@@ -2,7 +2,6 @@ package com.barlarlar.myanmyanlearn.controller;
 
 import com.barlarlar.myanmyanlearn.entity.Member;
 import com.barlarlar.myanmyanlearn.entity.Role;
-import com.barlarlar.myanmyanlearn.repository.AssessmentScoreRecordRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseRepository;
 import com.barlarlar.myanmyanlearn.repository.MemberRepository;
 import com.barlarlar.myanmyanlearn.repository.OtpVerificationRepository;
@@ -10,8 +9,9 @@ import com.barlarlar.myanmyanlearn.repository.PasswordResetTokenRepository;
 import com.barlarlar.myanmyanlearn.repository.RoleRepository;
 import com.barlarlar.myanmyanlearn.model.Content;
 import com.barlarlar.myanmyanlearn.model.Course;
-import com.barlarlar.myanmyanlearn.service.AssessmentScoreRecordService;
+import com.barlarlar.myanmyanlearn.service.AssessmentScoreWriteBehind;
 import com.barlarlar.myanmyanlearn.service.CourseService;
+import com.barlarlar.myanmyanlearn.service.CurrentMemberService;
 import com.barlarlar.myanmyanlearn.service.LoginAttemptService;
 import com.barlarlar.myanmyanlearn.service.RegistrationSettingsService;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -53,8 +53,7 @@ public class HomeController {
     private final MemberRepository memberRepository;
     private final RoleRepository roleRepository;
     private final CourseService courseService;
-    private final AssessmentScoreRecordService scoreRecordService;
-    private final AssessmentScoreRecordRepository assessmentScoreRecordRepository;
+    private final AssessmentScoreWriteBehind scoreWriteBehind;
     private final OtpVerificationRepository otpVerificationRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final LoginAttemptService loginAttemptService;
@@ -62,6 +61,7 @@ public class HomeController {
     private final RegistrationSettingsService registrationSettingsService;
     private final CourseRepository courseRepository;
     private final ObjectMapper objectMapper;
+    private final CurrentMemberService currentMemberService;
 
     private static final Set<String> ALLOWED_USER_ROLES = Set.of("ADMIN", "TEACHER", "STUDENT");
     private static final String ROLE_ADMIN = "ROLE_ADMIN";
@@ -86,16 +86,16 @@ public class HomeController {
             model.addAttribute("userInitials", getInitials(username));
 
             // Fetch user's full data from database
-            Optional<Member> memberOpt = memberRepository.findById(Objects.requireNonNull(username));
+            Optional<CurrentMemberService.CurrentMember> memberOpt = currentMemberService.find(username);
             log.debug("Fetching user data for: {}", username);
             if (memberOpt.isPresent()) {
-                Member member = memberOpt.get();
-                log.debug("User found: {} {} - {}", member.getFirstName(), member.getLastName(), member.getEmail());
-                model.addAttribute("userFirstName", member.getFirstName());
-                model.addAttribute("userLastName", member.getLastName());
-                model.addAttribute("userEmail", member.getEmail());
-                model.addAttribute("userFullName", getFullName(member.getFirstName(), member.getLastName()));
-                model.addAttribute("userInitials", getInitialsFromName(member.getFirstName(), member.getLastName()));
+                CurrentMemberService.CurrentMember member = memberOpt.get();
+                log.debug("User found: {} {} - {}", member.firstName(), member.lastName(), member.email());
+                model.addAttribute("userFirstName", member.firstName());
+                model.addAttribute("userLastName", member.lastName());
+                model.addAttribute("userEmail", member.email());
+                model.addAttribute("userFullName", getFullName(member.firstName(), member.lastName()));
+                model.addAttribute("userInitials", getInitialsFromName(member.firstName(), member.lastName()));
             } else {
                 log.debug("User not found in database: {}", username);
             }
@@ -118,7 +118,7 @@ public class HomeController {
                 courseProgress.put(course.getId(), 0);
                 continue;
             }
-            Optional<JsonNode> scoreJsonOpt = scoreRecordService
+            Optional<JsonNode> scoreJsonOpt = scoreWriteBehind
                     .latestScoreJsonForCurrentUser(Optional.ofNullable(course.getId()));
             Map<Integer, Integer> chapterProgress = scoreJsonOpt.isPresent()
                     ? computeChapterProgress(scoreJsonOpt.get())
@@ -339,6 +339,8 @@ public class HomeController {
 
             roleRepository.deleteByUserId(currentUserId);
             roleRepository.save(new Role(currentUserId, ROLE_TEACHER));
+            currentMemberService.evict(targetUserId);
+            currentMemberService.evict(currentUserId);
 
             refreshCurrentAuthentication(currentUserId, auth);
             new SecurityContextLogoutHandler().logout(request, response, auth);
@@ -356,6 +358,7 @@ public class HomeController {
         String roleValue = "ROLE_" + wantedKey;
         roleRepository.deleteByUserId(targetUserId);
         roleRepository.save(new Role(targetUserId, roleValue));
+        currentMemberService.evict(targetUserId);
 
         return redirectAdminUsers(q, field, roleFilter);
     }
@@ -398,7 +401,7 @@ public class HomeController {
         Member member = memberOpt.get();
         String email = member.getEmail();
 
-        assessmentScoreRecordRepository.deleteByUserId(targetUserId);
+        scoreWriteBehind.deleteAllForUser(targetUserId);
         roleRepository.deleteByUserId(targetUserId);
         otpVerificationRepository.deleteByUserId(targetUserId);
         if (email != null && !email.isBlank()) {
@@ -408,6 +411,7 @@ public class HomeController {
         loginAttemptService.deleteAttemptsForUser(targetUserId);
 
         memberRepository.delete(member);
+        currentMemberService.evict(targetUserId);
 
         return redirectAdminUsers(q, field, roleFilter);
     }
@@ -458,6 +462,7 @@ public class HomeController {
         Member member = memberOpt.get();
         member.setActive(newActive);
         memberRepository.save(member);
+        currentMemberService.evict(targetUserId);
 
         if (isAjax(request)) {
             return org.springframework.http.ResponseEntity.noContent().build();
@@ -543,6 +548,7 @@ public class HomeController {
             member.setSchoolYear(year);
         }
         memberRepository.save(Objects.requireNonNull(member));
+        currentMemberService.evict(targetUserId);
 
         if (isAjax(request)) {
             return org.springframework.http.ResponseEntity.noContent().build();
@@ -10,6 +10,7 @@ import com.barlarlar.myanmyanlearn.repository.CourseQuestionRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotOptionRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseSubchapterRepository;
+import com.barlarlar.myanmyanlearn.service.CourseSnapshotCache;
 import com.barlarlar.myanmyanlearn.service.storage.StorageService;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -44,6 +45,7 @@ public class MarkdownEditorController {
     private final CourseQuestionSlotOptionRepository courseQuestionSlotOptionRepository;
     private final CourseQuestionOptionRepository courseQuestionOptionRepository;
     private final StorageService storageService;
+    private final CourseSnapshotCache courseSnapshotCache;
 
     @GetMapping("/markdown-editor")
     public String editor(
@@ -133,6 +135,7 @@ public class MarkdownEditorController {
         }
         ch.setName(name);
         courseChapterRepository.save(ch);
+        courseSnapshotCache.invalidate(courseId);
         out.put("ok", true);
         out.put("chapterId", ensureChapterUid(ch));
         return ResponseEntity.ok(out);
@@ -168,6 +171,7 @@ public class MarkdownEditorController {
         }
         sc.setName(name);
         courseSubchapterRepository.save(sc);
+        courseSnapshotCache.invalidate(courseId);
         out.put("ok", true);
         out.put("subchapterId", ensureSubchapterUid(sc));
         return ResponseEntity.ok(out);
@@ -212,6 +216,7 @@ public class MarkdownEditorController {
         sc.setMarkdown("");
         CourseSubchapterEntity savedSub = courseSubchapterRepository.save(sc);
         String subStableId = ensureSubchapterUid(savedSub);
+        courseSnapshotCache.invalidate(courseId);
 
         out.put("ok", true);
         out.put("chapterId", chapterStableId);
@@ -252,6 +257,7 @@ public class MarkdownEditorController {
         sc.setName(name);
         sc.setMarkdown("");
         CourseSubchapterEntity saved = courseSubchapterRepository.save(sc);
+        courseSnapshotCache.invalidate(courseId);
         out.put("ok", true);
         out.put("chapterId", ensureChapterUid(ch));
         out.put("subchapterId", ensureSubchapterUid(saved));
@@ -292,6 +298,7 @@ public class MarkdownEditorController {
             return ResponseEntity.badRequest().body(out);
         }
         courseSubchapterRepository.delete(sc);
+        courseSnapshotCache.invalidate(courseId);
         out.put("ok", true);
         return ResponseEntity.ok(out);
     }
@@ -359,6 +366,7 @@ public class MarkdownEditorController {
             courseSubchapterRepository.deleteAll(subs);
         }
         courseChapterRepository.delete(ch);
+        courseSnapshotCache.invalidate(courseId);
         out.put("ok", true);
         return ResponseEntity.ok(out);
     }
@@ -407,6 +415,7 @@ public class MarkdownEditorController {
             out.put("message", "Invalid kind.");
             return ResponseEntity.badRequest().body(out);
         }
+        courseSnapshotCache.invalidate(target.courseId());
         out.put("ok", true);
         return ResponseEntity.ok(out);
     }
@@ -959,6 +968,7 @@ public class MarkdownEditorController {
         String uid = "chapter_" + ch.getId();
         ch.setChapterUid(uid);
         courseChapterRepository.save(ch);
+        courseSnapshotCache.invalidate(ch.getCourseId());
         return uid;
     }
 
@@ -970,6 +980,7 @@ public class MarkdownEditorController {
         String uid = "subchapter_" + sc.getId();
         sc.setSubchapterUid(uid);
         courseSubchapterRepository.save(sc);
+        invalidateChapterCourse(sc.getChapterId());
         return uid;
     }
 
@@ -981,9 +992,19 @@ public class MarkdownEditorController {
         String uid = "question_" + q.getId();
         q.setQuestionUid(uid);
         courseQuestionRepository.save(q);
+        invalidateChapterCourse(q.getChapterId());
         return uid;
     }
 
+    private void invalidateChapterCourse(Long chapterId) {
+        if (chapterId == null) {
+            return;
+        }
+        courseChapterRepository.findById(chapterId)
+                .map(CourseChapterEntity::getCourseId)
+                .ifPresent(courseSnapshotCache::invalidate);
+    }
+
     private static boolean isDigits(String v) {
         if (v == null || v.isBlank()) {
             return false;
@@ -0,0 +1,58 @@
+package com.barlarlar.myanmyanlearn.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import com.barlarlar.myanmyanlearn.service.MarkdownResourceCache;
+
+/**
+ * Builds cacheable markdown responses. ETag and Last-Modified are set on the
+ * entity so Spring answers matching conditional GETs with 304; the content is
+ * access-controlled, so caches must stay private and revalidate every time.
+ */
+final class MarkdownResponses {
+
+    private MarkdownResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(MarkdownResourceCache.MarkdownResource resource, String acceptEncoding) {
+        boolean gzip = resource.gzipBody() != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(gzip ? resource.gzipEtag() : resource.etag());
+        if (resource.lastModified() != null) {
+            builder.lastModified(resource.lastModified());
+        }
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return builder.body(resource.gzipBody());
+        }
+        return builder.body(resource.body());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!"gzip".equalsIgnoreCase(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+                    rejected = true;
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
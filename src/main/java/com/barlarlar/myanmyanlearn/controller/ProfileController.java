@@ -1,11 +1,12 @@
 package com.barlarlar.myanmyanlearn.controller;
 
 import com.barlarlar.myanmyanlearn.entity.Member;
-import com.barlarlar.myanmyanlearn.repository.AssessmentScoreRecordRepository;
 import com.barlarlar.myanmyanlearn.repository.MemberRepository;
 import com.barlarlar.myanmyanlearn.repository.OtpVerificationRepository;
 import com.barlarlar.myanmyanlearn.repository.PasswordResetTokenRepository;
 import com.barlarlar.myanmyanlearn.repository.RoleRepository;
+import com.barlarlar.myanmyanlearn.service.AssessmentScoreWriteBehind;
+import com.barlarlar.myanmyanlearn.service.CurrentMemberService;
 import com.barlarlar.myanmyanlearn.service.LoginAttemptService;
 import com.barlarlar.myanmyanlearn.service.PasswordValidationService;
 import com.barlarlar.myanmyanlearn.service.storage.StorageService;
@@ -51,10 +52,11 @@ public class ProfileController {
     private final RoleRepository roleRepository;
     private final OtpVerificationRepository otpVerificationRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
-    private final AssessmentScoreRecordRepository assessmentScoreRecordRepository;
     private final LoginAttemptService loginAttemptService;
     private final PasswordValidationService passwordValidationService;
     private final StorageService storageService;
+    private final CurrentMemberService currentMemberService;
+    private final AssessmentScoreWriteBehind scoreWriteBehind;
 
     private static final int NAME_MIN_LENGTH = 2;
     private static final int NAME_MAX_LENGTH = 50;
@@ -83,21 +85,21 @@ public class ProfileController {
             model.addAttribute("userInitials", getInitials(username));
 
             // Fetch user's full data from database
-            Optional<Member> memberOpt = memberRepository.findById(Objects.requireNonNull(username));
+            Optional<CurrentMemberService.CurrentMember> memberOpt = currentMemberService.find(username);
             log.debug("Fetching user data for: {}", username);
             if (memberOpt.isPresent()) {
-                Member member = memberOpt.get();
-                log.debug("User found: {} {} - {}", member.getFirstName(), member.getLastName(), member.getEmail());
-                model.addAttribute("userFirstName", member.getFirstName());
-                model.addAttribute("userLastName", member.getLastName());
-                model.addAttribute("userEmail", member.getEmail());
-                model.addAttribute("userFullName", getFullName(member.getFirstName(), member.getLastName()));
-                model.addAttribute("userInitials", getInitialsFromName(member.getFirstName(), member.getLastName()));
-                model.addAttribute("userProfileImage", member.getProfileImage());
-                model.addAttribute("userEmailVerified", member.getEmailVerified());
-                model.addAttribute("userActive", member.getActive());
-                model.addAttribute("userCurrentClass", member.getCurrentClass());
-                model.addAttribute("userSchoolYear", member.getSchoolYear());
+                CurrentMemberService.CurrentMember member = memberOpt.get();
+                log.debug("User found: {} {} - {}", member.firstName(), member.lastName(), member.email());
+                model.addAttribute("userFirstName", member.firstName());
+                model.addAttribute("userLastName", member.lastName());
+                model.addAttribute("userEmail", member.email());
+                model.addAttribute("userFullName", getFullName(member.firstName(), member.lastName()));
+                model.addAttribute("userInitials", getInitialsFromName(member.firstName(), member.lastName()));
+                model.addAttribute("userProfileImage", member.profileImage());
+                model.addAttribute("userEmailVerified", member.emailVerified());
+                model.addAttribute("userActive", member.active());
+                model.addAttribute("userCurrentClass", member.currentClass());
+                model.addAttribute("userSchoolYear", member.schoolYear());
             } else {
                 log.debug("User not found in database: {}", username);
             }
@@ -152,6 +154,7 @@ public class ProfileController {
             StorageService.StoredObject stored = storageService.put(key, image);
             member.setProfileImage(stored.url() + "?v=" + System.currentTimeMillis());
             memberRepository.save(member);
+            currentMemberService.evict(username);
         } catch (Exception e) {
             log.warn("Failed to upload profile image for user {}", username, e);
         }
@@ -186,6 +189,7 @@ public class ProfileController {
 
         member.setProfileImage(null);
         memberRepository.save(member);
+        currentMemberService.evict(username);
         return "redirect:/profile";
     }
 
@@ -340,7 +344,7 @@ public class ProfileController {
 
                 String email = member.getEmail();
 
-                assessmentScoreRecordRepository.deleteByUserId(username);
+                scoreWriteBehind.deleteAllForUser(username);
                 roleRepository.deleteByUserId(username);
                 otpVerificationRepository.deleteByUserId(username);
                 if (email != null && !email.isBlank()) {
@@ -350,6 +354,7 @@ public class ProfileController {
                 loginAttemptService.deleteAttemptsForUser(username);
 
                 memberRepository.delete(member);
+                currentMemberService.evict(username);
                 log.info("User account deleted successfully");
 
                 // Logout the user
@@ -431,6 +436,7 @@ public class ProfileController {
             member.setFirstName(firstName);
             member.setLastName(lastName);
             memberRepository.save(member);
+            currentMemberService.evict(username);
 
             log.info("Name changed successfully for user: {} to: {} {}", username, firstName, lastName);
 
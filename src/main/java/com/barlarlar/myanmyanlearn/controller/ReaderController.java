@@ -1,15 +1,17 @@
 package com.barlarlar.myanmyanlearn.controller;
 
+import static com.barlarlar.myanmyanlearn.service.GeminiTranslationClient.normalizeLang;
+
 import com.barlarlar.myanmyanlearn.model.Content;
 import com.barlarlar.myanmyanlearn.model.Course;
 import com.barlarlar.myanmyanlearn.model.Subcontent;
 import com.barlarlar.myanmyanlearn.service.CourseService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.barlarlar.myanmyanlearn.service.GeminiTranslationClient;
+import com.barlarlar.myanmyanlearn.service.MarkdownResourceCache;
+import com.barlarlar.myanmyanlearn.service.MarkdownTranslationService;
+import com.barlarlar.myanmyanlearn.service.TranslationGateway;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
@@ -17,35 +19,31 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.Optional;
 import java.util.Comparator;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+@Slf4j
 @Controller
 @RequiredArgsConstructor
 public class ReaderController {
+    private static final long TRANSLATE_STREAM_TIMEOUT_MS = 300_000L;
 
     private final CourseService courseService;
-    private final ObjectMapper objectMapper;
-
-    @Value("${google.studio.api-key:}")
-    private String googleStudioApiKey;
-
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private volatile String cachedModelName;
+    private final MarkdownResourceCache markdownResourceCache;
+    private final MarkdownTranslationService markdownTranslationService;
+    private final TranslationGateway translationGateway;
 
     @GetMapping("/reader")
     public String reader(
@@ -122,6 +120,8 @@ public class ReaderController {
             resp.error = "Markdown not found";
             return ResponseEntity.status(404).body(resp);
         }
+        resp.html = markdownResourceCache.findHtml(courseId, MarkdownResourceCache.Kind.SUBCHAPTER, chapterOrder,
+                subOrder);
         return ResponseEntity.ok(resp);
     }
 
@@ -131,8 +131,7 @@ public class ReaderController {
         if (req == null || req.text == null) {
             return ResponseEntity.badRequest().body("Missing text.");
         }
-        String apiKey = googleStudioApiKey == null ? "" : googleStudioApiKey.trim();
-        if (apiKey.isEmpty()) {
+        if (!translationGateway.isConfigured()) {
             return ResponseEntity.status(503).body("Translation API key is not configured.");
         }
         String sourceLang = normalizeLang(req.sourceLang);
@@ -141,30 +140,96 @@ public class ReaderController {
             return ResponseEntity.ok(req.text);
         }
         try {
-            String translated = translateMarkdown(apiKey, sourceLang, targetLang, req.text);
+            String translated = markdownTranslationService.translate(req.text, sourceLang, targetLang,
+                    GeminiTranslationClient.PROMPT_VERSION,
+                    chunk -> translationGateway.translateMarkdown(sourceLang, targetLang, chunk));
             return ResponseEntity.ok(translated);
+        } catch (TranslationGateway.TranslationUnavailableException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5").body(e.getMessage());
         } catch (Exception e) {
             String msg = e.getMessage() == null ? "Translation failed." : e.getMessage();
             return ResponseEntity.status(502).body(msg);
         }
     }
 
+    @PostMapping(value = "/reader/translate/stream", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> translateStream(@RequestBody TranslateRequest req) {
+        if (req == null || req.text == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!translationGateway.isConfigured()) {
+            return ResponseEntity.status(503).build();
+        }
+        String sourceLang = normalizeLang(req.sourceLang);
+        String targetLang = normalizeLang(req.targetLang);
+        SseEmitter emitter = new SseEmitter(TRANSLATE_STREAM_TIMEOUT_MS);
+        if (targetLang == null || (sourceLang != null && sourceLang.equals(targetLang))) {
+            sendChunk(emitter, req.text);
+            sendDone(emitter);
+            return ResponseEntity.ok(emitter);
+        }
+        markdownTranslationService.streamAsync(req.text, sourceLang, targetLang,
+                GeminiTranslationClient.PROMPT_VERSION,
+                chunk -> translationGateway.translateMarkdown(sourceLang, targetLang, chunk),
+                (chunk, onDelta) -> translationGateway.streamTranslateMarkdown(sourceLang, targetLang, chunk,
+                        onDelta),
+                (index, part) -> emitter.send(SseEmitter.event().name("chunk")
+                        .data(Map.of("text", part), MediaType.APPLICATION_JSON)))
+                .whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        sendDone(emitter);
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    try {
+                        String msg = cause.getMessage() == null ? "Translation failed." : cause.getMessage();
+                        emitter.send(SseEmitter.event().name("error")
+                                .data(Map.of("message", msg), MediaType.APPLICATION_JSON));
+                        emitter.complete();
+                    } catch (IOException | IllegalStateException e) {
+                        emitter.completeWithError(cause);
+                    }
+                });
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static void sendChunk(SseEmitter emitter, String text) {
+        try {
+            emitter.send(SseEmitter.event().name("chunk").data(Map.of("text", text), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void sendDone(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name("done").data(""));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
     @GetMapping(value = "/reader/md", produces = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8")
-    public ResponseEntity<String> markdown(
+    public ResponseEntity<byte[]> markdown(
             @RequestParam(name = "courseId") String courseId,
             @RequestParam(name = "ch") Integer chapterOrder,
-            @RequestParam(name = "sc") Integer subOrder) {
+            @RequestParam(name = "sc") Integer subOrder,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         Authentication auth = SecurityContextHolder.getContext() != null
                 ? SecurityContextHolder.getContext().getAuthentication()
                 : null;
         if (!courseService.canAccessCourse(courseId, auth)) {
             return ResponseEntity.notFound().build();
         }
-        String markdown = courseService.findMarkdownFromDatabase(courseId, chapterOrder, subOrder);
-        if (markdown == null) {
+        MarkdownResourceCache.MarkdownResource resource = markdownResourceCache.find(courseId,
+                MarkdownResourceCache.Kind.SUBCHAPTER, chapterOrder, subOrder);
+        if (resource == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(markdown);
+        return MarkdownResponses.of(resource, acceptEncoding);
     }
 
     private ReaderPageData buildReaderPageData(String courseId, Integer chapterOrder, Integer subOrder) {
@@ -303,196 +368,18 @@ public class ReaderController {
         public Integer nextCh;
         public Integer nextSc;
         public String markdown;
+        public String html;
         public String updatedAt;
         public String markdownPath;
         public String error;
     }
 
-    private String normalizeLang(String value) {
-        String v = value == null ? "" : value.trim().toLowerCase();
-        if (v.isEmpty()) {
-            return null;
-        }
-        if ("jp".equals(v)) {
-            return "ja";
-        }
-        if ("mm".equals(v)) {
-            return "my";
-        }
-        return v;
-    }
-
-    private String languageLabel(String langCode) {
-        if (langCode == null || langCode.isBlank()) {
-            return "";
-        }
-        String v = langCode.trim().toLowerCase();
-        if ("my".equals(v)) {
-            return "Burmese (Myanmar)";
-        }
-        if ("ms".equals(v)) {
-            return "Malay";
-        }
-        if ("ja".equals(v)) {
-            return "Japanese";
-        }
-        if ("en".equals(v)) {
-            return "English";
-        }
-        return v;
-    }
-
-    private String translateMarkdown(String apiKey, String sourceLang, String targetLang, String text)
-            throws Exception {
-        String modelName = getGenerateContentModel(apiKey);
-        String url = "https://generativelanguage.googleapis.com/v1beta/" + modelName + ":generateContent?key="
-                + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
-        String sourceLabel = sourceLang == null ? null : languageLabel(sourceLang);
-        String targetLabel = languageLabel(targetLang);
-        String prompt = (sourceLang == null || sourceLang.isBlank())
-                ? "Translate the following Markdown to " + targetLabel + ". "
-                : "Translate the following Markdown from " + sourceLabel + " to " + targetLabel + ". ";
-        prompt += "Keep technical terms in English (e.g., programming keywords, API names, product names, "
-                + "identifiers, and code symbols). "
-                + "Do NOT translate or change enumerations like 'ア', 'イ', 'ウ', 'エ', 'オ' or corresponding numbering (e.g., maintain '1.', '2.', 'A.', 'B.', etc.). "
-                + "Preserve Markdown formatting, links, code blocks, and inline code. "
-                + "Do NOT render HTML/CSS code. Keep all code blocks explicitly wrapped in Markdown code fences (```). "
-                + "Return only the translated Markdown.\n\n" + text;
-
-        ObjectNode body = objectMapper.createObjectNode();
-        ArrayNode contents = body.putArray("contents");
-        ObjectNode content = contents.addObject();
-        content.put("role", "user");
-        ArrayNode parts = content.putArray("parts");
-        parts.addObject().put("text", prompt);
-
-        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
-                .build();
-        HttpResponse<String> resp = httpClient.send(request,
-                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
-            throw new IOException("HTTP " + resp.statusCode() + " " + safeTrim(resp.body(), 300));
-        }
-        JsonNode data = objectMapper.readTree(resp.body());
-        JsonNode partsNode = data.path("candidates").path(0).path("content").path("parts");
-        if (!partsNode.isArray()) {
-            throw new IOException("Unexpected response from translation service.");
-        }
-        StringBuilder sb = new StringBuilder();
-        for (JsonNode p : partsNode) {
-            String t = p.path("text").asText("");
-            if (!t.isEmpty()) {
-                sb.append(t);
-            }
-        }
-        String out = sb.toString().trim();
-        if (out.isEmpty()) {
-            throw new IOException("Empty translation result.");
-        }
-        return out;
-    }
-
-    private String getGenerateContentModel(String apiKey) throws Exception {
-        String cached = cachedModelName;
-        if (cached != null && !cached.isBlank()) {
-            return cached;
-        }
-        String url = "https://generativelanguage.googleapis.com/v1beta/models?key="
-                + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
-        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
-                .GET()
-                .build();
-        HttpResponse<String> resp = httpClient.send(request,
-                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
-            throw new IOException("HTTP " + resp.statusCode() + " " + safeTrim(resp.body(), 300));
-        }
-        JsonNode data = objectMapper.readTree(resp.body());
-        JsonNode models = data.path("models");
-        if (!models.isArray()) {
-            throw new IOException("No models available.");
-        }
-        List<String> preferred = List.of(
-                "models/gemini-1.5-flash",
-                "models/gemini-1.5-flash-002",
-                "models/gemini-1.5-flash-001",
-                "models/gemini-1.5-pro",
-                "models/gemini-1.5-pro-002",
-                "models/gemini-1.5-pro-001",
-                "models/gemini-pro");
-        String picked = null;
-        for (String p : preferred) {
-            if (hasGenerateContentModel(models, p)) {
-                picked = p;
-                break;
-            }
-        }
-        if (picked == null) {
-            for (JsonNode m : models) {
-                String name = m.path("name").asText("");
-                if (name.isEmpty()) {
-                    continue;
-                }
-                JsonNode methods = m.path("supportedGenerationMethods");
-                if (methods.isArray()) {
-                    for (JsonNode method : methods) {
-                        if ("generateContent".equals(method.asText(""))) {
-                            picked = name;
-                            break;
-                        }
-                    }
-                }
-                if (picked != null) {
-                    break;
-                }
-            }
-        }
-        if (picked == null) {
-            throw new IOException("No generateContent-capable model available.");
-        }
-        cachedModelName = picked;
-        return picked;
-    }
-
-    private boolean hasGenerateContentModel(JsonNode models, String name) {
-        for (JsonNode m : models) {
-            if (!name.equals(m.path("name").asText(""))) {
-                continue;
-            }
-            JsonNode methods = m.path("supportedGenerationMethods");
-            if (!methods.isArray()) {
-                return false;
-            }
-            for (JsonNode method : methods) {
-                if ("generateContent".equals(method.asText(""))) {
-                    return true;
-                }
-            }
-            return false;
-        }
-        return false;
-    }
-
-    private String safeTrim(String value, int max) {
-        if (value == null) {
-            return "";
-        }
-        String v = value.trim();
-        if (v.length() <= max) {
-            return v;
-        }
-        return v.substring(0, max);
-    }
-
     @PostMapping(value = "/reader/translate/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> translateBatch(@RequestBody BatchTranslateRequest req) {
         if (req == null || req.items == null || req.items.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        String apiKey = googleStudioApiKey == null ? "" : googleStudioApiKey.trim();
-        if (apiKey.isEmpty()) {
+        if (!translationGateway.isConfigured()) {
             return ResponseEntity.status(503).build();
         }
         String sourceLang = normalizeLang(req.sourceLang);
@@ -502,89 +389,17 @@ public class ReaderController {
         }
 
         try {
-            // We serve a single prompt with all items as a JSON object
-            // to get a JSON object back with translated values.
-            ObjectNode root = objectMapper.createObjectNode();
-            req.items.forEach(root::put);
-            String jsonToTranslate = objectMapper.writeValueAsString(root);
-
-            String prompt = "Translate the values of the following JSON object to " + languageLabel(targetLang) + ". "
-                    + (sourceLang != null ? "Source language is " + languageLabel(sourceLang) + ". " : "")
-                    + "Do NOT translate keys. Keep the JSON structure exactly the same. "
-                    + "Keep technical terms in English (e.g., programming keywords, API names, product names, identifiers, and code symbols). "
-                    + "Do NOT translate or change enumerations like 'ア', 'イ', 'ウ', 'エ', 'オ' or corresponding numbering (e.g., maintain '1.', '2.', 'A.', 'B.', etc.). "
-                    + "Preserve Markdown formatting. "
-                    + "Return ONLY the valid JSON object.\n\n" + jsonToTranslate;
-
-            String translatedJson = translateTextGeneric(apiKey, prompt);
-
-            // Clean up code fences if the model adds them
-            translatedJson = translatedJson.trim();
-            if (translatedJson.startsWith("```json")) {
-                translatedJson = translatedJson.substring(7);
-            } else if (translatedJson.startsWith("```")) {
-                translatedJson = translatedJson.substring(3);
-            }
-            if (translatedJson.endsWith("```")) {
-                translatedJson = translatedJson.substring(0, translatedJson.length() - 3);
-            }
-
-            JsonNode resultNode = objectMapper.readTree(translatedJson);
-            Map<String, String> result = new java.util.HashMap<>();
-            if (resultNode.isObject()) {
-                resultNode.fieldNames().forEachRemaining(fieldName -> {
-                    result.put(fieldName, resultNode.get(fieldName).asText());
-                });
-            }
-            return ResponseEntity.ok(result);
-
+            return ResponseEntity.ok(markdownTranslationService.translateAll(req.items, sourceLang, targetLang,
+                    GeminiTranslationClient.PROMPT_VERSION,
+                    chunk -> translationGateway.translateMarkdown(sourceLang, targetLang, chunk)));
+        } catch (TranslationGateway.TranslationUnavailableException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5").build();
         } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Batch translation error: " + e.getMessage());
+            log.warn("Batch translation failed", e);
             return ResponseEntity.status(502).build();
         }
     }
 
-    private String translateTextGeneric(String apiKey, String prompt) throws Exception {
-        String modelName = getGenerateContentModel(apiKey);
-        String url = "https://generativelanguage.googleapis.com/v1beta/" + modelName + ":generateContent?key="
-                + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
-
-        ObjectNode body = objectMapper.createObjectNode();
-        ArrayNode contents = body.putArray("contents");
-        ObjectNode content = contents.addObject();
-        content.put("role", "user");
-        ArrayNode parts = content.putArray("parts");
-        parts.addObject().put("text", prompt);
-
-        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
-                .build();
-        HttpResponse<String> resp = httpClient.send(request,
-                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-
-        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
-            System.err.println("Google AI API Error: " + resp.statusCode() + " " + resp.body());
-            throw new IOException("HTTP " + resp.statusCode());
-        }
-
-        try {
-            JsonNode data = objectMapper.readTree(resp.body());
-            JsonNode partsNode = data.path("candidates").path(0).path("content").path("parts");
-            StringBuilder sb = new StringBuilder();
-            if (partsNode.isArray()) {
-                for (JsonNode p : partsNode) {
-                    sb.append(p.path("text").asText(""));
-                }
-            }
-            return sb.toString();
-        } catch (Exception e) {
-            System.err.println("Failed to parse Google AI response: " + resp.body());
-            throw e;
-        }
-    }
-
     private static class TranslateRequest {
         public String text;
         public String sourceLang;
@@ -0,0 +1,90 @@
+package com.barlarlar.myanmyanlearn.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriUtils;
+
+import com.barlarlar.myanmyanlearn.service.storage.IndexedStorageService;
+import com.barlarlar.myanmyanlearn.service.storage.StorageAssetIndex;
+import com.barlarlar.myanmyanlearn.service.storage.StorageService;
+
+/**
+ * Serves stored objects under {@code /uploads/}. Keys resolve through
+ * {@link StorageService}, so content-addressed blobs are streamed from
+ * wherever the backend keeps them.
+ */
+@Controller
+@RequiredArgsConstructor
+public class StorageAssetController {
+    private static final String PREFIX = "/uploads/";
+
+    private final StorageService storageService;
+    private final StorageAssetIndex storageAssetIndex;
+
+    @GetMapping("/uploads/**")
+    public ResponseEntity<StreamingResponseBody> asset(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String key = keyOf(request);
+        if (key == null || !storageService.exists(key)) {
+            return ResponseEntity.notFound().build();
+        }
+        StorageAssetIndex.IndexedAsset asset = storageAssetIndex.find(key);
+        StorageService.StoredObject object = asset != null ? asset.object() : null;
+        // Only a linked key's metadata is pinned to its bytes: the content hash is the ETag.
+        boolean linked = asset != null && asset.linked();
+        String etag = linked ? "\"" + asset.contentHash() + "\"" : null;
+        if (etag != null && new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        MediaType contentType;
+        try {
+            contentType = object != null && object.contentType() != null && !object.contentType().isBlank()
+                    ? MediaType.parseMediaType(object.contentType())
+                    : MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        } catch (IllegalArgumentException e) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(contentType);
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        if (linked && object.size() >= 0L) {
+            builder.contentLength(object.size());
+        }
+        return builder.body(out -> storageService.copyTo(key, out));
+    }
+
+    private static String keyOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(PREFIX)) {
+            return null;
+        }
+        String key = UriUtils.decode(path.substring(PREFIX.length()), StandardCharsets.UTF_8);
+        if (key.isBlank() || key.startsWith(IndexedStorageService.BLOB_PREFIX) || key.contains("\\")) {
+            return null;
+        }
+        for (String segment : key.split("/", -1)) {
+            if (segment.isEmpty() || ".".equals(segment) || "..".equals(segment)) {
+                return null;
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,52 @@
+package com.barlarlar.myanmyanlearn.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "assessment_score_attempts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_assessment_score_attempts_key", columnNames = { "score_id", "attempt_key" })
+}, indexes = {
+        @Index(name = "idx_assessment_score_attempts_score", columnList = "score_id, submitted_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AssessmentScoreAttemptEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "score_id", nullable = false)
+    private Long scoreId;
+
+    @Column(name = "attempt_key", length = 64)
+    private String attemptKey;
+
+    @Column(name = "course_id", length = 255)
+    private String courseId;
+
+    @Column(name = "chapter_count", nullable = false)
+    private Integer chapterCount;
+
+    @Column(name = "correct_slots", nullable = false)
+    private Integer correctSlots;
+
+    @Column(name = "total_slots", nullable = false)
+    private Integer totalSlots;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+}
@@ -0,0 +1,57 @@
+package com.barlarlar.myanmyanlearn.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "assessment_score_chapters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_assessment_score_chapters_score_chapter", columnNames = { "score_id",
+                "chapter_no" })
+}, indexes = {
+        @Index(name = "idx_assessment_score_chapters_chapter", columnList = "chapter_no")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AssessmentScoreChapterEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "score_id", nullable = false)
+    private Long scoreId;
+
+    @Column(name = "chapter_no", nullable = false)
+    private Integer chapterNo;
+
+    @Column(name = "chapter_pos", nullable = false)
+    private Integer chapterPos;
+
+    // 0 when the chapter was migrated or edited rather than submitted.
+    @Column(name = "attempt_id", nullable = false)
+    private Long attemptId;
+
+    @Column(name = "question_count", nullable = false)
+    private Integer questionCount;
+
+    @Column(name = "correct_slots", nullable = false)
+    private Integer correctSlots;
+
+    @Column(name = "total_slots", nullable = false)
+    private Integer totalSlots;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
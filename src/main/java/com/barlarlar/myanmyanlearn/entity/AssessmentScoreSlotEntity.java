@@ -0,0 +1,47 @@
+package com.barlarlar.myanmyanlearn.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "assessment_score_slots", indexes = {
+        @Index(name = "idx_assessment_score_slots_score_chapter", columnList = "score_id, chapter_no")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AssessmentScoreSlotEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "score_id", nullable = false)
+    private Long scoreId;
+
+    @Column(name = "chapter_no", nullable = false)
+    private Integer chapterNo;
+
+    @Column(name = "question_pos", nullable = false)
+    private Integer questionPos;
+
+    @Column(name = "question_no", nullable = false)
+    private Integer questionNo;
+
+    @Column(name = "slot_pos", nullable = false)
+    private Integer slotPos;
+
+    @Column(name = "slot_no", nullable = false)
+    private Integer slotNo;
+
+    @Column(name = "is_correct", nullable = false)
+    private Boolean correct;
+}
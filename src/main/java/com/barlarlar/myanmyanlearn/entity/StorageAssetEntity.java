@@ -0,0 +1,73 @@
+package com.barlarlar.myanmyanlearn.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "storage_assets", indexes = {
+        @Index(name = "idx_storage_assets_course_chapter", columnList = "course_folder, chapter_folder, target_folder"),
+        @Index(name = "idx_storage_assets_content_hash", columnList = "content_hash")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class StorageAssetEntity {
+
+    @Id
+    @Column(name = "storage_key", length = 512, nullable = false)
+    private String storageKey;
+
+    @Column(name = "course_folder", length = 255)
+    private String courseFolder;
+
+    @Column(name = "chapter_folder", length = 255)
+    private String chapterFolder;
+
+    @Column(name = "target_folder", length = 255)
+    private String targetFolder;
+
+    @Column(name = "url", length = 1024)
+    private String url;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "content_type", length = 255)
+    private String contentType;
+
+    @Column(name = "etag", length = 128)
+    private String etag;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
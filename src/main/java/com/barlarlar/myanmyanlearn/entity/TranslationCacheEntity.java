@@ -0,0 +1,66 @@
+package com.barlarlar.myanmyanlearn.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "translation_cache", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_translation_cache_key", columnNames = { "source_hash", "source_lang",
+                "target_lang", "prompt_version" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class TranslationCacheEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_hash", length = 64, nullable = false)
+    private String sourceHash;
+
+    @Column(name = "source_lang", length = 16, nullable = false)
+    private String sourceLang;
+
+    @Column(name = "target_lang", length = 16, nullable = false)
+    private String targetLang;
+
+    @Column(name = "prompt_version", nullable = false)
+    private Integer promptVersion;
+
+    @Lob
+    @Column(name = "translated_text", nullable = false, columnDefinition = "LONGTEXT")
+    private String translatedText;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
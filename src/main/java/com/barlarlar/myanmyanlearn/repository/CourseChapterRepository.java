@@ -9,6 +9,8 @@ import org.springframework.stereotype.Repository;
 public interface CourseChapterRepository extends JpaRepository<CourseChapterEntity, Long> {
     List<CourseChapterEntity> findByCourseIdOrderByChapterNumberAsc(String courseId);
 
+    List<CourseChapterEntity> findByCourseIdInOrderByCourseIdAscChapterNumberAsc(List<String> courseIds);
+
     CourseChapterEntity findByCourseIdAndChapterNumber(String courseId, Integer chapterNumber);
 
     CourseChapterEntity findByCourseIdAndChapterUid(String courseId, String chapterUid);
@@ -8,4 +8,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CourseQuestionOptionRepository extends JpaRepository<CourseQuestionOptionEntity, Long> {
     List<CourseQuestionOptionEntity> findByQuestionIdOrderByOptionIndexAsc(Long questionId);
+
+    List<CourseQuestionOptionEntity> findByQuestionIdInOrderByQuestionIdAscOptionIndexAsc(List<Long> questionIds);
 }
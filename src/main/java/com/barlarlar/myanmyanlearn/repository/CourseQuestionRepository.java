@@ -9,6 +9,8 @@ import org.springframework.stereotype.Repository;
 public interface CourseQuestionRepository extends JpaRepository<CourseQuestionEntity, Long> {
     List<CourseQuestionEntity> findByChapterIdOrderByQuestionNumberAsc(Long chapterId);
 
+    List<CourseQuestionEntity> findByChapterIdInOrderByChapterIdAscQuestionNumberAsc(List<Long> chapterIds);
+
     CourseQuestionEntity findByChapterIdAndQuestionNumber(Long chapterId, Integer questionNumber);
 
     CourseQuestionEntity findByChapterIdAndQuestionUid(Long chapterId, String questionUid);
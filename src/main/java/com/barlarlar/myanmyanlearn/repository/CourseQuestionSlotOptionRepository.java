@@ -8,4 +8,7 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CourseQuestionSlotOptionRepository extends JpaRepository<CourseQuestionSlotOptionEntity, Long> {
     List<CourseQuestionSlotOptionEntity> findByQuestionSlotIdOrderByOptionIndexAsc(Long questionSlotId);
+
+    List<CourseQuestionSlotOptionEntity> findByQuestionSlotIdInOrderByQuestionSlotIdAscOptionIndexAsc(
+            List<Long> questionSlotIds);
 }
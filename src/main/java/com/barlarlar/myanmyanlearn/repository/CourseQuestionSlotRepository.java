@@ -8,4 +8,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CourseQuestionSlotRepository extends JpaRepository<CourseQuestionSlotEntity, Long> {
     List<CourseQuestionSlotEntity> findByQuestionIdOrderBySlotIndexAsc(Long questionId);
+
+    List<CourseQuestionSlotEntity> findByQuestionIdInOrderByQuestionIdAscSlotIndexAsc(List<Long> questionIds);
 }
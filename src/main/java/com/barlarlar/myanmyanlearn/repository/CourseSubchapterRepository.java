@@ -9,6 +9,8 @@ import org.springframework.stereotype.Repository;
 public interface CourseSubchapterRepository extends JpaRepository<CourseSubchapterEntity, Long> {
     List<CourseSubchapterEntity> findByChapterIdOrderBySubchapterNumberAsc(Long chapterId);
 
+    List<CourseSubchapterEntity> findByChapterIdInOrderByChapterIdAscSubchapterNumberAsc(List<Long> chapterIds);
+
     CourseSubchapterEntity findByChapterIdAndSubchapterNumber(Long chapterId, Integer subchapterNumber);
 
     CourseSubchapterEntity findByChapterIdAndSubchapterUid(Long chapterId, String subchapterUid);
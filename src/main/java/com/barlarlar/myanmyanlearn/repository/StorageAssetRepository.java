@@ -0,0 +1,13 @@
+package com.barlarlar.myanmyanlearn.repository;
+
+import com.barlarlar.myanmyanlearn.entity.StorageAssetEntity;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StorageAssetRepository extends JpaRepository<StorageAssetEntity, String> {
+    List<StorageAssetEntity> findByStorageKeyStartingWith(String prefix);
+
+    List<StorageAssetEntity> findByStorageKeyStartingWithAndContentHashIsNotNull(String prefix);
+}
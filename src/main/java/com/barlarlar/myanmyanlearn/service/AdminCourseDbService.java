@@ -25,6 +25,7 @@ import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotOptionRepository
 import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseSubchapterRepository;
+import com.barlarlar.myanmyanlearn.service.storage.AssetTransferExecutor;
 import com.barlarlar.myanmyanlearn.service.storage.StorageService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -34,7 +35,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.UUID;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -51,6 +52,11 @@ public class AdminCourseDbService {
     private final EntityManager entityManager;
     private final StorageService storageService;
     private final ImportStatusService importStatusService;
+    private final CourseSnapshotCache courseSnapshotCache;
+    private final CourseTreeWriter courseTreeWriter;
+    private final CourseTreeLoader courseTreeLoader;
+    private final QuestionGraphLoader questionGraphLoader;
+    private final AssetTransferExecutor assetTransferExecutor;
 
     public AdminCourseDbService(
             ObjectMapper objectMapper,
@@ -63,7 +69,12 @@ public class AdminCourseDbService {
             CourseQuestionOptionRepository courseQuestionOptionRepository,
             EntityManager entityManager,
             StorageService storageService,
-            ImportStatusService importStatusService) {
+            ImportStatusService importStatusService,
+            CourseSnapshotCache courseSnapshotCache,
+            CourseTreeWriter courseTreeWriter,
+            CourseTreeLoader courseTreeLoader,
+            QuestionGraphLoader questionGraphLoader,
+            AssetTransferExecutor assetTransferExecutor) {
         this.objectMapper = objectMapper;
         this.courseRepository = courseRepository;
         this.courseChapterRepository = courseChapterRepository;
@@ -75,6 +86,11 @@ public class AdminCourseDbService {
         this.entityManager = entityManager;
         this.storageService = storageService;
         this.importStatusService = importStatusService;
+        this.courseSnapshotCache = courseSnapshotCache;
+        this.courseTreeWriter = courseTreeWriter;
+        this.courseTreeLoader = courseTreeLoader;
+        this.questionGraphLoader = questionGraphLoader;
+        this.assetTransferExecutor = assetTransferExecutor;
     }
 
     public record TargetStudents(List<String> schoolYears, List<String> classes) {
@@ -123,6 +139,17 @@ public class AdminCourseDbService {
             List<EditorChapter> chapters) {
     }
 
+    public record ChangeCounts(int inserted, int updated, int deleted) {
+    }
+
+    public record SaveSummary(
+            ChangeCounts chapters,
+            ChangeCounts subchapters,
+            ChangeCounts questions,
+            int answerSetsReplaced,
+            int rowsWritten) {
+    }
+
     public record BllMeta(
             String format,
             int version,
@@ -146,6 +173,7 @@ public class AdminCourseDbService {
 
         List<CourseChapterEntity> chapters = courseChapterRepository.findByCourseIdOrderByChapterNumberAsc(courseId);
         List<EditorChapter> editorChapters = new ArrayList<>();
+        boolean backfilledUids = false;
         for (CourseChapterEntity ch : chapters) {
             if (ch == null || ch.getId() == null) {
                 continue;
@@ -155,6 +183,7 @@ public class AdminCourseDbService {
             if (ch.getChapterUid() == null || ch.getChapterUid().isBlank()) {
                 ch.setChapterUid(chapterUid);
                 courseChapterRepository.save(ch);
+                backfilledUids = true;
             }
 
             List<CourseSubchapterEntity> subs = courseSubchapterRepository.findByChapterIdOrderBySubchapterNumberAsc(
@@ -168,6 +197,7 @@ public class AdminCourseDbService {
                 if (sc.getSubchapterUid() == null || sc.getSubchapterUid().isBlank()) {
                     sc.setSubchapterUid(subUid);
                     courseSubchapterRepository.save(sc);
+                    backfilledUids = true;
                 }
                 editorSubs.add(new EditorSubchapter(
                         subUid,
@@ -186,6 +216,7 @@ public class AdminCourseDbService {
                 if (q.getQuestionUid() == null || q.getQuestionUid().isBlank()) {
                     q.setQuestionUid(qUid);
                     courseQuestionRepository.save(q);
+                    backfilledUids = true;
                 }
                 List<List<SlotOption>> slotOptions = loadSlotOptionsForQuestion(q.getId());
                 editorQuestions.add(new EditorQuestion(
@@ -203,6 +234,9 @@ public class AdminCourseDbService {
                     editorSubs,
                     editorQuestions));
         }
+        if (backfilledUids) {
+            courseSnapshotCache.invalidate(courseId);
+        }
 
         return new CourseEditor(
                 course.getCourseId(),
@@ -235,6 +269,7 @@ public class AdminCourseDbService {
         entity.setTargetStudentsJson(targetStudentsJson);
         entity.setPublished(meta.published());
         courseRepository.save(entity);
+        courseSnapshotCache.invalidate(entity.getCourseId());
     }
 
     @Transactional
@@ -244,24 +279,29 @@ public class AdminCourseDbService {
         }
         String prefix = "courses/" + sanitizePathSegment(courseId) + "/";
         try {
-            List<StorageService.StoredObject> objects = storageService.list(prefix);
-            for (StorageService.StoredObject obj : objects) {
+            List<String> keys = new ArrayList<>();
+            for (StorageService.StoredObject obj : storageService.list(prefix)) {
                 if (obj == null || obj.key() == null) {
                     continue;
                 }
                 String key = obj.key().trim();
-                if (key.isBlank()) {
-                    continue;
+                if (!key.isBlank()) {
+                    keys.add(key);
                 }
+            }
+            assetTransferExecutor.transferOrdered(keys, key -> {
                 try {
                     storageService.delete(key);
                 } catch (IOException e) {
                 }
-            }
+                return key;
+            }, (index, key, deleted) -> {
+            });
         } catch (IOException e) {
         }
         deleteCourseChildren(courseId);
         courseRepository.deleteById(courseId);
+        courseSnapshotCache.invalidate(courseId);
     }
 
     @Transactional
@@ -293,11 +333,12 @@ public class AdminCourseDbService {
         String url = stored != null ? stored.url() : null;
         course.setCoverImageUrl(normalizeCoverUrl(url));
         courseRepository.save(course);
+        courseSnapshotCache.invalidate(courseId);
         return course.getCoverImageUrl();
     }
 
     @Transactional
-    public void saveCourseEditor(CourseEditor editor) {
+    public SaveSummary saveCourseEditor(CourseEditor editor) {
         if (editor == null || editor.id() == null || editor.id().isBlank()) {
             throw new IllegalArgumentException("course id is required");
         }
@@ -312,64 +353,276 @@ public class AdminCourseDbService {
                 editor.coverImageDataUrl());
         upsertCourseMeta(meta);
         courseRepository.findByCourseIdForUpdate(editor.id());
-        deleteCourseChildren(editor.id());
+        courseSnapshotCache.invalidate(editor.id());
         entityManager.flush();
         entityManager.clear();
 
-        List<EditorChapter> chapters = editor.chapters() != null ? editor.chapters() : List.of();
-        for (EditorChapter ch : chapters) {
-            CourseChapterEntity chEntity = new CourseChapterEntity();
-            chEntity.setCourseId(editor.id());
-            chEntity.setChapterUid(ch != null ? ch.id() : null);
-            chEntity.setChapterNumber(ch != null ? ch.number() : 1);
-            chEntity.setName(ch != null && ch.name() != null ? ch.name() : "");
-            CourseChapterEntity savedChapter = courseChapterRepository.save(chEntity);
-            long chapterId = savedChapter.getId();
+        SaveCounter counter = new SaveCounter();
+        counter.rows = 1;
+        applyCourseTreeDiff(editor.id(), editor.chapters(), counter);
+        return counter.toSummary();
+    }
+
+    private void applyCourseTreeDiff(String courseId, List<EditorChapter> editorChapters, SaveCounter counter) {
+        List<EditorChapter> chapters = editorChapters != null ? editorChapters : List.of();
+
+        Map<String, CourseChapterEntity> storedChapters = new LinkedHashMap<>();
+        List<Long> storedChapterIds = new ArrayList<>();
+        for (CourseChapterEntity ch : courseTreeLoader.loadChaptersByCourseId(List.of(courseId))
+                .getOrDefault(courseId, List.of())) {
+            if (ch.getId() == null) {
+                continue;
+            }
+            storedChapterIds.add(ch.getId());
+            storedChapters.putIfAbsent(normalizeUid(ch.getChapterUid(), "chapter", ch.getId()), ch);
+        }
+        Map<String, CourseSubchapterEntity> storedSubs = new LinkedHashMap<>();
+        for (List<CourseSubchapterEntity> subs : courseTreeLoader.loadSubchaptersByChapterId(storedChapterIds)
+                .values()) {
+            for (CourseSubchapterEntity sc : subs) {
+                if (sc.getId() != null) {
+                    storedSubs.putIfAbsent(normalizeUid(sc.getSubchapterUid(), "subchapter", sc.getId()), sc);
+                }
+            }
+        }
+        QuestionGraphLoader.QuestionGraph graph = questionGraphLoader.loadGraph(storedChapterIds);
+        Map<String, CourseQuestionEntity> storedQuestions = new LinkedHashMap<>();
+        for (List<CourseQuestionEntity> qs : graph.questionsByChapterId().values()) {
+            for (CourseQuestionEntity q : qs) {
+                storedQuestions.putIfAbsent(normalizeUid(q.getQuestionUid(), "question", q.getId()), q);
+            }
+        }
+
+        List<Long> chapterIds = new ArrayList<>();
+        List<CourseTreeWriter.ChapterRow> chapterInserts = new ArrayList<>();
+        List<Integer> chapterInsertPositions = new ArrayList<>();
+        List<CourseTreeWriter.ChapterUpdate> chapterUpdates = new ArrayList<>();
+        for (int i = 0; i < chapters.size(); i++) {
+            EditorChapter ch = chapters.get(i);
+            String uid = ch != null ? ch.id() : null;
+            int number = ch != null ? ch.number() : 1;
+            String name = ch != null && ch.name() != null ? ch.name() : "";
+            CourseChapterEntity stored = uid != null && !uid.isBlank() ? storedChapters.remove(uid) : null;
+            if (stored == null) {
+                chapterIds.add(null);
+                chapterInsertPositions.add(i);
+                chapterInserts.add(new CourseTreeWriter.ChapterRow(courseId, uid, number, name));
+                continue;
+            }
+            chapterIds.add(stored.getId());
+            if (!Objects.equals(stored.getChapterUid(), uid)
+                    || !Objects.equals(stored.getChapterNumber(), number)
+                    || !Objects.equals(stored.getName(), name)) {
+                chapterUpdates.add(new CourseTreeWriter.ChapterUpdate(stored.getId(), uid, number, name));
+            }
+        }
+        List<Long> insertedChapterIds = courseTreeWriter.insertChapters(chapterInserts);
+        for (int i = 0; i < insertedChapterIds.size(); i++) {
+            chapterIds.set(chapterInsertPositions.get(i), insertedChapterIds.get(i));
+        }
+        counter.chaptersInserted += insertedChapterIds.size();
+        counter.chaptersUpdated += chapterUpdates.size();
+        counter.rows += insertedChapterIds.size() + courseTreeWriter.updateChapters(chapterUpdates);
+
+        List<CourseTreeWriter.SubchapterRow> subInserts = new ArrayList<>();
+        List<CourseTreeWriter.SubchapterUpdate> subUpdates = new ArrayList<>();
+        List<CourseTreeWriter.QuestionRow> questionInserts = new ArrayList<>();
+        List<List<List<SlotOption>>> insertedQuestionAnswers = new ArrayList<>();
+        List<CourseTreeWriter.QuestionUpdate> questionUpdates = new ArrayList<>();
+        List<Long> replacedAnswerQuestionIds = new ArrayList<>();
+        List<List<List<SlotOption>>> replacedAnswers = new ArrayList<>();
+        for (int i = 0; i < chapters.size(); i++) {
+            EditorChapter ch = chapters.get(i);
+            long chapterId = chapterIds.get(i);
 
             List<EditorSubchapter> subs = ch != null && ch.subchapters() != null ? ch.subchapters() : List.of();
             for (EditorSubchapter sc : subs) {
-                CourseSubchapterEntity scEntity = new CourseSubchapterEntity();
-                scEntity.setChapterId(chapterId);
-                scEntity.setSubchapterUid(sc != null ? sc.id() : null);
-                scEntity.setSubchapterNumber(sc != null ? sc.number() : 1);
-                scEntity.setName(sc != null && sc.name() != null ? sc.name() : "");
-                scEntity.setMarkdown(sc != null && sc.markdown() != null ? sc.markdown() : "");
-                courseSubchapterRepository.save(scEntity);
+                String uid = sc != null ? sc.id() : null;
+                int number = sc != null ? sc.number() : 1;
+                String name = sc != null && sc.name() != null ? sc.name() : "";
+                String markdown = sc != null && sc.markdown() != null ? sc.markdown() : "";
+                CourseSubchapterEntity stored = uid != null && !uid.isBlank() ? storedSubs.remove(uid) : null;
+                if (stored == null) {
+                    subInserts.add(new CourseTreeWriter.SubchapterRow(chapterId, uid, number, name, markdown));
+                } else if (!Objects.equals(stored.getChapterId(), chapterId)
+                        || !Objects.equals(stored.getSubchapterUid(), uid)
+                        || !Objects.equals(stored.getSubchapterNumber(), number)
+                        || !Objects.equals(stored.getName(), name)
+                        || !Objects.equals(stored.getMarkdown(), markdown)) {
+                    subUpdates.add(new CourseTreeWriter.SubchapterUpdate(stored.getId(), chapterId, uid, number, name,
+                            markdown));
+                }
             }
 
             List<EditorQuestion> qs = ch != null && ch.questions() != null ? ch.questions() : List.of();
             for (EditorQuestion q : qs) {
-                CourseQuestionEntity qEntity = new CourseQuestionEntity();
-                qEntity.setChapterId(chapterId);
-                qEntity.setQuestionUid(q != null ? q.id() : null);
-                qEntity.setQuestionNumber(q != null ? q.questionNumber() : 1);
-                qEntity.setQuestionMarkdown(q != null && q.questionMarkdown() != null ? q.questionMarkdown() : "");
-                qEntity.setExplanationMarkdown(
-                        q != null && q.explanationMarkdown() != null ? q.explanationMarkdown() : "");
-                CourseQuestionEntity savedQuestion = courseQuestionRepository.save(qEntity);
-                long questionId = savedQuestion.getId();
-
-                List<List<SlotOption>> slots = q != null && q.slotOptions() != null ? q.slotOptions() : List.of();
-                for (int slotIndex = 0; slotIndex < slots.size(); slotIndex++) {
-                    CourseQuestionSlotEntity slotEntity = new CourseQuestionSlotEntity();
-                    slotEntity.setQuestionId(questionId);
-                    slotEntity.setSlotIndex(slotIndex);
-                    CourseQuestionSlotEntity savedSlot = courseQuestionSlotRepository.save(slotEntity);
-
-                    List<SlotOption> options = slots.get(slotIndex) != null ? slots.get(slotIndex) : List.of();
-                    for (SlotOption opt : options) {
-                        if (opt == null) {
-                            continue;
-                        }
-                        CourseQuestionSlotOptionEntity optEntity = new CourseQuestionSlotOptionEntity();
-                        optEntity.setQuestionSlotId(savedSlot.getId());
-                        optEntity.setOptionIndex(opt.optionIndex());
-                        optEntity.setOptionContent(opt.optionContent() != null ? opt.optionContent() : "");
-                        optEntity.setCorrect(opt.isCorrect());
-                        courseQuestionSlotOptionRepository.save(optEntity);
-                    }
+                String uid = q != null ? q.id() : null;
+                int number = q != null ? q.questionNumber() : 1;
+                String questionMarkdown = q != null && q.questionMarkdown() != null ? q.questionMarkdown() : "";
+                String explanationMarkdown = q != null && q.explanationMarkdown() != null ? q.explanationMarkdown()
+                        : "";
+                List<List<SlotOption>> answers = editorSlotOptions(q);
+                CourseQuestionEntity stored = uid != null && !uid.isBlank() ? storedQuestions.remove(uid) : null;
+                if (stored == null) {
+                    questionInserts.add(new CourseTreeWriter.QuestionRow(chapterId, uid, number, questionMarkdown,
+                            explanationMarkdown));
+                    insertedQuestionAnswers.add(answers);
+                    continue;
+                }
+                if (!Objects.equals(stored.getChapterId(), chapterId)
+                        || !Objects.equals(stored.getQuestionUid(), uid)
+                        || !Objects.equals(stored.getQuestionNumber(), number)
+                        || !Objects.equals(stored.getQuestionMarkdown(), questionMarkdown)
+                        || !Objects.equals(stored.getExplanationMarkdown(), explanationMarkdown)) {
+                    questionUpdates.add(new CourseTreeWriter.QuestionUpdate(stored.getId(), chapterId, uid, number,
+                            questionMarkdown, explanationMarkdown));
+                }
+                if (!answers.equals(storedSlotOptions(graph, stored.getId()))) {
+                    replacedAnswerQuestionIds.add(stored.getId());
+                    replacedAnswers.add(answers);
+                }
+            }
+        }
+
+        counter.subchaptersInserted += subInserts.size();
+        counter.subchaptersUpdated += subUpdates.size();
+        counter.rows += courseTreeWriter.insertSubchapters(subInserts);
+        counter.rows += courseTreeWriter.updateSubchapters(subUpdates);
+
+        List<Long> insertedQuestionIds = courseTreeWriter.insertQuestions(questionInserts);
+        counter.questionsInserted += insertedQuestionIds.size();
+        counter.questionsUpdated += questionUpdates.size();
+        counter.rows += insertedQuestionIds.size() + courseTreeWriter.updateQuestions(questionUpdates);
+
+        counter.answerSetsReplaced += replacedAnswerQuestionIds.size();
+        counter.rows += courseTreeWriter.deleteQuestionAnswers(replacedAnswerQuestionIds);
+        List<Long> answerQuestionIds = new ArrayList<>(replacedAnswerQuestionIds);
+        answerQuestionIds.addAll(insertedQuestionIds);
+        List<List<List<SlotOption>>> answers = new ArrayList<>(replacedAnswers);
+        answers.addAll(insertedQuestionAnswers);
+        counter.rows += insertAnswers(answerQuestionIds, answers);
+
+        List<Long> removedQuestionIds = new ArrayList<>();
+        for (CourseQuestionEntity q : storedQuestions.values()) {
+            removedQuestionIds.add(q.getId());
+        }
+        List<Long> removedSubIds = new ArrayList<>();
+        for (CourseSubchapterEntity sc : storedSubs.values()) {
+            removedSubIds.add(sc.getId());
+        }
+        List<Long> removedChapterIds = new ArrayList<>();
+        for (CourseChapterEntity ch : storedChapters.values()) {
+            removedChapterIds.add(ch.getId());
+        }
+        counter.questionsDeleted += removedQuestionIds.size();
+        counter.subchaptersDeleted += removedSubIds.size();
+        counter.chaptersDeleted += removedChapterIds.size();
+        counter.rows += courseTreeWriter.deleteQuestions(removedQuestionIds);
+        counter.rows += courseTreeWriter.deleteSubchapters(removedSubIds);
+        counter.rows += courseTreeWriter.deleteChapters(removedChapterIds);
+    }
+
+    private int insertAnswers(List<Long> questionIds, List<List<List<SlotOption>>> answers) {
+        List<CourseTreeWriter.SlotRow> slotRows = new ArrayList<>();
+        List<List<SlotOption>> slotOptions = new ArrayList<>();
+        for (int i = 0; i < answers.size(); i++) {
+            List<List<SlotOption>> slots = answers.get(i);
+            for (int slotIndex = 0; slotIndex < slots.size(); slotIndex++) {
+                slotRows.add(new CourseTreeWriter.SlotRow(questionIds.get(i), slotIndex));
+                slotOptions.add(slots.get(slotIndex));
+            }
+        }
+        List<Long> slotIds = courseTreeWriter.insertSlots(slotRows);
+
+        List<CourseTreeWriter.SlotOptionRow> optionRows = new ArrayList<>();
+        for (int i = 0; i < slotOptions.size(); i++) {
+            for (SlotOption opt : slotOptions.get(i)) {
+                optionRows.add(new CourseTreeWriter.SlotOptionRow(
+                        slotIds.get(i),
+                        opt.optionIndex(),
+                        opt.optionContent(),
+                        opt.isCorrect()));
+            }
+        }
+        return slotIds.size() + courseTreeWriter.insertSlotOptions(optionRows);
+    }
+
+    private static List<List<SlotOption>> editorSlotOptions(EditorQuestion q) {
+        List<List<SlotOption>> slots = q != null && q.slotOptions() != null ? q.slotOptions() : List.of();
+        List<List<SlotOption>> out = new ArrayList<>();
+        for (List<SlotOption> options : slots) {
+            List<SlotOption> mapped = new ArrayList<>();
+            for (SlotOption opt : options != null ? options : List.<SlotOption>of()) {
+                if (opt == null) {
+                    continue;
+                }
+                mapped.add(new SlotOption(
+                        opt.optionIndex(),
+                        opt.optionContent() != null ? opt.optionContent() : "",
+                        opt.isCorrect()));
+            }
+            out.add(mapped);
+        }
+        return out;
+    }
+
+    private static List<List<SlotOption>> storedSlotOptions(QuestionGraphLoader.QuestionGraph graph,
+            Long questionId) {
+        List<CourseQuestionSlotEntity> slots = graph.slotsByQuestionId().getOrDefault(questionId, List.of());
+        if (!slots.isEmpty()) {
+            List<List<SlotOption>> out = new ArrayList<>();
+            for (CourseQuestionSlotEntity slot : slots) {
+                int idx = slot.getSlotIndex() != null ? slot.getSlotIndex() : 0;
+                while (out.size() <= idx) {
+                    out.add(new ArrayList<>());
+                }
+                List<SlotOption> mapped = new ArrayList<>();
+                for (CourseQuestionSlotOptionEntity o : graph.slotOptionsBySlotId().getOrDefault(slot.getId(),
+                        List.of())) {
+                    mapped.add(new SlotOption(
+                            o.getOptionIndex() != null ? o.getOptionIndex() : 0,
+                            o.getOptionContent() != null ? o.getOptionContent() : "",
+                            o.getCorrect() != null && o.getCorrect()));
                 }
+                out.set(idx, mapped);
             }
+            return out;
+        }
+        List<CourseQuestionOptionEntity> legacy = graph.legacyOptionsByQuestionId().getOrDefault(questionId,
+                List.of());
+        if (legacy.isEmpty()) {
+            return List.of();
+        }
+        List<SlotOption> mapped = new ArrayList<>();
+        for (CourseQuestionOptionEntity o : legacy) {
+            mapped.add(new SlotOption(
+                    o.getOptionIndex() != null ? o.getOptionIndex() : 0,
+                    o.getOptionContent() != null ? o.getOptionContent() : "",
+                    o.getCorrect() != null && o.getCorrect()));
+        }
+        return List.of(mapped);
+    }
+
+    private static final class SaveCounter {
+        private int chaptersInserted;
+        private int chaptersUpdated;
+        private int chaptersDeleted;
+        private int subchaptersInserted;
+        private int subchaptersUpdated;
+        private int subchaptersDeleted;
+        private int questionsInserted;
+        private int questionsUpdated;
+        private int questionsDeleted;
+        private int answerSetsReplaced;
+        private int rows;
+
+        private SaveSummary toSummary() {
+            return new SaveSummary(
+                    new ChangeCounts(chaptersInserted, chaptersUpdated, chaptersDeleted),
+                    new ChangeCounts(subchaptersInserted, subchaptersUpdated, subchaptersDeleted),
+                    new ChangeCounts(questionsInserted, questionsUpdated, questionsDeleted),
+                    answerSetsReplaced,
+                    rows);
         }
     }
 
@@ -411,17 +664,8 @@ public class AdminCourseDbService {
         try (ZipOutputStream zip = new ZipOutputStream(out)) {
             putZipJson(zip, "meta.json", meta);
             putZipJson(zip, "course.json", editor);
-            for (String key : keys) {
-                String safeKey = normalizeZipKey(key);
-                if (safeKey == null) {
-                    continue;
-                }
-                byte[] bytes = storageService.getBytes(key);
-                ZipEntry entry = new ZipEntry("assets/" + safeKey);
-                zip.putNextEntry(entry);
-                zip.write(bytes);
-                zip.closeEntry();
-            }
+            writeZipAssets(zip, keys, (index, total) -> {
+            });
             zip.finish();
         }
     }
@@ -437,78 +681,70 @@ public class AdminCourseDbService {
             importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING, 10,
                     "Reading archive...");
 
-            CourseEditor editor = null;
-            BllMeta meta = null;
-            Map<String, byte[]> assets = new LinkedHashMap<>();
+            Map<String, String> uploadedUrlsByKey = new HashMap<>();
+            CourseEditor editor;
+            String coverKeyFromMeta;
+            try (ZipFile zip = new ZipFile(filePath.toFile())) {
+                ZipEntry courseEntry = zip.getEntry("course.json");
+                if (courseEntry == null || courseEntry.isDirectory()) {
+                    throw new IOException("Invalid archive (missing course.json).");
+                }
+                try (InputStream in = zip.getInputStream(courseEntry)) {
+                    editor = objectMapper.readValue(readAllBytes(in, 25L * 1024L * 1024L), CourseEditor.class);
+                }
+                if (editor == null || editor.id() == null || editor.id().isBlank()) {
+                    throw new IOException("Invalid archive (missing course.json).");
+                }
+                BllMeta meta = null;
+                ZipEntry metaEntry = zip.getEntry("meta.json");
+                if (metaEntry != null && !metaEntry.isDirectory()) {
+                    try (InputStream in = zip.getInputStream(metaEntry)) {
+                        meta = objectMapper.readValue(readAllBytes(in, 2L * 1024L * 1024L), BllMeta.class);
+                    }
+                }
 
-            try (ZipInputStream zip = new ZipInputStream(java.nio.file.Files.newInputStream(filePath))) {
-                ZipEntry entry;
-                while ((entry = zip.getNextEntry()) != null) {
+                Map<String, ZipEntry> assetEntries = new LinkedHashMap<>();
+                java.util.Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
                     String name = entry.getName() != null ? entry.getName().trim() : "";
-                    if (name.isBlank() || entry.isDirectory()) {
-                        zip.closeEntry();
+                    if (entry.isDirectory() || !name.startsWith("assets/")) {
                         continue;
                     }
-                    if ("course.json".equals(name)) {
-                        byte[] bytes = readAllBytes(zip, 25L * 1024L * 1024L);
-                        editor = objectMapper.readValue(bytes, CourseEditor.class);
-                        zip.closeEntry();
-                        continue;
-                    }
-                    if ("meta.json".equals(name)) {
-                        byte[] bytes = readAllBytes(zip, 2L * 1024L * 1024L);
-                        meta = objectMapper.readValue(bytes, BllMeta.class);
-                        zip.closeEntry();
-                        continue;
+                    String normalizedKey = normalizeImportedAssetKey(name.substring("assets/".length()));
+                    if (normalizedKey != null) {
+                        assetEntries.put(normalizedKey, entry);
                     }
-                    if (name.startsWith("assets/")) {
-                        String keyPart = name.substring("assets/".length());
-                        String normalizedKey = normalizeImportedAssetKey(keyPart);
-                        if (normalizedKey != null) {
-                            byte[] bytes = readAllBytes(zip, 25L * 1024L * 1024L);
-                            assets.put(normalizedKey, bytes);
-                        }
-                        zip.closeEntry();
-                        continue;
-                    }
-                    zip.closeEntry();
                 }
-            }
 
-            importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING, 40,
-                    "Saving database records...");
+                importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING, 40,
+                        "Saving database records...");
 
-            if (editor == null || editor.id() == null || editor.id().isBlank()) {
-                throw new IOException("Invalid archive (missing course.json).");
-            }
-
-            saveCourseEditor(editor);
-
-            importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING, 60, "Saving assets...");
+                saveCourseEditor(editor);
 
-            int totalAssets = assets.size();
-            int processedAssets = 0;
-            Map<String, String> uploadedUrlsByKey = new HashMap<>();
+                importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING, 60,
+                        "Saving assets...");
 
-            for (Map.Entry<String, byte[]> e : assets.entrySet()) {
-                String key = e.getKey();
-                byte[] bytes = e.getValue() != null ? e.getValue() : new byte[0];
-                String filename = lastPathSegment(key);
-                String contentType = contentTypeFromFilename(filename);
-                StorageService.StoredObject stored = storageService.putBytes(key, filename, contentType, bytes);
-                if (stored != null && stored.key() != null && stored.url() != null) {
-                    uploadedUrlsByKey.put(stored.key(), stored.url());
-                }
+                List<Map.Entry<String, ZipEntry>> assetList = new ArrayList<>(assetEntries.entrySet());
+                int totalAssets = assetList.size();
+                assetTransferExecutor.transferOrdered(assetList, e -> {
+                    String filename = lastPathSegment(e.getKey());
+                    return uploadArchiveEntry(zip, e.getValue(), e.getKey(), filename,
+                            contentTypeFromFilename(filename));
+                }, (index, e, stored) -> {
+                    if (stored != null && stored.key() != null && stored.url() != null) {
+                        uploadedUrlsByKey.put(stored.key(), stored.url());
+                    }
 
-                processedAssets++;
-                if (totalAssets > 0) {
+                    int processedAssets = index + 1;
                     int progress = 60 + (int) ((processedAssets / (double) totalAssets) * 35); // 60% to 95%
                     importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING, progress,
                             "Saving asset " + processedAssets + "/" + totalAssets);
-                }
+                });
+                coverKeyFromMeta = meta != null && meta.coverImageKey() != null ? meta.coverImageKey().trim() : "";
             }
 
-            String coverKey = meta != null && meta.coverImageKey() != null ? meta.coverImageKey().trim() : "";
+            String coverKey = coverKeyFromMeta;
             if (coverKey.isBlank()) {
                 coverKey = resolveCoverImageKey(editor.coverImageDataUrl(),
                         new ArrayList<>(uploadedUrlsByKey.keySet()));
@@ -518,6 +754,7 @@ public class AdminCourseDbService {
                 if (course != null) {
                     course.setCoverImageUrl(normalizeCoverUrl(uploadedUrlsByKey.get(coverKey)));
                     courseRepository.save(course);
+                    courseSnapshotCache.invalidate(course.getCourseId());
                 }
             }
 
@@ -584,31 +821,15 @@ public class AdminCourseDbService {
                 putZipJson(zip, "meta.json", meta);
                 putZipJson(zip, "course.json", editor);
 
-                int totalAssets = keys.size();
-                int processedAssets = 0;
-
-                for (String key : keys) {
-                    String safeKey = normalizeZipKey(key);
-                    if (safeKey == null) {
-                        continue;
+                writeZipAssets(zip, keys, (processedAssets, totalAssets) -> {
+                    // Progress from 10% to 95%
+                    int progress = 10 + (int) ((processedAssets / (double) totalAssets) * 85);
+                    if (processedAssets % 5 == 0 || processedAssets == totalAssets) {
+                        importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING,
+                                progress,
+                                "Archiving asset " + processedAssets + "/" + totalAssets);
                     }
-                    byte[] bytes = storageService.getBytes(key);
-                    ZipEntry entry = new ZipEntry("assets/" + safeKey);
-                    zip.putNextEntry(entry);
-                    zip.write(bytes);
-                    zip.closeEntry();
-
-                    processedAssets++;
-                    // Progress from 10% to 90%
-                    if (totalAssets > 0) {
-                        int progress = 10 + (int) ((processedAssets / (double) totalAssets) * 85);
-                        if (processedAssets % 5 == 0 || processedAssets == totalAssets) {
-                            importStatusService.updateStatus(jobId, ImportStatusService.ImportState.PROCESSING,
-                                    progress,
-                                    "Archiving asset " + processedAssets + "/" + totalAssets);
-                        }
-                    }
-                }
+                });
                 zip.finish();
             }
 
@@ -639,60 +860,12 @@ public class AdminCourseDbService {
         }
     }
 
-    private void deleteCourseChildren(String courseId) {
+    private int deleteCourseChildren(String courseId) {
         if (courseId == null || courseId.isBlank()) {
-            return;
-        }
-        List<CourseChapterEntity> chapters = courseChapterRepository.findByCourseIdOrderByChapterNumberAsc(courseId);
-        for (CourseChapterEntity ch : chapters) {
-            if (ch == null || ch.getId() == null) {
-                continue;
-            }
-            Long chapterId = ch.getId();
-
-            List<CourseQuestionEntity> questions = courseQuestionRepository.findByChapterIdOrderByQuestionNumberAsc(
-                    chapterId);
-            for (CourseQuestionEntity q : questions) {
-                if (q == null || q.getId() == null) {
-                    continue;
-                }
-                Long qId = q.getId();
-
-                List<CourseQuestionSlotEntity> slots = courseQuestionSlotRepository.findByQuestionIdOrderBySlotIndexAsc(
-                        qId);
-                for (CourseQuestionSlotEntity s : slots) {
-                    if (s == null || s.getId() == null) {
-                        continue;
-                    }
-                    List<CourseQuestionSlotOptionEntity> slotOpts = courseQuestionSlotOptionRepository
-                            .findByQuestionSlotIdOrderByOptionIndexAsc(s.getId());
-                    if (!slotOpts.isEmpty()) {
-                        courseQuestionSlotOptionRepository.deleteAll(slotOpts);
-                    }
-                }
-                if (!slots.isEmpty()) {
-                    courseQuestionSlotRepository.deleteAll(slots);
-                }
-
-                List<CourseQuestionOptionEntity> legacy = courseQuestionOptionRepository
-                        .findByQuestionIdOrderByOptionIndexAsc(qId);
-                if (!legacy.isEmpty()) {
-                    courseQuestionOptionRepository.deleteAll(legacy);
-                }
-            }
-            if (!questions.isEmpty()) {
-                courseQuestionRepository.deleteAll(questions);
-            }
-
-            List<CourseSubchapterEntity> subs = courseSubchapterRepository.findByChapterIdOrderBySubchapterNumberAsc(
-                    chapterId);
-            if (!subs.isEmpty()) {
-                courseSubchapterRepository.deleteAll(subs);
-            }
-        }
-        if (!chapters.isEmpty()) {
-            courseChapterRepository.deleteAll(chapters);
+            return 0;
         }
+        entityManager.flush();
+        return courseTreeWriter.deleteCourseChildren(courseId);
     }
 
     private List<List<SlotOption>> loadSlotOptionsForQuestion(Long questionId) {
@@ -886,6 +1059,122 @@ public class AdminCourseDbService {
         return baos.toByteArray();
     }
 
+    @FunctionalInterface
+    private interface AssetProgress {
+        void report(int processed, int total);
+    }
+
+    private void writeZipAssets(ZipOutputStream zip, List<String> keys, AssetProgress progress) throws IOException {
+        Map<String, String> safeKeysByKey = new LinkedHashMap<>();
+        for (String key : keys) {
+            String safeKey = normalizeZipKey(key);
+            if (safeKey != null) {
+                safeKeysByKey.put(key, safeKey);
+            }
+        }
+        List<String> ordered = new ArrayList<>(safeKeysByKey.keySet());
+        java.nio.file.Path spoolDir = java.nio.file.Files.createTempDirectory("bll-export-");
+        try {
+            assetTransferExecutor.transferOrdered(ordered, key -> {
+                java.nio.file.Path spool = java.nio.file.Files.createTempFile(spoolDir, "asset-", ".tmp");
+                storageService.copyToFile(key, spool);
+                return spool;
+            }, (index, key, spool) -> {
+                ZipEntry entry = new ZipEntry("assets/" + safeKeysByKey.get(key));
+                zip.putNextEntry(entry);
+                java.nio.file.Files.copy(spool, zip);
+                zip.closeEntry();
+                java.nio.file.Files.deleteIfExists(spool);
+                progress.report(index + 1, ordered.size());
+            });
+        } finally {
+            org.springframework.util.FileSystemUtils.deleteRecursively(spoolDir);
+        }
+    }
+
+    private StorageService.StoredObject uploadArchiveEntry(ZipFile zip, ZipEntry entry, String key,
+            String filename, String contentType) throws IOException {
+        long limit = 25L * 1024L * 1024L;
+        if (entry.getSize() > limit) {
+            throw new IOException("Archive entry too large.");
+        }
+        if (entry.getSize() >= 0L) {
+            // ZipFile inflates past the declared size, so the declared size is enforced on the bytes read.
+            try (InputStream in = new BoundedInputStream(zip.getInputStream(entry), entry.getSize())) {
+                return storageService.putStream(key, filename, contentType, in, entry.getSize());
+            }
+        }
+        java.nio.file.Path spool = java.nio.file.Files.createTempFile("import-asset-", ".tmp");
+        try {
+            try (InputStream in = zip.getInputStream(entry);
+                    OutputStream out = java.nio.file.Files.newOutputStream(spool)) {
+                copyBounded(in, out, limit);
+            }
+            return storageService.putFile(key, filename, contentType, spool);
+        } finally {
+            java.nio.file.Files.deleteIfExists(spool);
+        }
+    }
+
+    private static long copyBounded(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        long limit = Math.max(0L, maxBytes);
+        byte[] buf = new byte[8192];
+        long total = 0L;
+        int read;
+        while ((read = in.read(buf)) >= 0) {
+            total += read;
+            if (limit > 0 && total > limit) {
+                throw new IOException("Archive entry too large.");
+            }
+            out.write(buf, 0, read);
+        }
+        return total;
+    }
+
+    private static final class BoundedInputStream extends java.io.FilterInputStream {
+        private final long maxBytes;
+        private long read;
+
+        BoundedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                count(skipped);
+            }
+            return skipped;
+        }
+
+        private void count(long n) throws IOException {
+            read += n;
+            if (read > maxBytes) {
+                throw new IOException("Archive entry too large.");
+            }
+        }
+    }
+
     private static String normalizeZipKey(String key) {
         String k = key != null ? key.trim() : "";
         if (k.isBlank()) {
@@ -0,0 +1,143 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Compiled {@link AssessmentScoringEngine.AnswerSheet}s keyed by course,
+ * snapshot version and normalized chapter selection. Course editor saves
+ * invalidate the {@link CourseSnapshotCache} entry, and the rebuilt snapshot
+ * carries a new version, so a stale sheet can never be served; sheets of older
+ * versions are dropped when the new one is compiled. Concurrent misses on the
+ * same key share one compilation.
+ */
+@Service
+public class AnswerSheetCache {
+    private static final String ALL_CHAPTERS = "*";
+
+    private final CourseSnapshotCache courseSnapshotCache;
+    private final CourseService courseService;
+    private final AssessmentScoringEngine scoringEngine;
+    private final int maxEntries;
+    private final Map<Key, AssessmentScoringEngine.AnswerSheet> sheets;
+    private final Map<Key, CompletableFuture<AssessmentScoringEngine.AnswerSheet>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public record Key(String courseId, long version, String chapters) {
+    }
+
+    public AnswerSheetCache(
+            CourseSnapshotCache courseSnapshotCache,
+            CourseService courseService,
+            AssessmentScoringEngine scoringEngine,
+            @Value("${app.answer-sheet-cache.max-entries:512}") int maxEntries) {
+        this.courseSnapshotCache = courseSnapshotCache;
+        this.courseService = courseService;
+        this.scoringEngine = scoringEngine;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.sheets = Collections.synchronizedMap(
+                new LinkedHashMap<Key, AssessmentScoringEngine.AnswerSheet>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Key, AssessmentScoringEngine.AnswerSheet> eldest) {
+                        return size() > AnswerSheetCache.this.maxEntries;
+                    }
+                });
+    }
+
+    public AssessmentScoringEngine.AnswerSheet get(String courseId, List<String> chapterList) {
+        CourseSnapshot snapshot = courseId != null && !courseId.isBlank() ? courseSnapshotCache.get(courseId) : null;
+        if (snapshot == null) {
+            return scoringEngine.compile(courseId, List.of());
+        }
+        Key key = new Key(courseId, snapshot.version(), normalizeChapters(snapshot, chapterList));
+        AssessmentScoringEngine.AnswerSheet cached = sheets.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<AssessmentScoringEngine.AnswerSheet> pending = new CompletableFuture<>();
+        CompletableFuture<AssessmentScoringEngine.AnswerSheet> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            AssessmentScoringEngine.AnswerSheet compiled = scoringEngine.compile(courseId,
+                    courseService.getAssessmentQuestions(snapshot, chapterList));
+            synchronized (sheets) {
+                sheets.keySet().removeIf(k -> k.courseId().equals(courseId) && k.version() < key.version());
+                sheets.put(key, compiled);
+            }
+            pending.complete(compiled);
+            return compiled;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private static AssessmentScoringEngine.AnswerSheet await(
+            CompletableFuture<AssessmentScoringEngine.AnswerSheet> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Same selection semantics as CourseService.getAssessmentQuestions: an empty
+    // list means every chapter, unparsable entries are ignored. Numbers the
+    // course does not have select nothing, so they are dropped from the key,
+    // and a selection of every chapter shares the empty list's key.
+    private static String normalizeChapters(CourseSnapshot snapshot, List<String> chapterList) {
+        if (chapterList == null || chapterList.isEmpty()) {
+            return ALL_CHAPTERS;
+        }
+        Set<Integer> existing = new HashSet<>();
+        for (CourseSnapshot.ChapterSnapshot chapter : snapshot.chapters()) {
+            existing.add(chapter.number());
+        }
+        TreeSet<Integer> numbers = new TreeSet<>();
+        for (String ch : chapterList) {
+            if (ch == null || ch.isBlank()) {
+                continue;
+            }
+            try {
+                int number = Integer.parseInt(ch.trim());
+                if (existing.contains(number)) {
+                    numbers.add(number);
+                }
+            } catch (NumberFormatException e) {
+                continue;
+            }
+        }
+        if (!existing.isEmpty() && numbers.size() == existing.size()) {
+            return ALL_CHAPTERS;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Integer n : numbers) {
+            if (!sb.isEmpty()) {
+                sb.append(',');
+            }
+            sb.append(n);
+        }
+        return sb.toString();
+    }
+}
@@ -1,19 +1,129 @@
 package com.barlarlar.myanmyanlearn.service;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
+/**
+ * Merges score documents chapter by chapter: incoming chapters replace stored
+ * chapters with the same {@code chapter_no} in place, new ones are appended.
+ *
+ * <p>
+ * The streaming variant writes the same document as the tree variant without
+ * materializing the stored one. It buffers the incoming document (one
+ * submission) and reads the stored text twice: a scan for its
+ * {@code courseId} and the last position of each incoming {@code chapter_no},
+ * which the output needs before any chapter is written, then a copy that
+ * holds one chapter at a time. Like {@link ObjectNode}, a key repeated within
+ * an object keeps its first position and its last value.
+ */
 public final class AssessmentScoreJsonMerger {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private AssessmentScoreJsonMerger() {
     }
 
+    private record IncomingChapter(int chapterNo, TokenBuffer content) {
+    }
+
+    private static final class Incoming {
+        TokenBuffer courseId;
+        List<IncomingChapter> chapters;
+        Map<Integer, TokenBuffer> lastByChapterNo;
+    }
+
+    private static final class Existing {
+        TokenBuffer courseId;
+        // Ordinal of the last top-level "chapters" field; like ObjectNode, a repeated key keeps the last value.
+        int chaptersField = -1;
+        // Only chapter numbers the incoming document replaces.
+        Map<Integer, Integer> lastIndexByChapterNo = new HashMap<>();
+    }
+
+    /** Streaming merge of two serialized documents; {@code existingJson} may be null or blank. */
+    public static String mergeByChapterNo(String existingJson, String incomingJson) {
+        StringWriter out = new StringWriter(
+                (existingJson != null ? existingJson.length() : 0) + (incomingJson != null ? incomingJson.length() : 0));
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            Incoming in = new Incoming();
+            if (incomingJson != null && !incomingJson.isBlank()) {
+                try (JsonParser incoming = JSON_FACTORY.createParser(incomingJson)) {
+                    in = readIncoming(incoming);
+                }
+            }
+            if (existingJson != null && !existingJson.isBlank()) {
+                Existing scan;
+                try (JsonParser existing = JSON_FACTORY.createParser(existingJson)) {
+                    scan = scanExisting(existing, in);
+                }
+                try (JsonParser existing = JSON_FACTORY.createParser(existingJson)) {
+                    merge(existing, scan, in, generator);
+                }
+            } else {
+                merge(null, new Existing(), in, generator);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed score JSON", e);
+        }
+        return out.toString();
+    }
+
+    // Copies the stored document's chapters from the second pass over it; existing may be null.
+    private static void merge(JsonParser existing, Existing scan, Incoming in, JsonGenerator out)
+            throws IOException {
+        Set<Integer> existingChapterNos = new HashSet<>();
+        boolean chaptersWritten = false;
+
+        out.writeStartObject();
+        TokenBuffer courseId = in.courseId != null ? in.courseId : scan.courseId;
+        if (courseId != null) {
+            out.writeFieldName("courseId");
+            copyBuffered(courseId, out);
+        }
+        if (existing != null && existing.nextToken() == JsonToken.START_OBJECT) {
+            int field = 0;
+            while (existing.nextToken() == JsonToken.FIELD_NAME) {
+                String name = existing.currentName();
+                JsonToken value = existing.nextToken();
+                if ("chapters".equals(name) && field == scan.chaptersField && value == JsonToken.START_ARRAY
+                        && in.chapters != null) {
+                    out.writeFieldName("chapters");
+                    out.writeStartArray();
+                    copyExistingChapters(existing, scan, in, existingChapterNos, out);
+                    appendNewChapters(in, existingChapterNos, out);
+                    out.writeEndArray();
+                    chaptersWritten = true;
+                } else {
+                    existing.skipChildren();
+                }
+                field++;
+            }
+        }
+        if (in.chapters != null && !chaptersWritten) {
+            out.writeFieldName("chapters");
+            out.writeStartArray();
+            appendNewChapters(in, existingChapterNos, out);
+            out.writeEndArray();
+        }
+        out.writeEndObject();
+    }
+
     public static ObjectNode mergeByChapterNo(JsonNode existingJson, JsonNode incomingJson) {
         ObjectNode out = JsonNodeFactory.instance.objectNode();
 
@@ -95,6 +205,242 @@ public final class AssessmentScoreJsonMerger {
         return out;
     }
 
+    private static Incoming readIncoming(JsonParser incoming) throws IOException {
+        Incoming in = new Incoming();
+        if (incoming == null || incoming.nextToken() != JsonToken.START_OBJECT) {
+            return in;
+        }
+        while (incoming.nextToken() == JsonToken.FIELD_NAME) {
+            String name = incoming.currentName();
+            JsonToken value = incoming.nextToken();
+            if ("courseId".equals(name)) {
+                in.courseId = value == JsonToken.VALUE_NULL ? null : buffer(incoming);
+            } else if ("chapters".equals(name)) {
+                if (value != JsonToken.START_ARRAY) {
+                    in.chapters = null;
+                    in.lastByChapterNo = null;
+                    incoming.skipChildren();
+                    continue;
+                }
+                in.chapters = new ArrayList<>();
+                in.lastByChapterNo = new HashMap<>();
+                while (incoming.nextToken() != JsonToken.END_ARRAY) {
+                    if (incoming.currentToken() != JsonToken.START_OBJECT) {
+                        incoming.skipChildren();
+                        continue;
+                    }
+                    TokenBuffer chapter = buffer(incoming);
+                    Integer chapterNo = readChapterNo(chapter);
+                    if (chapterNo != null) {
+                        in.chapters.add(new IncomingChapter(chapterNo, chapter));
+                        in.lastByChapterNo.put(chapterNo, chapter);
+                    }
+                }
+            } else {
+                incoming.skipChildren();
+            }
+        }
+        return in;
+    }
+
+    // First pass over the stored document: only chapter_no values are read, nothing is buffered but courseId.
+    private static Existing scanExisting(JsonParser existing, Incoming in) throws IOException {
+        Existing scan = new Existing();
+        if (existing.nextToken() != JsonToken.START_OBJECT) {
+            return scan;
+        }
+        int field = 0;
+        while (existing.nextToken() == JsonToken.FIELD_NAME) {
+            String name = existing.currentName();
+            JsonToken value = existing.nextToken();
+            if ("courseId".equals(name)) {
+                scan.courseId = value == JsonToken.VALUE_NULL ? null : buffer(existing);
+            } else if ("chapters".equals(name)) {
+                scan.chaptersField = field;
+                scan.lastIndexByChapterNo.clear();
+                if (value != JsonToken.START_ARRAY) {
+                    existing.skipChildren();
+                } else {
+                    int index = 0;
+                    while (existing.nextToken() != JsonToken.END_ARRAY) {
+                        if (existing.currentToken() != JsonToken.START_OBJECT) {
+                            existing.skipChildren();
+                            continue;
+                        }
+                        Integer chapterNo = readChapterNo(existing);
+                        if (chapterNo == null) {
+                            continue;
+                        }
+                        if (in.lastByChapterNo != null && in.lastByChapterNo.containsKey(chapterNo)) {
+                            scan.lastIndexByChapterNo.put(chapterNo, index);
+                        }
+                        index++;
+                    }
+                }
+            } else {
+                existing.skipChildren();
+            }
+            field++;
+        }
+        return scan;
+    }
+
+    // A repeated stored chapter_no is replaced at its last occurrence only, as in the tree variant.
+    private static void copyExistingChapters(JsonParser existing, Existing scan, Incoming in,
+            Set<Integer> existingChapterNos, JsonGenerator out) throws IOException {
+        int index = 0;
+        while (existing.nextToken() != JsonToken.END_ARRAY) {
+            if (existing.currentToken() != JsonToken.START_OBJECT) {
+                existing.skipChildren();
+                continue;
+            }
+            TokenBuffer chapter = buffer(existing);
+            Integer chapterNo = readChapterNo(chapter);
+            if (chapterNo == null) {
+                continue;
+            }
+            existingChapterNos.add(chapterNo);
+            int position = index++;
+            TokenBuffer replacement = in.lastByChapterNo.get(chapterNo);
+            if (replacement != null && scan.lastIndexByChapterNo.getOrDefault(chapterNo, -1) == position) {
+                writeNormalized(replacement, chapterNo, out);
+            } else {
+                copyBuffered(chapter, out);
+            }
+        }
+    }
+
+    private static void appendNewChapters(Incoming in, Set<Integer> existingChapterNos, JsonGenerator out)
+            throws IOException {
+        for (IncomingChapter ch : in.chapters) {
+            if (!existingChapterNos.contains(ch.chapterNo())) {
+                writeNormalized(ch.content(), ch.chapterNo(), out);
+            }
+        }
+    }
+
+    // Copies the chapter object with chapter_no rewritten as a number, in place or appended.
+    private static void writeNormalized(TokenBuffer chapter, int chapterNo, JsonGenerator out) throws IOException {
+        try (JsonParser p = chapter.asParser()) {
+            p.nextToken();
+            Map<String, TokenBuffer> fields = readFields(p);
+            TokenBuffer number = new TokenBuffer(p);
+            number.writeNumber(chapterNo);
+            fields.put("chapter_no", number);
+            writeFields(fields, out);
+        }
+    }
+
+    private static void copyBuffered(TokenBuffer value, JsonGenerator out) throws IOException {
+        try (JsonParser p = value.asParser()) {
+            p.nextToken();
+            copyValue(p, out);
+        }
+    }
+
+    // Copies the value at the parser's current token, collapsing repeated keys as ObjectNode does.
+    private static void copyValue(JsonParser p, JsonGenerator out) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            writeFields(readFields(p), out);
+        } else if (token == JsonToken.START_ARRAY) {
+            out.writeStartArray();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                copyValue(p, out);
+            }
+            out.writeEndArray();
+        } else if (token == JsonToken.VALUE_NUMBER_INT) {
+            // Numbers are written as the tree variant's int, long, BigInteger and double nodes write them.
+            switch (p.getNumberType()) {
+                case INT -> out.writeNumber(p.getIntValue());
+                case LONG -> out.writeNumber(p.getLongValue());
+                default -> out.writeNumber(p.getBigIntegerValue());
+            }
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            out.writeNumber(p.getDoubleValue());
+        } else {
+            out.copyCurrentEvent(p);
+        }
+    }
+
+    // Reads the object at the parser's START_OBJECT; a repeated key keeps its first position and last value.
+    private static Map<String, TokenBuffer> readFields(JsonParser p) throws IOException {
+        Map<String, TokenBuffer> fields = new LinkedHashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            TokenBuffer value = new TokenBuffer(p);
+            copyValue(p, value);
+            fields.put(name, value);
+        }
+        return fields;
+    }
+
+    private static void writeFields(Map<String, TokenBuffer> fields, JsonGenerator out) throws IOException {
+        out.writeStartObject();
+        for (Map.Entry<String, TokenBuffer> e : fields.entrySet()) {
+            out.writeFieldName(e.getKey());
+            e.getValue().serialize(out);
+        }
+        out.writeEndObject();
+    }
+
+    private static TokenBuffer buffer(JsonParser p) throws IOException {
+        TokenBuffer buf = new TokenBuffer(p);
+        buf.copyCurrentStructure(p);
+        return buf;
+    }
+
+    private static Integer readChapterNo(TokenBuffer chapter) throws IOException {
+        try (JsonParser p = chapter.asParser()) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return readChapterNo(p);
+        }
+    }
+
+    // Reads the chapter object at the parser's START_OBJECT through its END_OBJECT.
+    private static Integer readChapterNo(JsonParser p) throws IOException {
+        Integer chapterNo = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if (!"chapter_no".equals(name)) {
+                p.skipChildren();
+                continue;
+            }
+            // Same acceptance as the tree variant; a repeated key keeps the last value.
+            chapterNo = null;
+            if (value == JsonToken.VALUE_NUMBER_INT) {
+                JsonParser.NumberType type = p.getNumberType();
+                if (type == JsonParser.NumberType.INT || type == JsonParser.NumberType.LONG) {
+                    chapterNo = (int) p.getLongValue();
+                }
+            } else if (value == JsonToken.VALUE_STRING) {
+                chapterNo = parseChapterNo(p.getText());
+            } else {
+                p.skipChildren();
+            }
+        }
+        return chapterNo;
+    }
+
+    private static Integer parseChapterNo(String s) {
+        if (s == null) {
+            return null;
+        }
+        s = s.trim();
+        if (s.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private static Integer readChapterNo(JsonNode chapterNode) {
         if (chapterNode == null || !chapterNode.isObject()) {
             return null;
@@ -107,19 +453,7 @@ public final class AssessmentScoreJsonMerger {
             return v.asInt();
         }
         if (v.isTextual()) {
-            String s = v.asText();
-            if (s == null) {
-                return null;
-            }
-            s = s.trim();
-            if (s.isEmpty()) {
-                return null;
-            }
-            try {
-                return Integer.parseInt(s);
-            } catch (NumberFormatException e) {
-                return null;
-            }
+            return parseChapterNo(v.asText());
         }
         return null;
     }
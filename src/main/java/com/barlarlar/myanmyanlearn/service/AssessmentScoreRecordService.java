@@ -2,6 +2,7 @@ package com.barlarlar.myanmyanlearn.service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -21,10 +22,13 @@ public class AssessmentScoreRecordService {
     private static final int COURSE_ID_MAX_LEN = 100;
     private final AssessmentScoreRecordRepository repository;
     private final ObjectMapper objectMapper;
+    private final AssessmentScoreStore scoreStore;
 
-    public AssessmentScoreRecordService(AssessmentScoreRecordRepository repository, ObjectMapper objectMapper) {
+    public AssessmentScoreRecordService(AssessmentScoreRecordRepository repository, ObjectMapper objectMapper,
+            AssessmentScoreStore scoreStore) {
         this.repository = repository;
         this.objectMapper = objectMapper;
+        this.scoreStore = scoreStore;
     }
 
     public String currentUserId() {
@@ -58,15 +62,27 @@ public class AssessmentScoreRecordService {
             }
         }
 
-        if (record == null || record.getScoreJson() == null || record.getScoreJson().isBlank()) {
+        if (record == null) {
             return Optional.empty();
         }
+        return Optional.ofNullable(scoreJson(record));
+    }
 
-        try {
-            return Optional.ofNullable(objectMapper.readTree(record.getScoreJson()));
-        } catch (Exception e) {
-            return Optional.empty();
+    /**
+     * The record's score document: rebuilt from the normalized tables, or
+     * parsed from {@code score_json} while the record is not migrated yet.
+     */
+    @Transactional(readOnly = true)
+    public JsonNode scoreJson(AssessmentScoreRecord record) {
+        String legacy = record.getScoreJson();
+        if (legacy != null && !legacy.isBlank()) {
+            try {
+                return objectMapper.readTree(legacy);
+            } catch (Exception e) {
+                return null;
+            }
         }
+        return scoreStore.load(record.getId(), record.getCourseId());
     }
 
     @Transactional
@@ -75,6 +91,23 @@ public class AssessmentScoreRecordService {
         if (userId == null) {
             throw new IllegalStateException("User must be authenticated");
         }
+        return upsertMerged(userId, incomingPayload);
+    }
+
+    /** Merges {@code incomingPayload} into the user's record for its course without recording an attempt. */
+    @Transactional
+    public AssessmentScoreRecord upsertMerged(String userId, JsonNode incomingPayload) {
+        return upsertMerged(userId, incomingPayload, List.of());
+    }
+
+    /**
+     * Merges {@code incomingPayload} into the user's record for its course and
+     * records the exam submissions it was coalesced from; used off the request
+     * thread.
+     */
+    @Transactional
+    public AssessmentScoreRecord upsertMerged(String userId, JsonNode incomingPayload,
+            List<AssessmentScoreStore.Attempt> attempts) {
         if (incomingPayload == null || !incomingPayload.isObject()) {
             throw new IllegalArgumentException("payload must be a JSON object");
         }
@@ -106,17 +139,11 @@ public class AssessmentScoreRecordService {
         }
 
         if (record != null) {
-            JsonNode existingJson = null;
-            try {
-                existingJson = objectMapper.readTree(record.getScoreJson());
-            } catch (Exception ignored) {
-            }
-            JsonNode merged = AssessmentScoreJsonMerger.mergeByChapterNo(existingJson, incomingPayload);
-            try {
-                record.setScoreJson(objectMapper.writeValueAsString(merged));
-            } catch (Exception e) {
-                throw new IllegalArgumentException("payload serialization failed", e);
-            }
+            scoreStore.migrateIfLegacy(record.getId());
+            scoreStore.apply(record.getId(), incomingPayload, false, attempts);
+            // Keep the in-memory copy in line with the migration so the update below cannot restore the blob.
+            record.setScoreJson("");
+            record.setUpdatedAt(LocalDateTime.now());
             if (incomingKey != null) {
                 record.setCourseId(incomingKey);
             }
@@ -126,8 +153,10 @@ public class AssessmentScoreRecordService {
         AssessmentScoreRecord created = new AssessmentScoreRecord();
         created.setUserId(userId);
         created.setCourseId(incomingKey);
-        created.setScoreJson(incomingPayload.toString());
-        return repository.save(created);
+        created.setScoreJson("");
+        created = repository.save(created);
+        scoreStore.apply(created.getId(), incomingPayload, false, attempts);
+        return created;
     }
 
     @Transactional(readOnly = true)
@@ -161,19 +190,29 @@ public class AssessmentScoreRecordService {
                 .orElseThrow(() -> new IllegalArgumentException("Score record not found"));
     }
 
+    /** Replaces every chapter of the record with those of {@code newJson}. */
     @Transactional
-    public AssessmentScoreRecord replaceJson(Long id, String newJson) {
+    public AssessmentScoreRecord replaceJson(Long id, JsonNode newJson) {
         AssessmentScoreRecord record = getOwned(id);
-        record.setScoreJson(newJson);
+        scoreStore.apply(record.getId(), newJson, true);
+        record.setScoreJson("");
+        record.setUpdatedAt(LocalDateTime.now());
         return repository.save(record);
     }
 
     @Transactional
     public void deleteOwned(Long id) {
         AssessmentScoreRecord record = getOwned(id);
+        scoreStore.deleteForScore(record.getId());
         repository.delete(Objects.requireNonNull(record));
     }
 
+    @Transactional
+    public void deleteAllForUser(String userId) {
+        scoreStore.deleteForUser(userId);
+        repository.deleteByUserId(userId);
+    }
+
     private String normalizeCourseId(String courseId) {
         if (courseId == null) {
             return null;
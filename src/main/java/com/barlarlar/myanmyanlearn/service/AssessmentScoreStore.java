@@ -0,0 +1,376 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Normalized storage behind {@code assessment_scores}: one attempt row per
+ * scored exam submission, one row per (score, chapter) holding the chapter's
+ * latest result, and one row per question slot of that result. A write upserts
+ * one row per chapter it contains and rewrites only those chapters' slots; the
+ * score document served by the API is rebuilt from these rows.
+ *
+ * <p>
+ * Attempts are keyed by the submission's attempt key, so replaying a journaled
+ * submission records it once. Chapters written by anything other than an
+ * attempt (migration, API edits) carry {@link #NO_ATTEMPT}.
+ *
+ * <p>
+ * Records written before this table layout keep their document in
+ * {@code score_json}; they are migrated at startup and, on demand, before
+ * their next update. A migrated record has an empty {@code score_json}.
+ */
+@Slf4j
+@Service
+public class AssessmentScoreStore {
+    public static final long NO_ATTEMPT = 0L;
+
+    private static final int MIGRATION_BATCH = 100;
+
+    private static final String UPSERT_CHAPTER_SQL = """
+            insert into assessment_score_chapters
+            (score_id, chapter_no, chapter_pos, attempt_id, question_count, correct_slots, total_slots, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            on duplicate key update attempt_id = values(attempt_id), question_count = values(question_count),
+            correct_slots = values(correct_slots), total_slots = values(total_slots),
+            updated_at = values(updated_at)""";
+
+    private static final String INSERT_SLOT_SQL = """
+            insert into assessment_score_slots
+            (score_id, chapter_no, question_pos, question_no, slot_pos, slot_no, is_correct)
+            values (?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private record SlotRow(int questionPos, int questionNo, int slotPos, int slotNo, boolean correct) {
+    }
+
+    private record ChapterRow(int chapterNo, List<SlotRow> slots, int questionCount, int correctSlots) {
+    }
+
+    /** One scored exam submission, summarized from its own score document. */
+    public record Attempt(String key, String courseId, List<Integer> chapterNos, int correctSlots, int totalSlots,
+            LocalDateTime submittedAt) {
+
+        public static Attempt of(String key, JsonNode payload, LocalDateTime submittedAt) {
+            List<Integer> chapterNos = new ArrayList<>();
+            int correct = 0;
+            int total = 0;
+            for (ChapterRow c : parseChapters(payload)) {
+                chapterNos.add(c.chapterNo());
+                correct += c.correctSlots();
+                total += c.slots().size();
+            }
+            JsonNode courseIdNode = payload != null ? payload.get("courseId") : null;
+            String courseId = courseIdNode != null && !courseIdNode.isNull() ? courseIdNode.asText() : null;
+            return new Attempt(key, courseId, List.copyOf(chapterNos), correct, total, submittedAt);
+        }
+    }
+
+    public AssessmentScoreStore(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replaces the stored result of every chapter in {@code payload}, keeping
+     * other chapters, without recording an attempt. With {@code replaceAll}
+     * every stored chapter is removed first.
+     */
+    public void apply(long scoreId, JsonNode payload, boolean replaceAll) {
+        apply(scoreId, payload, replaceAll, List.of());
+    }
+
+    /**
+     * Records {@code attempts}, in submission order, and applies
+     * {@code payload}, the attempts' documents merged by chapter. Each chapter
+     * is linked to the last attempt that contained it.
+     */
+    public void apply(long scoreId, JsonNode payload, boolean replaceAll, List<Attempt> attempts) {
+        List<ChapterRow> chapters = parseChapters(payload);
+        if (replaceAll) {
+            jdbcTemplate.update("delete from assessment_score_slots where score_id = ?", scoreId);
+            jdbcTemplate.update("delete from assessment_score_chapters where score_id = ?", scoreId);
+        }
+
+        Map<Integer, Long> chapterAttempts = new HashMap<>();
+        for (Attempt attempt : attempts) {
+            long attemptId = recordAttempt(scoreId, attempt);
+            for (Integer chapterNo : attempt.chapterNos()) {
+                chapterAttempts.put(chapterNo, attemptId);
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (chapters.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Integer> positions = new HashMap<>();
+        int nextPos = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "select chapter_no, chapter_pos from assessment_score_chapters where score_id = ?", scoreId)) {
+            int pos = ((Number) row.get("chapter_pos")).intValue();
+            positions.put(((Number) row.get("chapter_no")).intValue(), pos);
+            nextPos = Math.max(nextPos, pos + 1);
+        }
+        List<Object[]> chapterArgs = new ArrayList<>();
+        List<Object[]> deleteArgs = new ArrayList<>();
+        List<Object[]> slotArgs = new ArrayList<>();
+        for (ChapterRow c : chapters) {
+            Integer pos = positions.get(c.chapterNo());
+            if (pos == null) {
+                pos = nextPos++;
+                positions.put(c.chapterNo(), pos);
+            }
+            long attemptId = chapterAttempts.getOrDefault(c.chapterNo(), NO_ATTEMPT);
+            chapterArgs.add(new Object[] { scoreId, c.chapterNo(), pos, attemptId, c.questionCount(),
+                    c.correctSlots(), c.slots().size(), now });
+            deleteArgs.add(new Object[] { scoreId, c.chapterNo() });
+            for (SlotRow s : c.slots()) {
+                slotArgs.add(new Object[] { scoreId, c.chapterNo(), s.questionPos(), s.questionNo(), s.slotPos(),
+                        s.slotNo(), s.correct() });
+            }
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CHAPTER_SQL, chapterArgs);
+        jdbcTemplate.batchUpdate("delete from assessment_score_slots where score_id = ? and chapter_no = ?",
+                deleteArgs);
+        if (!slotArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, slotArgs);
+        }
+    }
+
+    /** Rebuilds the {@code {courseId, chapters: [...]}} document of one score record. */
+    public ObjectNode load(long scoreId, String fallbackCourseId) {
+        JsonNodeFactory f = JsonNodeFactory.instance;
+        ObjectNode root = f.objectNode();
+        List<String> courseIds = jdbcTemplate.queryForList("""
+                select course_id from assessment_score_attempts
+                where score_id = ? and course_id is not null order by id desc limit 1""", String.class, scoreId);
+        String courseId = courseIds.isEmpty() ? fallbackCourseId : courseIds.get(0);
+        if (courseId != null) {
+            root.put("courseId", courseId);
+        }
+
+        ArrayNode chapters = root.putArray("chapters");
+        Map<Integer, ArrayNode> questionsByChapter = new LinkedHashMap<>();
+        for (Integer chapterNo : jdbcTemplate.queryForList(
+                "select chapter_no from assessment_score_chapters where score_id = ? order by chapter_pos",
+                Integer.class, scoreId)) {
+            ObjectNode chapter = chapters.addObject();
+            chapter.put("chapter_no", chapterNo);
+            questionsByChapter.put(chapterNo, chapter.putArray("questions"));
+        }
+        int[] current = { Integer.MIN_VALUE, Integer.MIN_VALUE };
+        ArrayNode[] slopes = new ArrayNode[1];
+        jdbcTemplate.query("""
+                select chapter_no, question_pos, question_no, slot_no, is_correct from assessment_score_slots
+                where score_id = ? order by chapter_no, question_pos, slot_pos""", rs -> {
+            int chapterNo = rs.getInt(1);
+            int questionPos = rs.getInt(2);
+            ArrayNode questions = questionsByChapter.get(chapterNo);
+            if (questions == null) {
+                return;
+            }
+            if (chapterNo != current[0] || questionPos != current[1]) {
+                ObjectNode question = questions.addObject();
+                question.put("question_no", rs.getInt(3));
+                slopes[0] = question.putArray("slopes");
+                current[0] = chapterNo;
+                current[1] = questionPos;
+            }
+            ObjectNode slope = slopes[0].addObject();
+            slope.put("slope_no", rs.getInt(4));
+            slope.put("is_correct", rs.getBoolean(5));
+        }, scoreId);
+        return root;
+    }
+
+    /**
+     * Moves a legacy {@code score_json} document into the normalized tables.
+     * Locks the record row, so it is safe to race with startup migration.
+     */
+    public void migrateIfLegacy(long scoreId) {
+        List<String> blobs = jdbcTemplate.queryForList(
+                "select score_json from assessment_scores where id = ? for update", String.class, scoreId);
+        if (blobs.isEmpty() || blobs.get(0) == null || blobs.get(0).isBlank()) {
+            return;
+        }
+        JsonNode legacy = null;
+        try {
+            legacy = objectMapper.readTree(blobs.get(0));
+        } catch (Exception e) {
+            // The merge path treated an unreadable document as empty as well.
+            log.warn("Discarding unreadable score_json of record {}", scoreId);
+        }
+        if (legacy != null) {
+            apply(scoreId, legacy, true);
+        }
+        jdbcTemplate.update("update assessment_scores set score_json = '' where id = ?", scoreId);
+    }
+
+    public void deleteForScore(long scoreId) {
+        jdbcTemplate.update("delete from assessment_score_slots where score_id = ?", scoreId);
+        jdbcTemplate.update("delete from assessment_score_chapters where score_id = ?", scoreId);
+        jdbcTemplate.update("delete from assessment_score_attempts where score_id = ?", scoreId);
+    }
+
+    public void deleteForUser(String userId) {
+        for (String table : List.of("assessment_score_slots", "assessment_score_chapters",
+                "assessment_score_attempts")) {
+            jdbcTemplate.update("delete t from " + table + " t join assessment_scores a on a.id = t.score_id"
+                    + " where a.user_id = ?", userId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyRecords() {
+        long lastId = 0L;
+        int migrated = 0;
+        try {
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList("""
+                        select id from assessment_scores where id > ? and score_json <> ''
+                        order by id limit ?""", Long.class, lastId, MIGRATION_BATCH);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Long id : ids) {
+                    lastId = id;
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> migrateIfLegacy(id));
+                        migrated++;
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to migrate assessment score record {}", id, e);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Assessment score migration stopped", e);
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} assessment score records to normalized tables", migrated);
+        }
+    }
+
+    // An attempt already recorded under the same key, e.g. by a flush whose
+    // journal segment was replayed, is reused.
+    private long recordAttempt(long scoreId, Attempt attempt) {
+        List<Long> existing = jdbcTemplate.queryForList(
+                "select id from assessment_score_attempts where score_id = ? and attempt_key = ?", Long.class,
+                scoreId, attempt.key());
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    insert into assessment_score_attempts
+                    (score_id, attempt_key, course_id, chapter_count, correct_slots, total_slots, submitted_at)
+                    values (?, ?, ?, ?, ?, ?, ?)""", Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, scoreId);
+            ps.setString(2, attempt.key());
+            ps.setString(3, attempt.courseId());
+            ps.setInt(4, attempt.chapterNos().size());
+            ps.setInt(5, attempt.correctSlots());
+            ps.setInt(6, attempt.totalSlots());
+            ps.setTimestamp(7, Timestamp.valueOf(attempt.submittedAt()));
+            return ps;
+        }, keys);
+        Number key = keys.getKey();
+        return key != null ? key.longValue() : NO_ATTEMPT;
+    }
+
+    // Chapters without a usable chapter_no are ignored, as in AssessmentScoreJsonMerger;
+    // a repeated chapter_no keeps the last occurrence.
+    private static List<ChapterRow> parseChapters(JsonNode payload) {
+        JsonNode chapters = payload != null && payload.isObject() ? payload.get("chapters") : null;
+        if (chapters == null || !chapters.isArray()) {
+            return List.of();
+        }
+        Map<Integer, ChapterRow> byNo = new LinkedHashMap<>();
+        for (JsonNode ch : chapters) {
+            Integer chapterNo = readInt(ch != null && ch.isObject() ? ch.get("chapter_no") : null);
+            if (chapterNo == null) {
+                continue;
+            }
+            List<SlotRow> slots = new ArrayList<>();
+            int questionCount = 0;
+            int correct = 0;
+            JsonNode questions = ch.get("questions");
+            if (questions != null && questions.isArray()) {
+                for (JsonNode q : questions) {
+                    Integer questionNo = readInt(q != null && q.isObject() ? q.get("question_no") : null);
+                    if (questionNo == null) {
+                        continue;
+                    }
+                    int questionPos = questionCount++;
+                    JsonNode slopes = q.get("slopes");
+                    if (slopes == null || !slopes.isArray()) {
+                        continue;
+                    }
+                    int slotPos = 0;
+                    for (JsonNode s : slopes) {
+                        Integer slotNo = readInt(s != null && s.isObject() ? s.get("slope_no") : null);
+                        if (slotNo == null) {
+                            continue;
+                        }
+                        boolean isCorrect = s.path("is_correct").asBoolean(false);
+                        if (isCorrect) {
+                            correct++;
+                        }
+                        slots.add(new SlotRow(questionPos, questionNo, slotPos++, slotNo, isCorrect));
+                    }
+                }
+            }
+            byNo.remove(chapterNo);
+            byNo.put(chapterNo, new ChapterRow(chapterNo, slots, questionCount, correct));
+        }
+        return new ArrayList<>(byNo.values());
+    }
+
+    private static Integer readInt(JsonNode v) {
+        if (v == null || v.isNull()) {
+            return null;
+        }
+        if (v.isInt() || v.isLong()) {
+            return v.asInt();
+        }
+        if (v.isTextual()) {
+            try {
+                return Integer.parseInt(v.asText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,460 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Write-behind queue for assessment scores. A submission is appended to a
+ * local journal (fsynced, with concurrent submitters sharing one sync) and
+ * coalesced, still serialized, into a pending per user/course document with the
+ * streaming {@link AssessmentScoreJsonMerger}; a scheduled flush writes
+ * the pending documents through
+ * {@link AssessmentScoreRecordService#upsertMerged} in batched transactions.
+ *
+ * <p>
+ * Journal segments are sealed when a flush starts and deleted once that flush
+ * committed, so a crash replays at most the documents not yet known to be
+ * stored; replaying a stored document is harmless because chapters merge by
+ * number and attempts are recorded once per attempt key. Coalescing merges the
+ * documents but keeps every submission's attempt. Reads made through
+ * {@link #latestScoreJsonForCurrentUser} overlay queued and in-flight documents
+ * on the stored record.
+ */
+@Slf4j
+@Service
+public class AssessmentScoreWriteBehind implements DisposableBean {
+    private static final String SEGMENT_PREFIX = "scores-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final AssessmentScoreRecordService recordService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDir;
+    private final int batchSize;
+
+    private final Object lock = new Object();
+    private final Object syncLock = new Object();
+    private final Object flushLock = new Object();
+    private Map<Key, Pending> pending = new LinkedHashMap<>();
+    private final Map<Key, Pending> flushing = new ConcurrentHashMap<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private volatile FileChannel journal;
+    private Path journalPath;
+    private long segmentSequence;
+    private volatile long writtenBytes;
+    private long syncedBytes;
+
+    private record Key(String userId, String courseId) {
+    }
+
+    private record Pending(String json, List<AssessmentScoreStore.Attempt> attempts) {
+        static Pending merge(Pending older, Pending newer) {
+            List<AssessmentScoreStore.Attempt> attempts = new ArrayList<>(older.attempts());
+            attempts.addAll(newer.attempts());
+            return new Pending(AssessmentScoreJsonMerger.mergeByChapterNo(older.json(), newer.json()), attempts);
+        }
+    }
+
+    public AssessmentScoreWriteBehind(
+            AssessmentScoreRecordService recordService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.score-write-behind.journal-dir:data/score-journal}") String journalDir,
+            @Value("${app.score-write-behind.batch-size:100}") int batchSize) {
+        this.recordService = recordService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalDir = Path.of(journalDir);
+        this.batchSize = Math.max(1, batchSize);
+        try {
+            Files.createDirectories(this.journalDir);
+            recover();
+            openSegment();
+        } catch (IOException e) {
+            // Without a journal queued scores could be lost, so submissions are written synchronously instead.
+            log.warn("Score journal unavailable at {}; scores will be saved synchronously", this.journalDir, e);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Queues {@code payload}, the score of one exam submission identified by
+     * {@code attemptKey}, for the user's record of its course.
+     */
+    public void submit(String userId, String attemptKey, ObjectNode payload) throws IOException {
+        if (userId == null) {
+            throw new IllegalStateException("User must be authenticated");
+        }
+        if (payload == null) {
+            throw new IllegalArgumentException("payload must be a JSON object");
+        }
+        LocalDateTime submittedAt = LocalDateTime.now();
+        AssessmentScoreStore.Attempt attempt = AssessmentScoreStore.Attempt.of(attemptKey, payload, submittedAt);
+        if (journal == null) {
+            recordService.upsertMerged(userId, payload, List.of(attempt));
+            return;
+        }
+        String payloadJson = objectMapper.writeValueAsString(payload);
+        byte[] line = ("{\"userId\":" + objectMapper.writeValueAsString(userId)
+                + ",\"attemptKey\":" + objectMapper.writeValueAsString(attemptKey)
+                + ",\"submittedAt\":\"" + submittedAt + "\",\"payload\":" + payloadJson + "}\n")
+                .getBytes(StandardCharsets.UTF_8);
+        long position;
+        synchronized (lock) {
+            position = append(line);
+            pending.merge(key(userId, payload), new Pending(payloadJson, List.of(attempt)), Pending::merge);
+        }
+        sync(position);
+    }
+
+    /** The stored score document with queued and in-flight submissions merged on top. */
+    public Optional<JsonNode> latestScoreJsonForCurrentUser(Optional<String> courseId) {
+        String userId = recordService.currentUserId();
+        if (userId == null) {
+            return recordService.latestScoreJsonForCurrentUser(courseId);
+        }
+        Key key = new Key(userId, normalizeCourseId(courseId != null ? courseId.orElse(null) : null));
+        // Snapshot before reading the record: a flush committing in between is then either seen in the
+        // stored document or still overlaid, and overlaying a stored document again changes nothing.
+        Pending inFlight;
+        Pending queued;
+        synchronized (lock) {
+            inFlight = flushing.get(key);
+            queued = pending.get(key);
+        }
+        Optional<JsonNode> stored = recordService.latestScoreJsonForCurrentUser(courseId);
+        if (inFlight == null && queued == null) {
+            return stored;
+        }
+        JsonNode out = stored.orElse(null);
+        if (inFlight != null) {
+            out = AssessmentScoreJsonMerger.mergeByChapterNo(out, parse(inFlight.json()));
+        }
+        if (queued != null) {
+            out = AssessmentScoreJsonMerger.mergeByChapterNo(out, parse(queued.json()));
+        }
+        return Optional.of(out);
+    }
+
+    /**
+     * Drops the user's queued submissions and deletes their stored scores. The
+     * flush lock is held so no in-flight document is written after the delete,
+     * and a tombstone is journaled so a recovery does not replay submissions
+     * made before it.
+     */
+    public void deleteAllForUser(String userId) {
+        synchronized (flushLock) {
+            if (journal != null) {
+                try {
+                    byte[] line = ("{\"deletedUserId\":" + objectMapper.writeValueAsString(userId) + "}\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    long position;
+                    synchronized (lock) {
+                        position = append(line);
+                        pending.keySet().removeIf(k -> k.userId().equals(userId));
+                    }
+                    sync(position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to journal score deletion", e);
+                }
+            } else {
+                synchronized (lock) {
+                    pending.keySet().removeIf(k -> k.userId().equals(userId));
+                }
+            }
+            recordService.deleteAllForUser(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.score-write-behind.flush-interval-ms:500}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Key, Pending> drained;
+            List<Path> sealed;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                drained = pending;
+                pending = new LinkedHashMap<>();
+                flushing.putAll(drained);
+                try {
+                    rotateSegment();
+                } catch (IOException e) {
+                    log.warn("Failed to rotate score journal", e);
+                }
+                sealed = new ArrayList<>(sealedSegments);
+            }
+
+            Map<Key, Pending> failed = write(drained);
+
+            synchronized (lock) {
+                flushing.clear();
+                if (failed.isEmpty()) {
+                    for (Path segment : sealed) {
+                        try {
+                            Files.deleteIfExists(segment);
+                        } catch (IOException e) {
+                            log.warn("Failed to delete score journal segment {}", segment, e);
+                        }
+                    }
+                    sealedSegments.removeAll(sealed);
+                    return;
+                }
+                // Failed documents are older than anything queued since the flush started.
+                for (Map.Entry<Key, Pending> e : failed.entrySet()) {
+                    Pending newer = pending.get(e.getKey());
+                    pending.put(e.getKey(), newer == null ? e.getValue() : Pending.merge(e.getValue(), newer));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+        closeJournal();
+    }
+
+    private Map<Key, Pending> write(Map<Key, Pending> drained) {
+        Map<Key, Pending> failed = new LinkedHashMap<>();
+        List<Map.Entry<Key, Pending>> entries = new ArrayList<>(drained.entrySet());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Key, Pending>> batch = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Map.Entry<Key, Pending> e : batch) {
+                        save(e.getKey(), e.getValue());
+                    }
+                });
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Batched score flush failed; retrying {} entries one by one", batch.size(), e);
+            }
+            for (Map.Entry<Key, Pending> e : batch) {
+                if (!saveAlone(e.getKey(), e.getValue())) {
+                    failed.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        return failed;
+    }
+
+    /** Saves one document in its own transaction; false when a later flush should retry it. */
+    private boolean saveAlone(Key key, Pending document) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(key, document));
+                return true;
+            } catch (IllegalArgumentException e) {
+                // A malformed payload; no retry can succeed.
+                log.warn("Dropping unsavable score payload for user {}", key.userId(), e);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 1) {
+                    // Usually a concurrent first insert of the same (user_id, course_id) record,
+                    // which the retry finds and updates.
+                    continue;
+                }
+                log.warn("Failed to save score for user {}", key.userId(), e);
+                return false;
+            } catch (RuntimeException e) {
+                log.warn("Failed to save score for user {}", key.userId(), e);
+                return false;
+            }
+        }
+    }
+
+    private void save(Key key, Pending document) {
+        recordService.upsertMerged(key.userId(), parse(document.json()), document.attempts());
+    }
+
+    private long append(byte[] line) throws IOException {
+        FileChannel channel = journal;
+        if (channel == null) {
+            throw new IOException("Score journal is closed.");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(line);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        writtenBytes += line.length;
+        return writtenBytes;
+    }
+
+    // Group commit: one force covers every append made before it started.
+    private void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (syncedBytes >= position) {
+                return;
+            }
+            FileChannel channel = journal;
+            if (channel == null) {
+                throw new IOException("Score journal is closed.");
+            }
+            long target = writtenBytes;
+            channel.force(false);
+            syncedBytes = target;
+        }
+    }
+
+    private void rotateSegment() throws IOException {
+        synchronized (syncLock) {
+            FileChannel current = journal;
+            journal = null;
+            if (current != null) {
+                current.force(false);
+                current.close();
+                syncedBytes = writtenBytes;
+                sealedSegments.add(journalPath);
+            }
+            openSegment();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path path = journalDir.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, ++segmentSequence, SEGMENT_SUFFIX));
+        journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        journalPath = path;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(journalDir,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : dir) {
+                segments.add(p);
+            }
+        }
+        segments.sort(null);
+        int replayed = 0;
+        for (Path segment : segments) {
+            String name = segment.getFileName().toString();
+            try {
+                segmentSequence = Math.max(segmentSequence, Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (replay(line)) {
+                        replayed++;
+                    }
+                }
+            }
+            sealedSegments.add(segment);
+        }
+        if (replayed > 0) {
+            log.info("Recovered {} queued assessment scores from {}", replayed, journalDir);
+        }
+    }
+
+    private boolean replay(String line) {
+        if (line.isBlank()) {
+            return false;
+        }
+        try {
+            JsonNode entry = objectMapper.readTree(line);
+            String deletedUserId = entry.path("deletedUserId").asText(null);
+            if (deletedUserId != null) {
+                // Only submissions journaled before the deletion belong to the deleted account.
+                pending.keySet().removeIf(k -> k.userId().equals(deletedUserId));
+                return false;
+            }
+            String userId = entry.path("userId").asText(null);
+            JsonNode payload = entry.get("payload");
+            if (userId == null || payload == null || !payload.isObject()) {
+                return false;
+            }
+            String attemptKey = entry.path("attemptKey").asText(null);
+            if (attemptKey == null) {
+                // Entries journaled before attempt keys existed; derived from the line so a second replay matches.
+                attemptKey = UUID.nameUUIDFromBytes(line.getBytes(StandardCharsets.UTF_8)).toString();
+            }
+            AssessmentScoreStore.Attempt attempt = AssessmentScoreStore.Attempt.of(attemptKey, payload,
+                    parseSubmittedAt(entry.path("submittedAt").asText(null)));
+            pending.merge(key(userId, payload), new Pending(objectMapper.writeValueAsString(payload),
+                    List.of(attempt)), Pending::merge);
+            return true;
+        } catch (IOException e) {
+            // A torn final line from a crash mid-append.
+            log.warn("Skipping unreadable score journal entry");
+            return false;
+        }
+    }
+
+    private void closeJournal() {
+        FileChannel channel = journal;
+        journal = null;
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close score journal", e);
+            }
+        }
+    }
+
+    private static LocalDateTime parseSubmittedAt(String value) {
+        if (value != null) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                // Fall through to the replay time.
+            }
+        }
+        return LocalDateTime.now();
+    }
+
+    private JsonNode parse(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed queued score JSON", e);
+        }
+    }
+
+    private static Key key(String userId, JsonNode payload) {
+        JsonNode courseId = payload.get("courseId");
+        return new Key(userId, normalizeCourseId(courseId != null && !courseId.isNull() ? courseId.asText() : null));
+    }
+
+    private static String normalizeCourseId(String courseId) {
+        return courseId == null ? "" : courseId.trim();
+    }
+}
@@ -0,0 +1,424 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.barlarlar.myanmyanlearn.model.Question;
+import com.barlarlar.myanmyanlearn.model.QuestionOption;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Grades assessment submissions against a compiled {@link AnswerSheet}. The
+ * sheet flattens every slot of the (sorted) question list into primitive
+ * arrays: a bitmask of correct option indices per slot and per-slot marks in
+ * fixed-point micro-marks, so scoring a submission is a single pass over an
+ * {@code int[]} of selections with no per-slot maps, regexes or decimals.
+ */
+@Service
+public class AssessmentScoringEngine {
+    /** Marks are stored as integers with this many implied decimal places. */
+    public static final int MARK_SCALE = 6;
+
+    private static final int NO_SELECTION = -1;
+    private static final int NO_CORRECT = Integer.MIN_VALUE;
+
+    private static final Comparator<Question> QUESTION_ORDER = Comparator
+            .<Question>comparingInt(q -> parseChapterOrder(q.getChapterId()))
+            .thenComparingInt(Question::getQuestionNumber);
+
+    /** Immutable answer key for one ordered list of questions. */
+    public static final class AnswerSheet {
+        private final String courseId;
+        private final List<Question> questions;
+        private final double totalPossible;
+        private final int[] chapterNo;
+        private final int[] slotStart;
+        private final long[] correctMask;
+        // Correct option indices outside 0..63; null unless some slot has one.
+        private final int[][] extraCorrect;
+        private final int[] correctIndex;
+        private final String[] correctText;
+        private final long[] slotMarks;
+        private final int[][] optionIndex;
+        private final String[][] optionText;
+
+        private AnswerSheet(String courseId, List<Question> questions) {
+            this.courseId = courseId;
+            this.questions = questions;
+            int n = questions.size();
+            this.chapterNo = new int[n];
+            this.slotStart = new int[n + 1];
+            double possible = 0.0;
+            for (int i = 0; i < n; i++) {
+                Question q = questions.get(i);
+                chapterNo[i] = parseChapterOrder(q.getChapterId());
+                slotStart[i + 1] = slotStart[i] + Math.max(1, q.getSlotCount());
+                possible += q.getMarks();
+            }
+            this.totalPossible = possible;
+
+            int slots = slotStart[n];
+            this.correctMask = new long[slots];
+            this.correctIndex = new int[slots];
+            this.correctText = new String[slots];
+            this.slotMarks = new long[slots];
+            this.optionIndex = new int[slots][];
+            this.optionText = new String[slots][];
+            int[][] extra = null;
+            for (int i = 0; i < n; i++) {
+                Question q = questions.get(i);
+                int slotCount = slotStart[i + 1] - slotStart[i];
+                long perSlot = BigDecimal.valueOf((double) q.getMarks())
+                        .divide(BigDecimal.valueOf(slotCount), MARK_SCALE, RoundingMode.HALF_UP)
+                        .unscaledValue()
+                        .longValueExact();
+                for (int s = 0; s < slotCount; s++) {
+                    int slot = slotStart[i] + s;
+                    slotMarks[slot] = perSlot;
+                    List<QuestionOption> opts = (q.getSlotOptions() != null && q.getSlotOptions().size() > s)
+                            ? q.getSlotOptions().get(s)
+                            : q.getOptions();
+                    int size = opts != null ? opts.size() : 0;
+                    int[] indices = new int[size];
+                    String[] texts = new String[size];
+                    long mask = 0L;
+                    int first = NO_CORRECT;
+                    List<String> correct = new ArrayList<>(1);
+                    for (int o = 0; o < size; o++) {
+                        QuestionOption opt = opts.get(o);
+                        indices[o] = opt.getOptionIndex();
+                        texts[o] = opt.getOptionContent();
+                        if (!opt.getIsCorrect()) {
+                            continue;
+                        }
+                        int idx = opt.getOptionIndex();
+                        if (idx >= 0 && idx < Long.SIZE) {
+                            mask |= 1L << idx;
+                        } else {
+                            if (extra == null) {
+                                extra = new int[slots][];
+                            }
+                            int[] prev = extra[slot];
+                            int[] next = prev == null ? new int[1] : Arrays.copyOf(prev, prev.length + 1);
+                            next[next.length - 1] = idx;
+                            extra[slot] = next;
+                        }
+                        if (first == NO_CORRECT) {
+                            first = idx;
+                        }
+                        correct.add(opt.getOptionContent());
+                    }
+                    correctMask[slot] = mask;
+                    correctIndex[slot] = first;
+                    correctText[slot] = correct.isEmpty() ? null : String.join(", ", correct);
+                    optionIndex[slot] = indices;
+                    optionText[slot] = texts;
+                }
+            }
+            this.extraCorrect = extra;
+        }
+
+        public String courseId() {
+            return courseId;
+        }
+
+        /** Questions in assessment order (chapter, then question number). */
+        public List<Question> questions() {
+            return questions;
+        }
+
+        public double totalPossible() {
+            return totalPossible;
+        }
+
+        public int totalSlots() {
+            return slotStart[slotStart.length - 1];
+        }
+
+        boolean isCorrect(int slot, int selected) {
+            if (selected == NO_SELECTION) {
+                return false;
+            }
+            if (selected >= 0 && selected < Long.SIZE) {
+                return (correctMask[slot] & (1L << selected)) != 0L;
+            }
+            int[] extra = extraCorrect != null ? extraCorrect[slot] : null;
+            if (extra != null) {
+                for (int idx : extra) {
+                    if (idx == selected) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        String optionText(int slot, int selected) {
+            int[] indices = optionIndex[slot];
+            String text = null;
+            for (int o = 0; o < indices.length; o++) {
+                if (indices[o] == selected) {
+                    text = optionText[slot][o];
+                }
+            }
+            return text;
+        }
+    }
+
+    /** Outcome of grading one submission; backs both the score page and the score JSON. */
+    public static final class ScoreResult {
+        private final AnswerSheet sheet;
+        private final int[] selected;
+        private final boolean[] correct;
+        private final long earned;
+
+        private ScoreResult(AnswerSheet sheet, int[] selected, boolean[] correct, long earned) {
+            this.sheet = sheet;
+            this.selected = selected;
+            this.correct = correct;
+            this.earned = earned;
+        }
+
+        public AnswerSheet sheet() {
+            return sheet;
+        }
+
+        /** Earned marks in fixed point; see {@link AssessmentScoringEngine#MARK_SCALE}. */
+        public long earnedUnscaled() {
+            return earned;
+        }
+
+        public String yourScore() {
+            return BigDecimal.valueOf(earned, MARK_SCALE).stripTrailingZeros().toPlainString();
+        }
+
+        /** Per-question views for the score page, created on access. */
+        public List<QuestionView> scoredQuestions() {
+            return new AbstractList<>() {
+                @Override
+                public QuestionView get(int index) {
+                    return new QuestionView(ScoreResult.this, index);
+                }
+
+                @Override
+                public int size() {
+                    return sheet.questions.size();
+                }
+            };
+        }
+
+        /**
+         * Builds the {@code {courseId, chapters: [{chapter_no, questions: [{question_no,
+         * slopes: [{slope_no, is_correct}]}]}]}} document stored by
+         * {@link AssessmentScoreRecordService}.
+         */
+        public ObjectNode toScoreJson() {
+            JsonNodeFactory f = JsonNodeFactory.instance;
+            ObjectNode root = f.objectNode();
+            if (sheet.courseId != null && !sheet.courseId.isBlank()) {
+                root.put("courseId", sheet.courseId);
+            } else {
+                root.putNull("courseId");
+            }
+            ArrayNode chapters = root.putArray("chapters");
+            ArrayNode questions = null;
+            int currentChapter = 0;
+            for (int i = 0; i < sheet.questions.size(); i++) {
+                int chapterNo = sheet.chapterNo[i];
+                if (chapterNo == Integer.MAX_VALUE) {
+                    continue;
+                }
+                // Questions are sorted by chapter, so each chapter is one contiguous run.
+                if (questions == null || chapterNo != currentChapter) {
+                    ObjectNode chapterNode = chapters.addObject();
+                    chapterNode.put("chapter_no", chapterNo);
+                    questions = chapterNode.putArray("questions");
+                    currentChapter = chapterNo;
+                }
+                ObjectNode qNode = questions.addObject();
+                qNode.put("question_no", sheet.questions.get(i).getQuestionNumber());
+                ArrayNode slopes = qNode.putArray("slopes");
+                for (int slot = sheet.slotStart[i]; slot < sheet.slotStart[i + 1]; slot++) {
+                    ObjectNode slopeNode = slopes.addObject();
+                    slopeNode.put("slope_no", slot - sheet.slotStart[i] + 1);
+                    slopeNode.put("is_correct", correct[slot]);
+                }
+            }
+            return root;
+        }
+    }
+
+    public static final class QuestionView {
+        private final ScoreResult result;
+        private final int question;
+
+        private QuestionView(ScoreResult result, int question) {
+            this.result = result;
+            this.question = question;
+        }
+
+        public Question getQ() {
+            return result.sheet.questions.get(question);
+        }
+
+        public int getIndex() {
+            return question + 1;
+        }
+
+        public List<SlotView> getSlots() {
+            int start = result.sheet.slotStart[question];
+            int end = result.sheet.slotStart[question + 1];
+            return new AbstractList<>() {
+                @Override
+                public SlotView get(int index) {
+                    return new SlotView(result, start + index, index + 1);
+                }
+
+                @Override
+                public int size() {
+                    return end - start;
+                }
+            };
+        }
+    }
+
+    public static final class SlotView {
+        private final ScoreResult result;
+        private final int slot;
+        private final int slotNum;
+
+        private SlotView(ScoreResult result, int slot, int slotNum) {
+            this.result = result;
+            this.slot = slot;
+            this.slotNum = slotNum;
+        }
+
+        public int getSlotNum() {
+            return slotNum;
+        }
+
+        public int getSelectedIndex() {
+            return result.selected[slot];
+        }
+
+        public String getSelectedText() {
+            return result.sheet.optionText(slot, result.selected[slot]);
+        }
+
+        public Integer getCorrectIndex() {
+            int idx = result.sheet.correctIndex[slot];
+            return idx == NO_CORRECT ? null : idx;
+        }
+
+        public String getCorrectText() {
+            return result.sheet.correctText[slot];
+        }
+
+        public boolean getIsCorrect() {
+            return result.correct[slot];
+        }
+    }
+
+    /** Sorts {@code questions} into assessment order and compiles their answer key. */
+    public AnswerSheet compile(String courseId, List<Question> questions) {
+        if (questions == null || questions.isEmpty()) {
+            return new AnswerSheet(courseId, Collections.emptyList());
+        }
+        List<Question> ordered = new ArrayList<>(questions);
+        ordered.sort(QUESTION_ORDER);
+        return new AnswerSheet(courseId, Collections.unmodifiableList(ordered));
+    }
+
+    /**
+     * Grades the {@code q<question>-s<slot>} parameters of a submission.
+     * Question numbers are 1-based positions in {@link AnswerSheet#questions()}.
+     */
+    public ScoreResult score(AnswerSheet sheet, Map<String, String> params) {
+        int[] selected = parseSelections(sheet, params);
+        boolean[] correct = new boolean[selected.length];
+        long earned = 0L;
+        for (int slot = 0; slot < selected.length; slot++) {
+            if (sheet.isCorrect(slot, selected[slot])) {
+                correct[slot] = true;
+                earned += sheet.slotMarks[slot];
+            }
+        }
+        return new ScoreResult(sheet, selected, correct, earned);
+    }
+
+    private static int[] parseSelections(AnswerSheet sheet, Map<String, String> params) {
+        int[] selected = new int[sheet.totalSlots()];
+        Arrays.fill(selected, NO_SELECTION);
+        if (params == null) {
+            return selected;
+        }
+        int questionCount = sheet.questions.size();
+        for (Map.Entry<String, String> e : params.entrySet()) {
+            String key = e.getKey();
+            if (key == null || key.length() < 4 || key.charAt(0) != 'q') {
+                continue;
+            }
+            int dash = key.indexOf("-s", 1);
+            if (dash < 0) {
+                continue;
+            }
+            int question = parsePositive(key, 1, dash);
+            int slotNum = parsePositive(key, dash + 2, key.length());
+            if (question < 1 || question > questionCount || slotNum < 1) {
+                continue;
+            }
+            int start = sheet.slotStart[question - 1];
+            if (slotNum > sheet.slotStart[question] - start) {
+                continue;
+            }
+            selected[start + slotNum - 1] = parseSelection(e.getValue());
+        }
+        return selected;
+    }
+
+    /** Parses ASCII digits in {@code [from, to)} without a leading zero; returns -1 for anything else. */
+    private static int parsePositive(String s, int from, int to) {
+        if (from >= to || to - from > 9 || s.charAt(from) == '0') {
+            return -1;
+        }
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static int parseSelection(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return NO_SELECTION;
+        }
+    }
+
+    static int parseChapterOrder(String chapterId) {
+        if (chapterId == null) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            return Integer.parseInt(chapterId.trim());
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
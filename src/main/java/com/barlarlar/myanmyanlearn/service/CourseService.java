@@ -2,96 +2,55 @@ package com.barlarlar.myanmyanlearn.service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import com.barlarlar.myanmyanlearn.entity.CourseChapterEntity;
 import com.barlarlar.myanmyanlearn.entity.CourseEntity;
-import com.barlarlar.myanmyanlearn.entity.CourseSubchapterEntity;
-import com.barlarlar.myanmyanlearn.entity.Member;
-import com.barlarlar.myanmyanlearn.model.Course;
 import com.barlarlar.myanmyanlearn.model.Content;
+import com.barlarlar.myanmyanlearn.model.Course;
 import com.barlarlar.myanmyanlearn.model.Question;
 import com.barlarlar.myanmyanlearn.model.QuestionOption;
 import com.barlarlar.myanmyanlearn.model.Subcontent;
-import com.barlarlar.myanmyanlearn.repository.CourseChapterRepository;
 import com.barlarlar.myanmyanlearn.repository.CourseRepository;
-import com.barlarlar.myanmyanlearn.repository.CourseQuestionOptionRepository;
-import com.barlarlar.myanmyanlearn.repository.CourseQuestionRepository;
-import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotOptionRepository;
-import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotRepository;
-import com.barlarlar.myanmyanlearn.repository.CourseSubchapterRepository;
-import com.barlarlar.myanmyanlearn.repository.MemberRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 @RequiredArgsConstructor
 public class CourseService {
-    private final ObjectMapper objectMapper;
     private final CourseRepository courseRepository;
-    private final CourseChapterRepository courseChapterRepository;
-    private final CourseSubchapterRepository courseSubchapterRepository;
-    private final CourseQuestionRepository courseQuestionRepository;
-    private final CourseQuestionOptionRepository courseQuestionOptionRepository;
-    private final CourseQuestionSlotRepository courseQuestionSlotRepository;
-    private final CourseQuestionSlotOptionRepository courseQuestionSlotOptionRepository;
-    private final MemberRepository memberRepository;
-
-    public record TargetStudents(List<String> schoolYears, List<String> classes) {
-    }
+    private final CurrentMemberService currentMemberService;
+    private final CourseSnapshotCache courseSnapshotCache;
+    private final CourseVisibilityIndex courseVisibilityIndex;
 
     public List<Course> getCoursesForAuthentication(Authentication auth) {
-        Sort sort = Sort.by(Sort.Direction.DESC, "updatedAt", "createdAt");
-        boolean canSeeAll = canSeeUnpublished(auth);
-        List<CourseEntity> entities = canSeeAll ? courseRepository.findAll(sort)
-                : courseRepository.findByPublishedTrue(sort);
-        if (!canSeeAll) {
-            Member member = resolveCurrentMember(auth);
-            List<CourseEntity> filtered = new ArrayList<>();
-            for (CourseEntity e : entities) {
-                if (e == null) {
-                    continue;
-                }
-                if (canMemberAccessTargets(e, member)) {
-                    filtered.add(e);
-                }
-            }
-            entities = filtered;
+        if (canSeeUnpublished(auth)) {
+            return getAllCoursesFromDatabase();
+        }
+        CurrentMemberService.CurrentMember member = resolveCurrentMember(auth);
+        List<String> visibleIds = courseVisibilityIndex.visibleCourseIds(member);
+        List<Course> out = new ArrayList<>();
+        for (CourseSnapshot.Header header : courseSnapshotCache.headers(visibleIds)) {
+            out.add(mapHeaderToCourseSummary(header));
         }
-        return mapCourseEntitiesToCourseSummaries(entities);
+        return out;
     }
 
     public List<Course> getAllCoursesFromDatabase() {
-        List<CourseEntity> entities = courseRepository.findAll();
-        return mapCourseEntitiesToCourseSummaries(entities);
+        List<Course> out = new ArrayList<>();
+        for (CourseSnapshot.Header header : courseSnapshotCache.catalog()) {
+            out.add(mapHeaderToCourseSummary(header));
+        }
+        return out;
     }
 
     public Course findAccessibleByIdFromDatabase(String id, Authentication auth) {
-        if (id == null || id.isBlank()) {
-            return null;
-        }
-        String courseId = id.trim();
-        boolean canSeeAll = canSeeUnpublished(auth);
-        CourseEntity entity = (canSeeAll ? courseRepository.findById(Objects.requireNonNull(courseId))
-                : courseRepository.findByCourseIdAndPublishedTrue(Objects.requireNonNull(courseId))).orElse(null);
-        if (entity == null) {
-            return null;
-        }
-        if (!canSeeAll) {
-            Member member = resolveCurrentMember(auth);
-            if (!canMemberAccessTargets(entity, member)) {
-                return null;
-            }
-        }
-        return mapCourseEntityToCourseWithContents(entity);
+        CourseSnapshot snapshot = findAccessibleSnapshot(id, auth);
+        return snapshot == null ? null : mapSnapshotToCourseWithContents(snapshot);
     }
 
     public Course findAccessibleByTitleFromDatabase(String title, Authentication auth) {
@@ -105,13 +64,7 @@ public class CourseService {
         if (entity == null) {
             return null;
         }
-        if (!canSeeAll) {
-            Member member = resolveCurrentMember(auth);
-            if (!canMemberAccessTargets(entity, member)) {
-                return null;
-            }
-        }
-        return mapCourseEntityToCourseWithContents(entity);
+        return findAccessibleByIdFromDatabase(entity.getCourseId(), auth);
     }
 
     public boolean canAccessCourse(String courseId, Authentication auth) {
@@ -121,43 +74,17 @@ public class CourseService {
         if (canSeeUnpublished(auth)) {
             return true;
         }
-        CourseEntity entity = courseRepository.findByCourseIdAndPublishedTrue(courseId.trim()).orElse(null);
-        if (entity == null) {
-            return false;
-        }
-        Member member = resolveCurrentMember(auth);
-        return canMemberAccessTargets(entity, member);
+        return findAccessibleSnapshot(courseId, auth) != null;
     }
 
     public long countTotalQuestionsForCourse(String courseId) {
-        if (courseId == null || courseId.isBlank()) {
-            return 0L;
-        }
-        List<CourseChapterEntity> chapters = courseChapterRepository
-                .findByCourseIdOrderByChapterNumberAsc(courseId.trim());
-        if (chapters == null || chapters.isEmpty()) {
-            return 0L;
-        }
-        List<Long> chapterIds = new ArrayList<>();
-        for (CourseChapterEntity c : chapters) {
-            if (c == null || c.getId() == null) {
-                continue;
-            }
-            chapterIds.add(c.getId());
-        }
-        if (chapterIds.isEmpty()) {
-            return 0L;
-        }
-        return courseQuestionRepository.countByChapterIdIn(chapterIds);
+        CourseSnapshot snapshot = courseSnapshotCache.get(courseId);
+        return snapshot == null ? 0L : snapshot.questionCount();
     }
 
     public Course findByIdFromDatabase(String id) {
-        if (id == null || id.isBlank()) {
-            return null;
-        }
-        return courseRepository.findById(id)
-                .map(this::mapCourseEntityToCourseWithContents)
-                .orElse(null);
+        CourseSnapshot snapshot = courseSnapshotCache.get(id);
+        return snapshot == null ? null : mapSnapshotToCourseWithContents(snapshot);
     }
 
     public Course findByTitleFromDatabase(String title) {
@@ -165,10 +92,21 @@ public class CourseService {
             return null;
         }
         return courseRepository.findByTitleIgnoreCase(title.trim())
-                .map(this::mapCourseEntityToCourseWithContents)
+                .map(entity -> findByIdFromDatabase(entity.getCourseId()))
                 .orElse(null);
     }
 
+    private CourseSnapshot findAccessibleSnapshot(String courseId, Authentication auth) {
+        CourseSnapshot snapshot = courseSnapshotCache.get(courseId);
+        if (snapshot == null) {
+            return null;
+        }
+        if (!canSeeUnpublished(auth) && !courseVisibilityIndex.canAccess(snapshot, resolveCurrentMember(auth))) {
+            return null;
+        }
+        return snapshot;
+    }
+
     private boolean canSeeUnpublished(Authentication auth) {
         if (auth == null || auth.getAuthorities() == null) {
             return false;
@@ -182,162 +120,8 @@ public class CourseService {
         return false;
     }
 
-    private Member resolveCurrentMember(Authentication auth) {
-        if (auth == null || !auth.isAuthenticated()) {
-            return null;
-        }
-        String userId = auth.getName();
-        if (userId == null || userId.isBlank()) {
-            return null;
-        }
-        try {
-            return memberRepository.findById(userId).orElse(null);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private boolean canMemberAccessTargets(CourseEntity entity, Member member) {
-        TargetStudents ts = parseTargetStudents(entity != null ? entity.getTargetStudentsJson() : null);
-        List<String> allowedYears = ts != null && ts.schoolYears() != null ? ts.schoolYears() : List.of();
-        List<String> allowedClasses = ts != null && ts.classes() != null ? ts.classes() : List.of();
-
-        boolean restrictYear = !allowedYears.isEmpty();
-        boolean restrictClass = !allowedClasses.isEmpty();
-        if (!restrictYear && !restrictClass) {
-            return true;
-        }
-
-        String memberYear = member != null ? normalizeMemberValue(member.getSchoolYear()) : null;
-        String memberClass = member != null ? normalizeMemberValue(member.getCurrentClass()) : null;
-
-        if (restrictYear) {
-            if (memberYear == null) {
-                return false;
-            }
-            boolean ok = false;
-            for (String y : allowedYears) {
-                if (y != null && !y.isBlank() && y.trim().equalsIgnoreCase(memberYear)) {
-                    ok = true;
-                    break;
-                }
-            }
-            if (!ok) {
-                return false;
-            }
-        }
-
-        if (restrictClass) {
-            if (memberClass == null) {
-                return false;
-            }
-            boolean ok = false;
-            for (String c : allowedClasses) {
-                if (c != null && !c.isBlank() && c.trim().equalsIgnoreCase(memberClass)) {
-                    ok = true;
-                    break;
-                }
-            }
-            if (!ok) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    private String normalizeMemberValue(String value) {
-        String v = value != null ? value.trim() : "";
-        return v.isBlank() ? null : v;
-    }
-
-    private TargetStudents parseTargetStudents(String json) {
-        if (json == null || json.isBlank()) {
-            return new TargetStudents(List.of(), List.of());
-        }
-        String raw = json.trim();
-        if (raw.equalsIgnoreCase("null")) {
-            return new TargetStudents(List.of(), List.of());
-        }
-        try {
-            Map<String, Object> map = objectMapper.readValue(raw, new TypeReference<Map<String, Object>>() {
-            });
-            List<String> years = normalizeStringList(map.get("schoolYears"));
-            List<String> classes = normalizeStringList(map.get("classes"));
-            return new TargetStudents(years, classes);
-        } catch (Exception e) {
-            return new TargetStudents(List.of(), List.of());
-        }
-    }
-
-    private List<String> normalizeStringList(Object value) {
-        if (value == null) {
-            return List.of();
-        }
-        if (value instanceof List<?> list) {
-            List<String> out = new ArrayList<>();
-            for (Object o : list) {
-                if (o == null) {
-                    continue;
-                }
-                String s = o instanceof String str ? str.trim() : Objects.toString(o, "").trim();
-                if (!s.isBlank()) {
-                    out.add(s);
-                }
-            }
-            return out;
-        }
-        if (value instanceof String s && !s.isBlank()) {
-            return List.of(s.trim());
-        }
-        return List.of();
-    }
-
-    private List<Course> mapCourseEntitiesToCourseSummaries(List<CourseEntity> entities) {
-        if (entities == null || entities.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Course> out = new ArrayList<>();
-        for (CourseEntity entity : entities) {
-            Course mapped = mapCourseEntityToCourseSummary(entity);
-            if (mapped != null) {
-                out.add(mapped);
-            }
-        }
-        return out;
-    }
-
-    private Course mapCourseEntityToCourseSummary(CourseEntity entity) {
-        if (entity == null || entity.getCourseId() == null || entity.getCourseId().isBlank()) {
-            return null;
-        }
-
-        Course course = new Course();
-        course.setId(entity.getCourseId());
-        course.setTitle(entity.getTitle());
-        course.setDescription(entity.getDescription());
-        course.setLanguage(entity.getLanguage());
-        course.setLogo(entity.getCoverImageUrl());
-
-        List<CourseChapterEntity> chapters = courseChapterRepository
-                .findByCourseIdOrderByChapterNumberAsc(entity.getCourseId());
-        if (chapters != null && !chapters.isEmpty()) {
-            List<Content> contents = new ArrayList<>();
-            for (CourseChapterEntity chapter : chapters) {
-                if (chapter == null || chapter.getChapterNumber() == null) {
-                    continue;
-                }
-                Content content = new Content();
-                content.setOrder(chapter.getChapterNumber());
-                content.setChapter(chapter.getChapterUid());
-                content.setTitle(chapter.getName());
-                contents.add(content);
-            }
-            course.setContents(contents);
-        }
-
-        return course;
+    private CurrentMemberService.CurrentMember resolveCurrentMember(Authentication auth) {
+        return currentMemberService.forAuthentication(auth).orElse(null);
     }
 
     public String findMarkdownFromDatabase(String courseId, Integer chapterOrder, Integer subOrder) {
@@ -350,18 +134,18 @@ public class CourseService {
         if (courseId == null || courseId.isBlank() || chapterOrder == null || subOrder == null) {
             return null;
         }
-        CourseChapterEntity chapter = courseChapterRepository.findByCourseIdAndChapterNumber(courseId, chapterOrder);
-        if (chapter == null || chapter.getId() == null) {
+        CourseSnapshot snapshot = courseSnapshotCache.get(courseId);
+        CourseSnapshot.ChapterSnapshot chapter = snapshot != null ? snapshot.chapter(chapterOrder) : null;
+        if (chapter == null) {
             return null;
         }
-        CourseSubchapterEntity sub = courseSubchapterRepository.findByChapterIdAndSubchapterNumber(chapter.getId(),
-                subOrder);
+        CourseSnapshot.SubchapterSnapshot sub = chapter.subchapter(subOrder);
         if (sub == null) {
             return null;
         }
         SubchapterMarkdownInfo out = new SubchapterMarkdownInfo();
-        out.markdown = sub.getMarkdown();
-        out.updatedAt = sub.getUpdatedAt();
+        out.markdown = sub.markdown();
+        out.updatedAt = sub.updatedAt();
         return out;
     }
 
@@ -375,103 +159,46 @@ public class CourseService {
             return Collections.emptyList();
         }
 
-        List<CourseChapterEntity> chapters;
+        return getAssessmentQuestions(courseSnapshotCache.get(courseId), chapterList);
+    }
+
+    /** Maps the questions of the selected chapters (all chapters when none are selected) of one snapshot. */
+    public List<Question> getAssessmentQuestions(CourseSnapshot snapshot, List<String> chapterList) {
+        if (snapshot == null) {
+            return Collections.emptyList();
+        }
+
+        List<CourseSnapshot.ChapterSnapshot> chapters;
         if (chapterList == null || chapterList.isEmpty()) {
-            chapters = courseChapterRepository.findByCourseIdOrderByChapterNumberAsc(courseId);
+            chapters = snapshot.chapters();
         } else {
-            chapters = new ArrayList<>();
+            Set<Integer> chapterNumbers = new HashSet<>();
             for (String ch : chapterList) {
                 if (ch == null || ch.isBlank()) {
                     continue;
                 }
-                Integer chapterNo;
                 try {
-                    chapterNo = Integer.parseInt(ch.trim());
+                    chapterNumbers.add(Integer.parseInt(ch.trim()));
                 } catch (NumberFormatException e) {
                     continue;
                 }
-                CourseChapterEntity chapter = courseChapterRepository.findByCourseIdAndChapterNumber(courseId,
-                        chapterNo);
-                if (chapter != null) {
+            }
+            chapters = new ArrayList<>();
+            for (CourseSnapshot.ChapterSnapshot chapter : snapshot.chapters()) {
+                if (chapterNumbers.contains(chapter.number())) {
                     chapters.add(chapter);
                 }
             }
         }
 
-        if (chapters == null || chapters.isEmpty()) {
+        if (chapters.isEmpty()) {
             return Collections.emptyList();
         }
 
         List<Question> out = new ArrayList<>();
-        for (CourseChapterEntity chapter : chapters) {
-            if (chapter == null || chapter.getId() == null || chapter.getChapterNumber() == null) {
-                continue;
-            }
-            List<com.barlarlar.myanmyanlearn.entity.CourseQuestionEntity> questions = courseQuestionRepository
-                    .findByChapterIdOrderByQuestionNumberAsc(chapter.getId());
-            if (questions == null || questions.isEmpty()) {
-                continue;
-            }
-            for (var q : questions) {
-                if (q == null || q.getId() == null || q.getQuestionNumber() == null) {
-                    continue;
-                }
-                Question qm = new Question();
-                qm.setCourseId(courseId);
-                qm.setChapterId(String.valueOf(chapter.getChapterNumber()));
-                qm.setQuestionNumber(q.getQuestionNumber());
-                qm.setQuestionContentPath("/assessment/md?courseId=" + courseId + "&ch=" + chapter.getChapterNumber()
-                        + "&q=" + q.getQuestionNumber());
-                if (q.getUpdatedAt() != null) {
-                    qm.setUpdatedAt(q.getUpdatedAt().toString());
-                }
-
-                List<com.barlarlar.myanmyanlearn.entity.CourseQuestionSlotEntity> slots = courseQuestionSlotRepository
-                        .findByQuestionIdOrderBySlotIndexAsc(q.getId());
-                if (slots != null && !slots.isEmpty()) {
-                    List<List<QuestionOption>> slotOptions = new ArrayList<>();
-                    for (var slot : slots) {
-                        if (slot == null || slot.getId() == null) {
-                            continue;
-                        }
-                        List<com.barlarlar.myanmyanlearn.entity.CourseQuestionSlotOptionEntity> opts = courseQuestionSlotOptionRepository
-                                .findByQuestionSlotIdOrderByOptionIndexAsc(slot.getId());
-                        List<QuestionOption> mapped = new ArrayList<>();
-                        if (opts != null) {
-                            for (var opt : opts) {
-                                if (opt == null || opt.getOptionIndex() == null) {
-                                    continue;
-                                }
-                                QuestionOption o = new QuestionOption();
-                                o.setOptionIndex(opt.getOptionIndex());
-                                o.setOptionContent(opt.getOptionContent());
-                                o.setIsCorrect(Boolean.TRUE.equals(opt.getCorrect()));
-                                mapped.add(o);
-                            }
-                        }
-                        slotOptions.add(mapped);
-                    }
-                    qm.setSlotOptions(slotOptions);
-                } else {
-                    List<com.barlarlar.myanmyanlearn.entity.CourseQuestionOptionEntity> opts = courseQuestionOptionRepository
-                            .findByQuestionIdOrderByOptionIndexAsc(q.getId());
-                    List<QuestionOption> mapped = new ArrayList<>();
-                    if (opts != null) {
-                        for (var opt : opts) {
-                            if (opt == null || opt.getOptionIndex() == null) {
-                                continue;
-                            }
-                            QuestionOption o = new QuestionOption();
-                            o.setOptionIndex(opt.getOptionIndex());
-                            o.setOptionContent(opt.getOptionContent());
-                            o.setIsCorrect(Boolean.TRUE.equals(opt.getCorrect()));
-                            mapped.add(o);
-                        }
-                    }
-                    qm.setOptions(mapped);
-                }
-
-                out.add(qm);
+        for (CourseSnapshot.ChapterSnapshot chapter : chapters) {
+            for (CourseSnapshot.QuestionSnapshot q : chapter.questions()) {
+                out.add(mapQuestionSnapshotToQuestion(snapshot.courseId(), chapter, q));
             }
         }
         out.sort((a, b) -> {
@@ -506,98 +233,111 @@ public class CourseService {
 
     public String findAssessmentQuestionMarkdownFromDatabase(String courseId, Integer chapterOrder,
             Integer questionNo) {
-        if (courseId == null || courseId.isBlank() || chapterOrder == null || questionNo == null) {
-            return null;
-        }
-        CourseChapterEntity chapter = courseChapterRepository.findByCourseIdAndChapterNumber(courseId, chapterOrder);
-        if (chapter == null || chapter.getId() == null) {
-            return null;
-        }
-        List<com.barlarlar.myanmyanlearn.entity.CourseQuestionEntity> questions = courseQuestionRepository
-                .findByChapterIdOrderByQuestionNumberAsc(chapter.getId());
-        if (questions == null || questions.isEmpty()) {
-            return null;
-        }
-        for (var q : questions) {
-            if (q != null && q.getQuestionNumber() != null && q.getQuestionNumber().equals(questionNo)) {
-                return q.getQuestionMarkdown();
-            }
-        }
-        return null;
+        CourseSnapshot.QuestionSnapshot q = findQuestionSnapshot(courseId, chapterOrder, questionNo);
+        return q == null ? null : q.questionMarkdown();
     }
 
     public String findAssessmentExplanationMarkdownFromDatabase(String courseId, Integer chapterOrder,
             Integer questionNo) {
+        CourseSnapshot.QuestionSnapshot q = findQuestionSnapshot(courseId, chapterOrder, questionNo);
+        return q == null ? null : q.explanationMarkdown();
+    }
+
+    private CourseSnapshot.QuestionSnapshot findQuestionSnapshot(String courseId, Integer chapterOrder,
+            Integer questionNo) {
         if (courseId == null || courseId.isBlank() || chapterOrder == null || questionNo == null) {
             return null;
         }
-        CourseChapterEntity chapter = courseChapterRepository.findByCourseIdAndChapterNumber(courseId, chapterOrder);
-        if (chapter == null || chapter.getId() == null) {
-            return null;
-        }
-        List<com.barlarlar.myanmyanlearn.entity.CourseQuestionEntity> questions = courseQuestionRepository
-                .findByChapterIdOrderByQuestionNumberAsc(chapter.getId());
-        if (questions == null || questions.isEmpty()) {
-            return null;
-        }
-        for (var q : questions) {
-            if (q != null && q.getQuestionNumber() != null && q.getQuestionNumber().equals(questionNo)) {
-                return q.getExplanationMarkdown();
+        CourseSnapshot snapshot = courseSnapshotCache.get(courseId);
+        CourseSnapshot.ChapterSnapshot chapter = snapshot != null ? snapshot.chapter(chapterOrder) : null;
+        return chapter == null ? null : chapter.question(questionNo);
+    }
+
+    private Question mapQuestionSnapshotToQuestion(String courseId, CourseSnapshot.ChapterSnapshot chapter,
+            CourseSnapshot.QuestionSnapshot q) {
+        Question qm = new Question();
+        qm.setCourseId(courseId);
+        qm.setChapterId(String.valueOf(chapter.number()));
+        qm.setQuestionNumber(q.number());
+        qm.setQuestionContentPath("/assessment/md?courseId=" + courseId + "&ch=" + chapter.number()
+                + "&q=" + q.number());
+        if (q.updatedAt() != null) {
+            qm.setUpdatedAt(q.updatedAt().toString());
+        }
+        if (q.hasSlots()) {
+            List<List<QuestionOption>> slotOptions = new ArrayList<>();
+            for (List<CourseSnapshot.OptionSnapshot> slot : q.slotOptions()) {
+                slotOptions.add(mapOptionSnapshots(slot));
             }
+            qm.setSlotOptions(slotOptions);
+        } else {
+            qm.setOptions(mapOptionSnapshots(q.legacyOptions()));
         }
-        return null;
+        return qm;
     }
 
-    private Course mapCourseEntityToCourseWithContents(CourseEntity entity) {
-        if (entity == null || entity.getCourseId() == null || entity.getCourseId().isBlank()) {
-            return null;
+    private List<QuestionOption> mapOptionSnapshots(List<CourseSnapshot.OptionSnapshot> options) {
+        List<QuestionOption> mapped = new ArrayList<>();
+        for (CourseSnapshot.OptionSnapshot opt : options) {
+            QuestionOption o = new QuestionOption();
+            o.setOptionIndex(opt.optionIndex());
+            o.setOptionContent(opt.optionContent());
+            o.setIsCorrect(opt.correct());
+            mapped.add(o);
         }
+        return mapped;
+    }
 
+    private Course mapSnapshotToCourseHeader(CourseSnapshot snapshot) {
         Course course = new Course();
-        course.setId(entity.getCourseId());
-        course.setTitle(entity.getTitle());
-        course.setDescription(entity.getDescription());
-        course.setLanguage(entity.getLanguage());
-        course.setLogo(entity.getCoverImageUrl());
-
-        List<CourseChapterEntity> chapters = courseChapterRepository
-                .findByCourseIdOrderByChapterNumberAsc(entity.getCourseId());
-        if (chapters == null || chapters.isEmpty()) {
-            course.setContents(Collections.emptyList());
-            return course;
-        }
+        course.setId(snapshot.courseId());
+        course.setTitle(snapshot.title());
+        course.setDescription(snapshot.description());
+        course.setLanguage(snapshot.language());
+        course.setLogo(snapshot.coverImageUrl());
+        return course;
+    }
 
-        List<Content> contents = new ArrayList<>();
-        for (CourseChapterEntity chapter : chapters) {
-            if (chapter == null || chapter.getId() == null || chapter.getChapterNumber() == null) {
-                continue;
+    private Course mapHeaderToCourseSummary(CourseSnapshot.Header header) {
+        Course course = new Course();
+        course.setId(header.courseId());
+        course.setTitle(header.title());
+        course.setDescription(header.description());
+        course.setLanguage(header.language());
+        course.setLogo(header.coverImageUrl());
+        if (!header.chapters().isEmpty()) {
+            List<Content> contents = new ArrayList<>();
+            for (CourseSnapshot.ChapterHeader chapter : header.chapters()) {
+                Content content = new Content();
+                content.setOrder(chapter.number());
+                content.setChapter(chapter.chapterUid());
+                content.setTitle(chapter.name());
+                contents.add(content);
             }
+            course.setContents(contents);
+        }
+        return course;
+    }
 
+    private Course mapSnapshotToCourseWithContents(CourseSnapshot snapshot) {
+        Course course = mapSnapshotToCourseHeader(snapshot);
+        List<Content> contents = new ArrayList<>();
+        for (CourseSnapshot.ChapterSnapshot chapter : snapshot.chapters()) {
             Content content = new Content();
-            content.setOrder(chapter.getChapterNumber());
-            content.setChapter(chapter.getChapterUid());
-            content.setTitle(chapter.getName());
-
-            var subEntities = courseSubchapterRepository.findByChapterIdOrderBySubchapterNumberAsc(chapter.getId());
-            if (subEntities != null && !subEntities.isEmpty()) {
-                List<Subcontent> subs = new ArrayList<>();
-                for (var sub : subEntities) {
-                    if (sub == null || sub.getSubchapterNumber() == null) {
-                        continue;
-                    }
-                    Subcontent s = new Subcontent();
-                    s.setOrder(sub.getSubchapterNumber());
-                    s.setTitle(sub.getName());
-                    s.setMarkdownPath(
-                            "/reader/md?courseId=" + entity.getCourseId() + "&ch=" + chapter.getChapterNumber()
-                                    + "&sc=" + sub.getSubchapterNumber());
-                    subs.add(s);
-                }
-                content.setSubcontents(subs);
-            } else {
-                content.setSubcontents(Collections.emptyList());
+            content.setOrder(chapter.number());
+            content.setChapter(chapter.chapterUid());
+            content.setTitle(chapter.name());
+
+            List<Subcontent> subs = new ArrayList<>();
+            for (CourseSnapshot.SubchapterSnapshot sub : chapter.subchapters()) {
+                Subcontent s = new Subcontent();
+                s.setOrder(sub.number());
+                s.setTitle(sub.name());
+                s.setMarkdownPath("/reader/md?courseId=" + snapshot.courseId() + "&ch=" + chapter.number()
+                        + "&sc=" + sub.number());
+                subs.add(s);
             }
-
+            content.setSubcontents(subs);
             contents.add(content);
         }
         course.setContents(contents);
@@ -0,0 +1,135 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record CourseSnapshot(
+        String courseId,
+        long version,
+        String title,
+        String description,
+        String language,
+        String coverImageUrl,
+        String targetStudentsJson,
+        boolean published,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        List<ChapterSnapshot> chapters) {
+
+    public record ChapterSnapshot(
+            long id,
+            String chapterUid,
+            int number,
+            String name,
+            List<SubchapterSnapshot> subchapters,
+            List<QuestionSnapshot> questions) {
+
+        public SubchapterSnapshot subchapter(int subchapterNumber) {
+            for (SubchapterSnapshot sub : subchapters) {
+                if (sub.number() == subchapterNumber) {
+                    return sub;
+                }
+            }
+            return null;
+        }
+
+        public QuestionSnapshot question(int questionNumber) {
+            for (QuestionSnapshot q : questions) {
+                if (q.number() == questionNumber) {
+                    return q;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record SubchapterSnapshot(
+            long id,
+            String subchapterUid,
+            int number,
+            String name,
+            String markdown,
+            LocalDateTime updatedAt) {
+    }
+
+    public record QuestionSnapshot(
+            long id,
+            String questionUid,
+            int number,
+            String questionMarkdown,
+            String explanationMarkdown,
+            LocalDateTime updatedAt,
+            List<List<OptionSnapshot>> slotOptions,
+            List<OptionSnapshot> legacyOptions) {
+
+        public boolean hasSlots() {
+            return !slotOptions.isEmpty();
+        }
+    }
+
+    public record OptionSnapshot(int optionIndex, String optionContent, boolean correct) {
+    }
+
+    /** Course row and chapter titles only, for listings that never need content. */
+    public record Header(
+            String courseId,
+            String title,
+            String description,
+            String language,
+            String coverImageUrl,
+            String targetStudentsJson,
+            boolean published,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            List<ChapterHeader> chapters) {
+    }
+
+    public record ChapterHeader(String chapterUid, int number, String name) {
+    }
+
+    public ChapterSnapshot chapter(int chapterNumber) {
+        for (ChapterSnapshot chapter : chapters) {
+            if (chapter.number() == chapterNumber) {
+                return chapter;
+            }
+        }
+        return null;
+    }
+
+    public long questionCount() {
+        long count = 0L;
+        for (ChapterSnapshot chapter : chapters) {
+            count += chapter.questions().size();
+        }
+        return count;
+    }
+
+    /** Rough retained heap size, used to bound the snapshot cache. */
+    public long estimatedBytes() {
+        long bytes = 128L + chars(title) + chars(description) + chars(language) + chars(coverImageUrl)
+                + chars(targetStudentsJson);
+        for (ChapterSnapshot chapter : chapters) {
+            bytes += 96L + chars(chapter.chapterUid()) + chars(chapter.name());
+            for (SubchapterSnapshot sub : chapter.subchapters()) {
+                bytes += 96L + chars(sub.subchapterUid()) + chars(sub.name()) + chars(sub.markdown());
+            }
+            for (QuestionSnapshot q : chapter.questions()) {
+                bytes += 128L + chars(q.questionUid()) + chars(q.questionMarkdown()) + chars(q.explanationMarkdown());
+                for (List<OptionSnapshot> slot : q.slotOptions()) {
+                    for (OptionSnapshot opt : slot) {
+                        bytes += 48L + chars(opt.optionContent());
+                    }
+                }
+                for (OptionSnapshot opt : q.legacyOptions()) {
+                    bytes += 48L + chars(opt.optionContent());
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Course text is mostly non-Latin-1, so strings are stored two bytes per char.
+    private static long chars(String s) {
+        return s == null ? 0L : 48L + 2L * s.length();
+    }
+}
@@ -0,0 +1,224 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.barlarlar.myanmyanlearn.entity.CourseEntity;
+import com.barlarlar.myanmyanlearn.repository.CourseRepository;
+
+/**
+ * Immutable per-course snapshots, LRU-evicted once their estimated size
+ * exceeds {@code app.course-cache.max-bytes}, plus a catalog of course headers
+ * for listings. The catalog holds no content, so listing every course never
+ * builds or evicts snapshots.
+ */
+@Service
+public class CourseSnapshotCache {
+    private final CourseRepository courseRepository;
+    private final CourseTreeLoader courseTreeLoader;
+    private final long maxBytes;
+
+    private final Map<String, Cached> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private volatile Catalog catalog;
+
+    private record Cached(CourseSnapshot snapshot, long bytes) {
+    }
+
+    private record Catalog(List<CourseSnapshot.Header> headers, Map<String, CourseSnapshot.Header> byId) {
+    }
+
+    public CourseSnapshotCache(
+            CourseRepository courseRepository,
+            CourseTreeLoader courseTreeLoader,
+            @Value("${app.course-cache.max-bytes:67108864}") long maxBytes) {
+        this.courseRepository = courseRepository;
+        this.courseTreeLoader = courseTreeLoader;
+        this.maxBytes = Math.max(1L, maxBytes);
+    }
+
+    public CourseSnapshot get(String courseId) {
+        if (courseId == null || courseId.isBlank()) {
+            return null;
+        }
+        String id = courseId.trim();
+        CourseSnapshot cached = cached(id);
+        if (cached != null) {
+            return cached;
+        }
+        return getAll(List.of(id)).get(id);
+    }
+
+    public Map<String, CourseSnapshot> getAll(Collection<String> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, CourseSnapshot> out = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String courseId : courseIds) {
+            if (courseId == null || courseId.isBlank()) {
+                continue;
+            }
+            String id = courseId.trim();
+            CourseSnapshot cached = cached(id);
+            if (cached != null) {
+                out.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return out;
+        }
+
+        Map<String, Long> observed = new LinkedHashMap<>();
+        for (String id : missing) {
+            observed.put(id, generation(id));
+        }
+        List<CourseEntity> entities = courseRepository.findAllById(missing);
+        for (CourseSnapshot built : build(entities)) {
+            publish(built, observed.get(built.courseId()));
+            out.put(built.courseId(), built);
+        }
+
+        Map<String, CourseSnapshot> ordered = new LinkedHashMap<>();
+        for (String courseId : courseIds) {
+            String id = courseId != null ? courseId.trim() : "";
+            CourseSnapshot snapshot = out.get(id);
+            if (snapshot == null) {
+                for (CourseSnapshot candidate : out.values()) {
+                    if (candidate.courseId().equalsIgnoreCase(id)) {
+                        snapshot = candidate;
+                        break;
+                    }
+                }
+            }
+            if (snapshot != null) {
+                ordered.put(id, snapshot);
+            }
+        }
+        return ordered;
+    }
+
+    /** Headers of every course, most recently updated first. */
+    public List<CourseSnapshot.Header> catalog() {
+        return loadCatalog().headers();
+    }
+
+    /** Headers of the given courses in the given order; unknown IDs are skipped. */
+    public List<CourseSnapshot.Header> headers(Collection<String> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, CourseSnapshot.Header> byId = loadCatalog().byId();
+        List<CourseSnapshot.Header> out = new ArrayList<>();
+        for (String courseId : courseIds) {
+            CourseSnapshot.Header header = courseId != null ? byId.get(courseId.trim()) : null;
+            if (header != null) {
+                out.add(header);
+            }
+        }
+        return out;
+    }
+
+    private Catalog loadCatalog() {
+        Catalog current = catalog;
+        if (current != null) {
+            return current;
+        }
+        long observedCatalog = catalogGeneration.get();
+        List<CourseSnapshot.Header> headers = courseTreeLoader.loadHeaders(
+                courseRepository.findAll(Sort.by(Sort.Direction.DESC, "updatedAt", "createdAt")));
+        Map<String, CourseSnapshot.Header> byId = new HashMap<>();
+        for (CourseSnapshot.Header header : headers) {
+            byId.put(header.courseId(), header);
+        }
+        Catalog built = new Catalog(List.copyOf(headers), Map.copyOf(byId));
+        synchronized (this) {
+            if (catalogGeneration.get() == observedCatalog) {
+                catalog = built;
+            }
+        }
+        return built;
+    }
+
+    public long catalogGeneration() {
+        return catalogGeneration.get();
+    }
+
+    public void invalidate(String courseId) {
+        evict(courseId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(courseId);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(String courseId) {
+        if (courseId != null && !courseId.isBlank()) {
+            String id = courseId.trim();
+            generations.merge(id, 1L, Long::sum);
+            Cached removed = snapshots.remove(id);
+            if (removed != null) {
+                cachedBytes -= removed.bytes();
+            }
+        }
+        catalogGeneration.incrementAndGet();
+        catalog = null;
+    }
+
+    private synchronized CourseSnapshot cached(String courseId) {
+        Cached cached = snapshots.get(courseId);
+        return cached != null ? cached.snapshot() : null;
+    }
+
+    private long generation(String courseId) {
+        return generations.getOrDefault(courseId, 0L);
+    }
+
+    private synchronized void publish(CourseSnapshot snapshot, Long observedGeneration) {
+        if (snapshot == null || observedGeneration == null) {
+            return;
+        }
+        if (generation(snapshot.courseId()) != observedGeneration) {
+            return;
+        }
+        Cached entry = new Cached(snapshot, snapshot.estimatedBytes());
+        Cached replaced = snapshots.put(snapshot.courseId(), entry);
+        cachedBytes += entry.bytes() - (replaced != null ? replaced.bytes() : 0L);
+        // The newest snapshot always stays, even when it alone exceeds the budget.
+        Iterator<Cached> eldest = snapshots.values().iterator();
+        while (cachedBytes > maxBytes && snapshots.size() > 1) {
+            Cached evicted = eldest.next();
+            eldest.remove();
+            cachedBytes -= evicted.bytes();
+        }
+    }
+
+    private List<CourseSnapshot> build(List<CourseEntity> entities) {
+        return courseTreeLoader.loadSnapshots(entities, versionSequence::incrementAndGet);
+    }
+}
@@ -0,0 +1,210 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.barlarlar.myanmyanlearn.entity.CourseChapterEntity;
+import com.barlarlar.myanmyanlearn.entity.CourseEntity;
+import com.barlarlar.myanmyanlearn.entity.CourseSubchapterEntity;
+import com.barlarlar.myanmyanlearn.repository.CourseChapterRepository;
+import com.barlarlar.myanmyanlearn.repository.CourseSubchapterRepository;
+
+@Service
+@RequiredArgsConstructor
+public class CourseTreeLoader {
+    private final CourseChapterRepository courseChapterRepository;
+    private final CourseSubchapterRepository courseSubchapterRepository;
+    private final QuestionGraphLoader questionGraphLoader;
+
+    public Map<String, List<CourseChapterEntity>> loadChaptersByCourseId(Collection<String> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : courseIds) {
+            if (id != null && !id.isBlank()) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<CourseChapterEntity> chapters = courseChapterRepository
+                .findByCourseIdInOrderByCourseIdAscChapterNumberAsc(new ArrayList<>(ids));
+        Map<String, List<CourseChapterEntity>> out = new LinkedHashMap<>();
+        if (chapters == null) {
+            return out;
+        }
+        for (CourseChapterEntity chapter : chapters) {
+            if (chapter == null || chapter.getCourseId() == null) {
+                continue;
+            }
+            out.computeIfAbsent(chapter.getCourseId(), k -> new ArrayList<>()).add(chapter);
+        }
+        return out;
+    }
+
+    public Map<Long, List<CourseSubchapterEntity>> loadSubchaptersByChapterId(Collection<Long> chapterIds) {
+        if (chapterIds == null || chapterIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : chapterIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<CourseSubchapterEntity> subs = courseSubchapterRepository
+                .findByChapterIdInOrderByChapterIdAscSubchapterNumberAsc(new ArrayList<>(ids));
+        Map<Long, List<CourseSubchapterEntity>> out = new LinkedHashMap<>();
+        if (subs == null) {
+            return out;
+        }
+        for (CourseSubchapterEntity sub : subs) {
+            if (sub == null || sub.getChapterId() == null) {
+                continue;
+            }
+            out.computeIfAbsent(sub.getChapterId(), k -> new ArrayList<>()).add(sub);
+        }
+        return out;
+    }
+
+    /** Course headers with chapter titles for {@code entities}, in the same order, with one chapter query. */
+    public List<CourseSnapshot.Header> loadHeaders(List<CourseEntity> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return List.of();
+        }
+        List<String> courseIds = new ArrayList<>();
+        for (CourseEntity entity : entities) {
+            if (entity != null && entity.getCourseId() != null && !entity.getCourseId().isBlank()) {
+                courseIds.add(entity.getCourseId());
+            }
+        }
+        Map<String, List<CourseChapterEntity>> chaptersByCourse = loadChaptersByCourseId(courseIds);
+
+        List<CourseSnapshot.Header> out = new ArrayList<>();
+        for (CourseEntity entity : entities) {
+            if (entity == null || entity.getCourseId() == null || entity.getCourseId().isBlank()) {
+                continue;
+            }
+            List<CourseSnapshot.ChapterHeader> chapters = new ArrayList<>();
+            for (CourseChapterEntity chapter : chaptersByCourse.getOrDefault(entity.getCourseId(), List.of())) {
+                if (chapter.getChapterNumber() == null) {
+                    continue;
+                }
+                chapters.add(new CourseSnapshot.ChapterHeader(chapter.getChapterUid(), chapter.getChapterNumber(),
+                        chapter.getName()));
+            }
+            out.add(new CourseSnapshot.Header(
+                    entity.getCourseId(),
+                    entity.getTitle(),
+                    entity.getDescription(),
+                    entity.getLanguage(),
+                    entity.getCoverImageUrl(),
+                    entity.getTargetStudentsJson(),
+                    Boolean.TRUE.equals(entity.getPublished()),
+                    entity.getCreatedAt(),
+                    entity.getUpdatedAt(),
+                    List.copyOf(chapters)));
+        }
+        return out;
+    }
+
+    /**
+     * Builds snapshots for {@code entities} with one query per level: chapters,
+     * subchapters, then the question graph of every chapter.
+     */
+    public List<CourseSnapshot> loadSnapshots(List<CourseEntity> entities, LongSupplier versions) {
+        if (entities == null || entities.isEmpty()) {
+            return List.of();
+        }
+        List<String> courseIds = new ArrayList<>();
+        for (CourseEntity entity : entities) {
+            if (entity != null && entity.getCourseId() != null && !entity.getCourseId().isBlank()) {
+                courseIds.add(entity.getCourseId());
+            }
+        }
+        if (courseIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, List<CourseChapterEntity>> chaptersByCourse = loadChaptersByCourseId(courseIds);
+        List<Long> chapterIds = new ArrayList<>();
+        for (List<CourseChapterEntity> chapters : chaptersByCourse.values()) {
+            for (CourseChapterEntity chapter : chapters) {
+                if (chapter.getId() != null && chapter.getChapterNumber() != null) {
+                    chapterIds.add(chapter.getId());
+                }
+            }
+        }
+        Map<Long, List<CourseSubchapterEntity>> subsByChapter = loadSubchaptersByChapterId(chapterIds);
+        Map<Long, List<CourseSnapshot.QuestionSnapshot>> questionsByChapter = questionGraphLoader
+                .loadQuestions(chapterIds);
+
+        List<CourseSnapshot> out = new ArrayList<>();
+        for (CourseEntity entity : entities) {
+            if (entity == null || entity.getCourseId() == null || entity.getCourseId().isBlank()) {
+                continue;
+            }
+            List<CourseSnapshot.ChapterSnapshot> chapters = new ArrayList<>();
+            for (CourseChapterEntity chapter : chaptersByCourse.getOrDefault(entity.getCourseId(), List.of())) {
+                if (chapter.getId() == null || chapter.getChapterNumber() == null) {
+                    continue;
+                }
+                chapters.add(new CourseSnapshot.ChapterSnapshot(
+                        chapter.getId(),
+                        chapter.getChapterUid(),
+                        chapter.getChapterNumber(),
+                        chapter.getName(),
+                        buildSubchapters(subsByChapter.get(chapter.getId())),
+                        questionsByChapter.getOrDefault(chapter.getId(), List.of())));
+            }
+            out.add(new CourseSnapshot(
+                    entity.getCourseId(),
+                    versions.getAsLong(),
+                    entity.getTitle(),
+                    entity.getDescription(),
+                    entity.getLanguage(),
+                    entity.getCoverImageUrl(),
+                    entity.getTargetStudentsJson(),
+                    Boolean.TRUE.equals(entity.getPublished()),
+                    entity.getCreatedAt(),
+                    entity.getUpdatedAt(),
+                    List.copyOf(chapters)));
+        }
+        return out;
+    }
+
+    private List<CourseSnapshot.SubchapterSnapshot> buildSubchapters(List<CourseSubchapterEntity> subs) {
+        if (subs == null || subs.isEmpty()) {
+            return List.of();
+        }
+        List<CourseSnapshot.SubchapterSnapshot> out = new ArrayList<>();
+        for (CourseSubchapterEntity sub : subs) {
+            if (sub.getId() == null || sub.getSubchapterNumber() == null) {
+                continue;
+            }
+            out.add(new CourseSnapshot.SubchapterSnapshot(
+                    sub.getId(),
+                    sub.getSubchapterUid(),
+                    sub.getSubchapterNumber(),
+                    sub.getName(),
+                    sub.getMarkdown(),
+                    sub.getUpdatedAt()));
+        }
+        return List.copyOf(out);
+    }
+}
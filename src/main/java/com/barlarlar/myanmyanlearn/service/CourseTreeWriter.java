@@ -0,0 +1,306 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class CourseTreeWriter {
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ChapterRow(String courseId, String uid, int number, String name) {
+    }
+
+    public record SubchapterRow(long chapterId, String uid, int number, String name, String markdown) {
+    }
+
+    public record QuestionRow(long chapterId, String uid, int number, String questionMarkdown,
+            String explanationMarkdown) {
+    }
+
+    public record SlotRow(long questionId, int slotIndex) {
+    }
+
+    public record SlotOptionRow(long slotId, int optionIndex, String optionContent, boolean correct) {
+    }
+
+    public record ChapterUpdate(long id, String uid, int number, String name) {
+    }
+
+    public record SubchapterUpdate(long id, long chapterId, String uid, int number, String name, String markdown) {
+    }
+
+    public record QuestionUpdate(long id, long chapterId, String uid, int number, String questionMarkdown,
+            String explanationMarkdown) {
+    }
+
+    public int deleteCourseChildren(String courseId) {
+        if (courseId == null || courseId.isBlank()) {
+            return 0;
+        }
+        int rows = 0;
+        rows += jdbcTemplate.update("""
+                delete o from course_question_slot_options o
+                join course_question_slots s on s.id = o.question_slot_id
+                join course_questions q on q.id = s.question_id
+                join course_chapters c on c.id = q.chapter_id
+                where c.course_id = ?""", courseId);
+        rows += jdbcTemplate.update("""
+                delete s from course_question_slots s
+                join course_questions q on q.id = s.question_id
+                join course_chapters c on c.id = q.chapter_id
+                where c.course_id = ?""", courseId);
+        rows += jdbcTemplate.update("""
+                delete o from course_question_options o
+                join course_questions q on q.id = o.question_id
+                join course_chapters c on c.id = q.chapter_id
+                where c.course_id = ?""", courseId);
+        rows += jdbcTemplate.update("""
+                delete q from course_questions q
+                join course_chapters c on c.id = q.chapter_id
+                where c.course_id = ?""", courseId);
+        rows += jdbcTemplate.update("""
+                delete sc from course_subchapters sc
+                join course_chapters c on c.id = sc.chapter_id
+                where c.course_id = ?""", courseId);
+        rows += jdbcTemplate.update("delete from course_chapters where course_id = ?", courseId);
+        return rows;
+    }
+
+    public int deleteChapters(Collection<Long> chapterIds) {
+        return deleteIn("delete from course_chapters where id in (%s)", chapterIds);
+    }
+
+    public int deleteSubchapters(Collection<Long> subchapterIds) {
+        return deleteIn("delete from course_subchapters where id in (%s)", subchapterIds);
+    }
+
+    public int deleteQuestions(Collection<Long> questionIds) {
+        int rows = deleteQuestionAnswers(questionIds);
+        rows += deleteIn("delete from course_questions where id in (%s)", questionIds);
+        return rows;
+    }
+
+    public int deleteQuestionAnswers(Collection<Long> questionIds) {
+        int rows = 0;
+        rows += deleteIn("""
+                delete o from course_question_slot_options o
+                join course_question_slots s on s.id = o.question_slot_id
+                where s.question_id in (%s)""", questionIds);
+        rows += deleteIn("delete from course_question_slots where question_id in (%s)", questionIds);
+        rows += deleteIn("delete from course_question_options where question_id in (%s)", questionIds);
+        return rows;
+    }
+
+    public int updateChapters(List<ChapterUpdate> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return batch("""
+                update course_chapters set chapter_uid = ?, chapter_number = ?, name = ?, updated_at = ?
+                where id = ?""", rows, (ps, row) -> {
+            ps.setString(1, row.uid());
+            ps.setInt(2, row.number());
+            ps.setString(3, row.name());
+            ps.setTimestamp(4, now);
+            ps.setLong(5, row.id());
+        });
+    }
+
+    public int updateSubchapters(List<SubchapterUpdate> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return batch("""
+                update course_subchapters
+                set chapter_id = ?, subchapter_uid = ?, subchapter_number = ?, name = ?, markdown = ?, updated_at = ?
+                where id = ?""", rows, (ps, row) -> {
+            ps.setLong(1, row.chapterId());
+            ps.setString(2, row.uid());
+            ps.setInt(3, row.number());
+            ps.setString(4, row.name());
+            ps.setString(5, row.markdown());
+            ps.setTimestamp(6, now);
+            ps.setLong(7, row.id());
+        });
+    }
+
+    public int updateQuestions(List<QuestionUpdate> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return batch("""
+                update course_questions
+                set chapter_id = ?, question_uid = ?, question_number = ?, question_markdown = ?,
+                explanation_markdown = ?, updated_at = ?
+                where id = ?""", rows, (ps, row) -> {
+            ps.setLong(1, row.chapterId());
+            ps.setString(2, row.uid());
+            ps.setInt(3, row.number());
+            ps.setString(4, row.questionMarkdown());
+            ps.setString(5, row.explanationMarkdown());
+            ps.setTimestamp(6, now);
+            ps.setLong(7, row.id());
+        });
+    }
+
+    public List<Long> insertChapters(List<ChapterRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return insertReturningKeys("""
+                insert into course_chapters (course_id, chapter_uid, chapter_number, name, created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?)""", rows, (ps, row) -> {
+            ps.setString(1, row.courseId());
+            ps.setString(2, row.uid());
+            ps.setInt(3, row.number());
+            ps.setString(4, row.name());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    public int insertSubchapters(List<SubchapterRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return batch("""
+                insert into course_subchapters
+                (chapter_id, subchapter_uid, subchapter_number, name, markdown, created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?, ?)""", rows, (ps, row) -> {
+            ps.setLong(1, row.chapterId());
+            ps.setString(2, row.uid());
+            ps.setInt(3, row.number());
+            ps.setString(4, row.name());
+            ps.setString(5, row.markdown());
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    public List<Long> insertQuestions(List<QuestionRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return insertReturningKeys("""
+                insert into course_questions
+                (chapter_id, question_uid, question_number, question_markdown, explanation_markdown,
+                created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?, ?)""", rows, (ps, row) -> {
+            ps.setLong(1, row.chapterId());
+            ps.setString(2, row.uid());
+            ps.setInt(3, row.number());
+            ps.setString(4, row.questionMarkdown());
+            ps.setString(5, row.explanationMarkdown());
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    public List<Long> insertSlots(List<SlotRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return insertReturningKeys("""
+                insert into course_question_slots (question_id, slot_index, created_at, updated_at)
+                values (?, ?, ?, ?)""", rows, (ps, row) -> {
+            ps.setLong(1, row.questionId());
+            ps.setInt(2, row.slotIndex());
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    public int insertSlotOptions(List<SlotOptionRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return batch("""
+                insert into course_question_slot_options
+                (question_slot_id, option_index, option_content, is_correct, created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?)""", rows, (ps, row) -> {
+            ps.setLong(1, row.slotId());
+            ps.setInt(2, row.optionIndex());
+            ps.setString(3, row.optionContent());
+            ps.setBoolean(4, row.correct());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    private int deleteIn(String sqlTemplate, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> list = new ArrayList<>(ids);
+        int rows = 0;
+        for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = list.subList(from, Math.min(list.size(), from + IN_CHUNK_SIZE));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            rows += jdbcTemplate.update(String.format(sqlTemplate, placeholders), chunk.toArray());
+        }
+        return rows;
+    }
+
+    private <T> int batch(String sql, List<T> rows, RowBinder<T> binder) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, setter(rows, binder));
+        return sum(counts, rows.size());
+    }
+
+    private <T> List<Long> insertReturningKeys(String sql, List<T> rows, RowBinder<T> binder) {
+        if (rows == null || rows.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                setter(rows, binder), keyHolder);
+        List<Map<String, Object>> keyList = keyHolder.getKeyList();
+        if (keyList.size() != rows.size()) {
+            throw new IllegalStateException(
+                    "Expected " + rows.size() + " generated keys but received " + keyList.size() + ".");
+        }
+        List<Long> ids = new ArrayList<>(keyList.size());
+        for (Map<String, Object> keys : keyList) {
+            Object key = keys.isEmpty() ? null : keys.values().iterator().next();
+            if (!(key instanceof Number n)) {
+                throw new IllegalStateException("Missing generated key.");
+            }
+            ids.add(n.longValue());
+        }
+        return ids;
+    }
+
+    private static <T> BatchPreparedStatementSetter setter(List<T> rows, RowBinder<T> binder) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                binder.bind(ps, rows.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        };
+    }
+
+    private static int sum(int[] counts, int fallback) {
+        int total = 0;
+        for (int c : counts) {
+            if (c < 0) {
+                return fallback;
+            }
+            total += c;
+        }
+        return total;
+    }
+}
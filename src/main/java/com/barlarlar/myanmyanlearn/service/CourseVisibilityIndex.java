@@ -0,0 +1,188 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Service
+@RequiredArgsConstructor
+public class CourseVisibilityIndex {
+    private static final String KEY_SEPARATOR = "\u0000";
+
+    private final ObjectMapper objectMapper;
+    private final CourseSnapshotCache courseSnapshotCache;
+
+    private final Map<String, CompiledTargets> compiledTargets = new ConcurrentHashMap<>();
+    private volatile Index index;
+
+    private record CompiledTargets(String json, Set<String> schoolYears, Set<String> classes) {
+
+        boolean allows(String memberYear, String memberClass) {
+            if (!schoolYears.isEmpty() && (memberYear == null || !schoolYears.contains(memberYear))) {
+                return false;
+            }
+            return classes.isEmpty() || (memberClass != null && classes.contains(memberClass));
+        }
+    }
+
+    private record Index(
+            long catalogGeneration,
+            Map<String, Integer> positions,
+            List<String> unrestricted,
+            Map<String, List<String>> byYear,
+            Map<String, List<String>> byClass,
+            Map<String, List<String>> byYearAndClass,
+            Map<String, List<String>> resolved) {
+    }
+
+    public List<String> visibleCourseIds(CurrentMemberService.CurrentMember member) {
+        Index current = currentIndex();
+        String memberYear = member != null ? normalize(member.schoolYear()) : null;
+        String memberClass = member != null ? normalize(member.currentClass()) : null;
+        String key = Objects.toString(memberYear, "") + KEY_SEPARATOR + Objects.toString(memberClass, "");
+        return current.resolved().computeIfAbsent(key, k -> resolve(current, memberYear, memberClass));
+    }
+
+    public boolean canAccess(CourseSnapshot snapshot, CurrentMemberService.CurrentMember member) {
+        if (snapshot == null || !snapshot.published()) {
+            return false;
+        }
+        String memberYear = member != null ? normalize(member.schoolYear()) : null;
+        String memberClass = member != null ? normalize(member.currentClass()) : null;
+        return compile(snapshot.courseId(), snapshot.targetStudentsJson()).allows(memberYear, memberClass);
+    }
+
+    private Index currentIndex() {
+        Index current = index;
+        long generation = courseSnapshotCache.catalogGeneration();
+        if (current != null && current.catalogGeneration() == generation) {
+            return current;
+        }
+        Index rebuilt = buildIndex(generation, courseSnapshotCache.catalog());
+        synchronized (this) {
+            if (index == null || index.catalogGeneration() <= generation) {
+                index = rebuilt;
+            }
+        }
+        return rebuilt;
+    }
+
+    private Index buildIndex(long generation, Collection<CourseSnapshot.Header> catalog) {
+        Map<String, Integer> positions = new HashMap<>();
+        List<String> unrestricted = new ArrayList<>();
+        Map<String, List<String>> byYear = new HashMap<>();
+        Map<String, List<String>> byClass = new HashMap<>();
+        Map<String, List<String>> byYearAndClass = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (CourseSnapshot.Header header : catalog) {
+            if (header == null) {
+                continue;
+            }
+            seen.add(header.courseId());
+            if (!header.published()) {
+                continue;
+            }
+            String courseId = header.courseId();
+            positions.put(courseId, positions.size());
+            CompiledTargets targets = compile(courseId, header.targetStudentsJson());
+            if (targets.schoolYears().isEmpty() && targets.classes().isEmpty()) {
+                unrestricted.add(courseId);
+            } else if (targets.classes().isEmpty()) {
+                for (String year : targets.schoolYears()) {
+                    byYear.computeIfAbsent(year, k -> new ArrayList<>()).add(courseId);
+                }
+            } else if (targets.schoolYears().isEmpty()) {
+                for (String clazz : targets.classes()) {
+                    byClass.computeIfAbsent(clazz, k -> new ArrayList<>()).add(courseId);
+                }
+            } else {
+                for (String year : targets.schoolYears()) {
+                    for (String clazz : targets.classes()) {
+                        byYearAndClass.computeIfAbsent(year + KEY_SEPARATOR + clazz, k -> new ArrayList<>())
+                                .add(courseId);
+                    }
+                }
+            }
+        }
+        compiledTargets.keySet().retainAll(seen);
+        return new Index(generation, positions, List.copyOf(unrestricted), byYear, byClass, byYearAndClass,
+                new ConcurrentHashMap<>());
+    }
+
+    private List<String> resolve(Index current, String memberYear, String memberClass) {
+        Set<String> ids = new LinkedHashSet<>(current.unrestricted());
+        if (memberYear != null) {
+            ids.addAll(current.byYear().getOrDefault(memberYear, List.of()));
+        }
+        if (memberClass != null) {
+            ids.addAll(current.byClass().getOrDefault(memberClass, List.of()));
+        }
+        if (memberYear != null && memberClass != null) {
+            ids.addAll(current.byYearAndClass().getOrDefault(memberYear + KEY_SEPARATOR + memberClass, List.of()));
+        }
+        List<String> out = new ArrayList<>(ids);
+        out.sort((a, b) -> Integer.compare(current.positions().get(a), current.positions().get(b)));
+        return List.copyOf(out);
+    }
+
+    private CompiledTargets compile(String courseId, String json) {
+        CompiledTargets cached = compiledTargets.get(courseId);
+        if (cached != null && Objects.equals(cached.json(), json)) {
+            return cached;
+        }
+        CompiledTargets compiled = parseTargets(json);
+        compiledTargets.put(courseId, compiled);
+        return compiled;
+    }
+
+    private CompiledTargets parseTargets(String json) {
+        if (json == null || json.isBlank() || json.trim().equalsIgnoreCase("null")) {
+            return new CompiledTargets(json, Set.of(), Set.of());
+        }
+        try {
+            Map<String, Object> map = objectMapper.readValue(json.trim(), new TypeReference<Map<String, Object>>() {
+            });
+            return new CompiledTargets(json, normalizeValues(map.get("schoolYears")),
+                    normalizeValues(map.get("classes")));
+        } catch (Exception e) {
+            return new CompiledTargets(json, Set.of(), Set.of());
+        }
+    }
+
+    private Set<String> normalizeValues(Object value) {
+        Set<String> out = new HashSet<>();
+        if (value instanceof List<?> list) {
+            for (Object o : list) {
+                String v = normalize(o == null ? null : Objects.toString(o, ""));
+                if (v != null) {
+                    out.add(v);
+                }
+            }
+        } else if (value instanceof String s) {
+            String v = normalize(s);
+            if (v != null) {
+                out.add(v);
+            }
+        }
+        return Set.copyOf(out);
+    }
+
+    private static String normalize(String value) {
+        String v = value != null ? value.trim() : "";
+        return v.isBlank() ? null : v.toLowerCase(Locale.ROOT);
+    }
+}
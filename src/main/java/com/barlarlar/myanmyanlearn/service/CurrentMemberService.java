@@ -0,0 +1,164 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.barlarlar.myanmyanlearn.entity.Member;
+import com.barlarlar.myanmyanlearn.entity.Role;
+import com.barlarlar.myanmyanlearn.repository.MemberRepository;
+import com.barlarlar.myanmyanlearn.repository.RoleRepository;
+
+@Service
+public class CurrentMemberService {
+    private static final String REQUEST_ATTRIBUTE_PREFIX = CurrentMemberService.class.getName() + ".";
+    private static final int MAX_SHARED_ENTRIES = 10_000;
+
+    private final MemberRepository memberRepository;
+    private final RoleRepository roleRepository;
+    private final long ttlMillis;
+
+    private final Map<String, SharedEntry> shared = new ConcurrentHashMap<>();
+
+    public record CurrentMember(
+            String userId,
+            String firstName,
+            String lastName,
+            String email,
+            String profileImage,
+            Boolean emailVerified,
+            Boolean active,
+            String currentClass,
+            String schoolYear,
+            List<String> roles) {
+    }
+
+    private record SharedEntry(Optional<CurrentMember> member, long expiresAt) {
+    }
+
+    public CurrentMemberService(
+            MemberRepository memberRepository,
+            RoleRepository roleRepository,
+            @Value("${app.current-member.ttl-seconds:0}") long ttlSeconds) {
+        this.memberRepository = memberRepository;
+        this.roleRepository = roleRepository;
+        this.ttlMillis = Math.max(0L, ttlSeconds) * 1000L;
+    }
+
+    public Optional<CurrentMember> current() {
+        Authentication auth = SecurityContextHolder.getContext() != null
+                ? SecurityContextHolder.getContext().getAuthentication()
+                : null;
+        return forAuthentication(auth);
+    }
+
+    public Optional<CurrentMember> forAuthentication(Authentication auth) {
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
+            return Optional.empty();
+        }
+        return find(auth.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<CurrentMember> find(String userId) {
+        if (userId == null || userId.isBlank()) {
+            return Optional.empty();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String attributeName = REQUEST_ATTRIBUTE_PREFIX + userId;
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof Optional<?> opt) {
+                return (Optional<CurrentMember>) opt;
+            }
+        }
+
+        Optional<CurrentMember> resolved = findShared(userId);
+        if (attributes != null) {
+            attributes.setAttribute(attributeName, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolved;
+    }
+
+    public void evict(String userId) {
+        if (userId == null || userId.isBlank()) {
+            return;
+        }
+        evictNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(userId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String userId) {
+        shared.remove(userId);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(REQUEST_ATTRIBUTE_PREFIX + userId, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private Optional<CurrentMember> findShared(String userId) {
+        if (ttlMillis <= 0L) {
+            return load(userId);
+        }
+        long now = System.currentTimeMillis();
+        SharedEntry entry = shared.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.member();
+        }
+        Optional<CurrentMember> loaded = load(userId);
+        if (shared.size() >= MAX_SHARED_ENTRIES) {
+            shared.values().removeIf(e -> e.expiresAt() <= now);
+        }
+        if (shared.size() < MAX_SHARED_ENTRIES) {
+            shared.put(userId, new SharedEntry(loaded, now + ttlMillis));
+        }
+        return loaded;
+    }
+
+    private Optional<CurrentMember> load(String userId) {
+        Member member;
+        try {
+            member = memberRepository.findById(userId).orElse(null);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+        if (member == null) {
+            return Optional.empty();
+        }
+        List<String> roles = new ArrayList<>();
+        for (Role role : roleRepository.findByUserId(userId)) {
+            if (role != null && role.getRole() != null) {
+                roles.add(role.getRole());
+            }
+        }
+        return Optional.of(new CurrentMember(
+                member.getUserId(),
+                member.getFirstName(),
+                member.getLastName(),
+                member.getEmail(),
+                member.getProfileImage(),
+                member.getEmailVerified(),
+                member.getActive(),
+                member.getCurrentClass(),
+                member.getSchoolYear(),
+                List.copyOf(roles)));
+    }
+}
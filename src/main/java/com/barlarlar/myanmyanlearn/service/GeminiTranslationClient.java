@@ -0,0 +1,395 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+/**
+ * Google AI Studio (Gemini) HTTP client. Callers go through
+ * {@link TranslationGateway}, which applies concurrency limits, deadlines and
+ * the circuit breaker around these calls.
+ */
+@Slf4j
+@Service
+public class GeminiTranslationClient {
+    // Bump whenever the translateMarkdown prompt changes so cached translations are not reused.
+    public static final int PROMPT_VERSION = 1;
+
+    // Closes stream bodies that outlive their deadline; a blocked read then fails instead of hanging.
+    private static final ScheduledExecutorService STREAM_WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "gemini-stream-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private volatile String cachedModelName;
+
+    public record Completion(String text, long promptTokens, long outputTokens) {
+    }
+
+    public GeminiTranslationClient(
+            ObjectMapper objectMapper,
+            @Value("${google.studio.api-key:}") String apiKey) {
+        this.objectMapper = objectMapper;
+        this.apiKey = apiKey != null ? apiKey.trim() : "";
+    }
+
+    public boolean isConfigured() {
+        return !apiKey.isEmpty();
+    }
+
+    private String requireApiKey() throws IOException {
+        if (apiKey.isEmpty()) {
+            throw new IOException("Translation API key is not configured.");
+        }
+        return apiKey;
+    }
+
+    public static String normalizeLang(String value) {
+        String v = value == null ? "" : value.trim().toLowerCase();
+        if (v.isEmpty()) {
+            return null;
+        }
+        if ("jp".equals(v)) {
+            return "ja";
+        }
+        if ("mm".equals(v)) {
+            return "my";
+        }
+        return v;
+    }
+
+    public static String languageLabel(String langCode) {
+        if (langCode == null || langCode.isBlank()) {
+            return "";
+        }
+        String v = langCode.trim().toLowerCase();
+        if ("my".equals(v)) {
+            return "Burmese (Myanmar)";
+        }
+        if ("ms".equals(v)) {
+            return "Malay";
+        }
+        if ("ja".equals(v)) {
+            return "Japanese";
+        }
+        if ("en".equals(v)) {
+            return "English";
+        }
+        return v;
+    }
+
+    public Completion translateMarkdown(String sourceLang, String targetLang, String text, Duration timeout)
+            throws Exception {
+        String apiKey = requireApiKey();
+        String modelName = getGenerateContentModel(apiKey, timeout);
+        String url = "https://generativelanguage.googleapis.com/v1beta/" + modelName + ":generateContent?key="
+                + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(translateRequestBody(sourceLang, targetLang, text),
+                        StandardCharsets.UTF_8))
+                .build();
+        HttpResponse<String> resp = httpClient.send(request,
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            throw new IOException("HTTP " + resp.statusCode() + " " + safeTrim(resp.body(), 300));
+        }
+        JsonNode data = objectMapper.readTree(resp.body());
+        JsonNode partsNode = data.path("candidates").path(0).path("content").path("parts");
+        if (!partsNode.isArray()) {
+            throw new IOException("Unexpected response from translation service.");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (JsonNode p : partsNode) {
+            String t = p.path("text").asText("");
+            if (!t.isEmpty()) {
+                sb.append(t);
+            }
+        }
+        String out = sb.toString().trim();
+        if (out.isEmpty()) {
+            throw new IOException("Empty translation result.");
+        }
+        return completion(out, data);
+    }
+
+    /**
+     * Same prompt as {@link #translateMarkdown}, but read from
+     * {@code streamGenerateContent} as server-sent events so text can be
+     * forwarded as soon as each candidate part arrives. The timeout bounds the
+     * whole call, body included: a stream still open at the deadline is closed
+     * and the call fails with {@link HttpTimeoutException}.
+     */
+    public Completion streamTranslateMarkdown(String sourceLang, String targetLang, String text,
+            Duration timeout, MarkdownTranslationService.DeltaSink onDelta) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String apiKey = requireApiKey();
+        String modelName = getGenerateContentModel(apiKey, timeout);
+        String url = "https://generativelanguage.googleapis.com/v1beta/" + modelName
+                + ":streamGenerateContent?alt=sse&key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(translateRequestBody(sourceLang, targetLang, text),
+                        StandardCharsets.UTF_8))
+                .build();
+        HttpResponse<InputStream> resp = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        InputStream body = resp.body();
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = STREAM_WATCHDOG.schedule(() -> {
+            expired.set(true);
+            try {
+                body.close();
+            } catch (IOException ignored) {
+            }
+        }, Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        StringBuilder sb = new StringBuilder();
+        JsonNode last = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+                StringBuilder error = new StringBuilder();
+                String line;
+                for (int i = 0; i < 20 && (line = reader.readLine()) != null; i++) {
+                    error.append(line).append('\n');
+                }
+                throw new IOException("HTTP " + resp.statusCode() + " " + safeTrim(error.toString(), 300));
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                JsonNode data = objectMapper.readTree(line.substring(5).trim());
+                last = data;
+                for (JsonNode p : data.path("candidates").path(0).path("content").path("parts")) {
+                    String t = p.path("text").asText("");
+                    if (sb.isEmpty()) {
+                        t = t.stripLeading();
+                    }
+                    if (!t.isEmpty()) {
+                        sb.append(t);
+                        onDelta.accept(t);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (expired.get()) {
+                throw streamTimeout(timeout);
+            }
+            throw e;
+        } finally {
+            watchdog.cancel(false);
+        }
+        if (expired.get()) {
+            throw streamTimeout(timeout);
+        }
+        String out = sb.toString().trim();
+        if (out.isEmpty()) {
+            throw new IOException("Empty translation result.");
+        }
+        return completion(out, last);
+    }
+
+    private static HttpTimeoutException streamTimeout(Duration timeout) {
+        return new HttpTimeoutException("Translation stream exceeded " + timeout.toMillis() + " ms.");
+    }
+
+    // Gemini reports token usage on the response (the final event when streaming).
+    private static Completion completion(String text, JsonNode data) {
+        JsonNode usage = data != null ? data.path("usageMetadata") : null;
+        if (usage == null || usage.isMissingNode()) {
+            return new Completion(text, 0L, 0L);
+        }
+        return new Completion(text, usage.path("promptTokenCount").asLong(0L),
+                usage.path("candidatesTokenCount").asLong(0L));
+    }
+
+    private String translateRequestBody(String sourceLang, String targetLang, String text) {
+        String sourceLabel = sourceLang == null ? null : languageLabel(sourceLang);
+        String targetLabel = languageLabel(targetLang);
+        String prompt = (sourceLang == null || sourceLang.isBlank())
+                ? "Translate the following Markdown to " + targetLabel + ". "
+                : "Translate the following Markdown from " + sourceLabel + " to " + targetLabel + ". ";
+        prompt += "Keep technical terms in English (e.g., programming keywords, API names, product names, "
+                + "identifiers, and code symbols). "
+                + "Do NOT translate or change enumerations like 'ア', 'イ', 'ウ', 'エ', 'オ' or corresponding numbering (e.g., maintain '1.', '2.', 'A.', 'B.', etc.). "
+                + "Preserve Markdown formatting, links, code blocks, and inline code. "
+                + "Do NOT render HTML/CSS code. Keep all code blocks explicitly wrapped in Markdown code fences (```). "
+                + "Return only the translated Markdown.\n\n" + text;
+
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode contents = body.putArray("contents");
+        ObjectNode content = contents.addObject();
+        content.put("role", "user");
+        ArrayNode parts = content.putArray("parts");
+        parts.addObject().put("text", prompt);
+        return body.toString();
+    }
+
+    private String getGenerateContentModel(String apiKey, Duration timeout) throws Exception {
+        String cached = cachedModelName;
+        if (cached != null && !cached.isBlank()) {
+            return cached;
+        }
+        String url = "https://generativelanguage.googleapis.com/v1beta/models?key="
+                + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .GET()
+                .build();
+        HttpResponse<String> resp = httpClient.send(request,
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            throw new IOException("HTTP " + resp.statusCode() + " " + safeTrim(resp.body(), 300));
+        }
+        JsonNode data = objectMapper.readTree(resp.body());
+        JsonNode models = data.path("models");
+        if (!models.isArray()) {
+            throw new IOException("No models available.");
+        }
+        List<String> preferred = List.of(
+                "models/gemini-1.5-flash",
+                "models/gemini-1.5-flash-002",
+                "models/gemini-1.5-flash-001",
+                "models/gemini-1.5-pro",
+                "models/gemini-1.5-pro-002",
+                "models/gemini-1.5-pro-001",
+                "models/gemini-pro");
+        String picked = null;
+        for (String p : preferred) {
+            if (hasGenerateContentModel(models, p)) {
+                picked = p;
+                break;
+            }
+        }
+        if (picked == null) {
+            for (JsonNode m : models) {
+                String name = m.path("name").asText("");
+                if (name.isEmpty()) {
+                    continue;
+                }
+                JsonNode methods = m.path("supportedGenerationMethods");
+                if (methods.isArray()) {
+                    for (JsonNode method : methods) {
+                        if ("generateContent".equals(method.asText(""))) {
+                            picked = name;
+                            break;
+                        }
+                    }
+                }
+                if (picked != null) {
+                    break;
+                }
+            }
+        }
+        if (picked == null) {
+            throw new IOException("No generateContent-capable model available.");
+        }
+        cachedModelName = picked;
+        return picked;
+    }
+
+    private boolean hasGenerateContentModel(JsonNode models, String name) {
+        for (JsonNode m : models) {
+            if (!name.equals(m.path("name").asText(""))) {
+                continue;
+            }
+            JsonNode methods = m.path("supportedGenerationMethods");
+            if (!methods.isArray()) {
+                return false;
+            }
+            for (JsonNode method : methods) {
+                if ("generateContent".equals(method.asText(""))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return false;
+    }
+
+    private static String safeTrim(String value, int max) {
+        if (value == null) {
+            return "";
+        }
+        String v = value.trim();
+        if (v.length() <= max) {
+            return v;
+        }
+        return v.substring(0, max);
+    }
+
+    public Completion generateText(String prompt, Duration timeout) throws Exception {
+        String apiKey = requireApiKey();
+        String modelName = getGenerateContentModel(apiKey, timeout);
+        String url = "https://generativelanguage.googleapis.com/v1beta/" + modelName + ":generateContent?key="
+                + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
+
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode contents = body.putArray("contents");
+        ObjectNode content = contents.addObject();
+        content.put("role", "user");
+        ArrayNode parts = content.putArray("parts");
+        parts.addObject().put("text", prompt);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                .build();
+        HttpResponse<String> resp = httpClient.send(request,
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+
+        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            log.warn("Google AI API error: {} {}", resp.statusCode(), safeTrim(resp.body(), 300));
+            throw new IOException("HTTP " + resp.statusCode());
+        }
+
+        try {
+            JsonNode data = objectMapper.readTree(resp.body());
+            JsonNode partsNode = data.path("candidates").path(0).path("content").path("parts");
+            StringBuilder sb = new StringBuilder();
+            if (partsNode.isArray()) {
+                for (JsonNode p : partsNode) {
+                    sb.append(p.path("text").asText(""));
+                }
+            }
+            return completion(sb.toString(), data);
+        } catch (Exception e) {
+            log.warn("Failed to parse Google AI response: {}", safeTrim(resp.body(), 300));
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits markdown into translation-sized chunks on block boundaries. Fenced
+ * code blocks are never split, and a heading starts a new chunk once the
+ * current one is reasonably full. Concatenating every {@code text + separator}
+ * reproduces the input exactly.
+ */
+final class MarkdownChunker {
+
+    record Chunk(String text, String separator) {
+    }
+
+    private MarkdownChunker() {
+    }
+
+    static List<Chunk> split(String markdown, int maxChars) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (markdown == null || markdown.isEmpty()) {
+            return chunks;
+        }
+        int leading = 0;
+        while (leading < markdown.length() && Character.isWhitespace(markdown.charAt(leading))) {
+            leading++;
+        }
+        if (leading == markdown.length()) {
+            chunks.add(new Chunk("", markdown));
+            return chunks;
+        }
+        if (leading > 0) {
+            chunks.add(new Chunk("", markdown.substring(0, leading)));
+        }
+
+        int chunkStart = leading;
+        int chunkEnd = leading;
+        String fence = null;
+        boolean blockStarted = false;
+        int pos = leading;
+        while (pos < markdown.length()) {
+            int next = markdown.indexOf('\n', pos);
+            int end = next < 0 ? markdown.length() : next + 1;
+            String line = markdown.substring(pos, end);
+            String marker = fenceMarker(line);
+            if (fence != null) {
+                if (marker != null && marker.charAt(0) == fence.charAt(0) && marker.length() >= fence.length()
+                        && line.strip().length() == marker.length()) {
+                    fence = null;
+                }
+                chunkEnd = end;
+                pos = end;
+                continue;
+            }
+            if (line.isBlank()) {
+                blockStarted = false;
+                pos = end;
+                continue;
+            }
+            if (!blockStarted) {
+                // A new block begins here; decide whether it opens a new chunk.
+                int size = chunkEnd - chunkStart;
+                boolean heading = line.stripLeading().startsWith("#");
+                if (size > 0 && ((heading && size >= maxChars / 3)
+                        || size + blockLength(markdown, pos) > maxChars)) {
+                    add(chunks, markdown, chunkStart, chunkEnd, pos);
+                    chunkStart = pos;
+                }
+                blockStarted = true;
+            }
+            if (marker != null) {
+                fence = marker;
+            }
+            chunkEnd = end;
+            pos = end;
+        }
+        add(chunks, markdown, chunkStart, chunkEnd, markdown.length());
+        return chunks;
+    }
+
+    private static void add(List<Chunk> chunks, String markdown, int start, int end, int separatorEnd) {
+        int textEnd = end;
+        while (textEnd > start && Character.isWhitespace(markdown.charAt(textEnd - 1))) {
+            textEnd--;
+        }
+        chunks.add(new Chunk(markdown.substring(start, textEnd), markdown.substring(textEnd, separatorEnd)));
+    }
+
+    /** Length of the block starting at {@code start}, treating a fenced code block as one block. */
+    private static int blockLength(String markdown, int start) {
+        String fence = null;
+        int pos = start;
+        while (pos < markdown.length()) {
+            int next = markdown.indexOf('\n', pos);
+            int end = next < 0 ? markdown.length() : next + 1;
+            String line = markdown.substring(pos, end);
+            String marker = fenceMarker(line);
+            if (fence != null) {
+                if (marker != null && marker.charAt(0) == fence.charAt(0) && marker.length() >= fence.length()
+                        && line.strip().length() == marker.length()) {
+                    fence = null;
+                }
+            } else if (line.isBlank()) {
+                return pos - start;
+            } else if (marker != null) {
+                fence = marker;
+            }
+            pos = end;
+        }
+        return pos - start;
+    }
+
+    private static String fenceMarker(String line) {
+        int indent = 0;
+        while (indent < line.length() && indent < 4 && line.charAt(indent) == ' ') {
+            indent++;
+        }
+        if (indent > 3 || indent >= line.length()) {
+            return null;
+        }
+        char c = line.charAt(indent);
+        if (c != '`' && c != '~') {
+            return null;
+        }
+        int run = indent;
+        while (run < line.length() && line.charAt(run) == c) {
+            run++;
+        }
+        return run - indent >= 3 ? String.valueOf(c).repeat(run - indent) : null;
+    }
+}
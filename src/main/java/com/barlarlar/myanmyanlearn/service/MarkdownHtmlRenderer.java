@@ -0,0 +1,440 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.autolink.AutolinkExtension;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.ext.task.list.items.TaskListItemsExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.HtmlBlock;
+import org.commonmark.node.HtmlInline;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.safety.Safelist;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Renders course markdown to sanitized HTML in the reader's markdown-it dialect
+ * (GFM tables, task lists, autolinks, {@code ~~strike~~}, {@code ~sub~},
+ * {@code ^sup^}, {@code $...$} / {@code $$...$$} math). Fenced code keeps its
+ * {@code language-*} class for highlight.js and math is emitted as
+ * {@code math-inline} / {@code math-display} elements holding the TeX source
+ * for KaTeX, since neither engine exists on the JVM.
+ *
+ * <p>
+ * The reader runs markdown-it with raw HTML enabled, which a sanitized
+ * rendering cannot reproduce, so markdown containing raw HTML is not rendered
+ * and the browser keeps rendering it itself.
+ *
+ * <p>
+ * A token that lands inside an attribute value, such as an image's alt text or
+ * a link reference title, is restored as escaped plain text.
+ */
+@Service
+public class MarkdownHtmlRenderer {
+    private static final String BASE_URI = "http://localhost/";
+    private static final char TOKEN_START = '\uE000';
+    private static final char TOKEN_END = '\uE001';
+    private static final Pattern BLOCK_TOKEN = Pattern.compile("<p>" + TOKEN_START + "(\\d+)" + TOKEN_END + "</p>");
+    private static final Pattern INLINE_TOKEN = Pattern.compile(TOKEN_START + "(\\d+)" + TOKEN_END);
+
+    private final Parser parser;
+    private final HtmlRenderer renderer;
+    private final HtmlRenderer hardBreakRenderer;
+    private final Safelist safelist;
+    private final Document.OutputSettings outputSettings;
+
+    private enum TokenKind {
+        MATH_INLINE,
+        MATH_DISPLAY,
+        SUB,
+        SUP
+    }
+
+    private record InlineToken(TokenKind kind, String text) {
+    }
+
+    public MarkdownHtmlRenderer() {
+        List<Extension> extensions = List.of(
+                TablesExtension.create(),
+                StrikethroughExtension.builder().requireTwoTildes(true).build(),
+                TaskListItemsExtension.create(),
+                AutolinkExtension.create());
+        this.parser = Parser.builder().extensions(extensions).build();
+        this.renderer = HtmlRenderer.builder().extensions(extensions).build();
+        this.hardBreakRenderer = HtmlRenderer.builder().extensions(extensions).softbreak("<br />\n").build();
+        this.safelist = Safelist.relaxed()
+                .addTags("del", "s", "hr", "input", "details", "summary", "mark", "kbd", "figure", "figcaption")
+                .addAttributes(":all", "class")
+                .addAttributes("input", "type", "checked", "disabled")
+                .addAttributes("th", "align")
+                .addAttributes("td", "align")
+                .addProtocols("img", "src", "data")
+                .preserveRelativeLinks(true);
+        this.outputSettings = new Document.OutputSettings().prettyPrint(false);
+    }
+
+    /** Returns the sanitized HTML, or {@code null} when the markdown contains raw HTML. */
+    public String render(String markdown) {
+        return render(markdown, false);
+    }
+
+    /**
+     * @param hardBreaks render soft line breaks as {@code <br>}, matching the
+     *                   assessment pages' markdown-it configuration
+     */
+    public String render(String markdown, boolean hardBreaks) {
+        if (markdown == null || markdown.isEmpty()) {
+            return "";
+        }
+        List<InlineToken> tokens = new ArrayList<>();
+        String source = extractTokens(markdown, tokens);
+        Node document = parser.parse(source);
+        if (containsRawHtml(document)) {
+            return null;
+        }
+        String html = Jsoup.clean((hardBreaks ? hardBreakRenderer : renderer).render(document), BASE_URI, safelist,
+                outputSettings);
+        if (tokens.isEmpty()) {
+            return html;
+        }
+        html = replaceTokens(BLOCK_TOKEN, html, tokens, true);
+        return replaceTokens(INLINE_TOKEN, html, tokens, false);
+    }
+
+    private static boolean containsRawHtml(Node document) {
+        boolean[] found = new boolean[1];
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(HtmlBlock htmlBlock) {
+                found[0] = true;
+            }
+
+            @Override
+            public void visit(HtmlInline htmlInline) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    private static String replaceTokens(Pattern pattern, String html, List<InlineToken> tokens, boolean block) {
+        Matcher m = pattern.matcher(html);
+        StringBuilder out = new StringBuilder(html.length());
+        TagScanner tags = new TagScanner(html);
+        while (m.find()) {
+            int index = Integer.parseInt(m.group(1));
+            if (index >= tokens.size()) {
+                m.appendReplacement(out, Matcher.quoteReplacement(m.group()));
+                continue;
+            }
+            InlineToken token = tokens.get(index);
+            String replacement;
+            if (tags.insideTag(m.start())) {
+                replacement = HtmlUtils.htmlEscape(token.text());
+            } else if (token.kind() == TokenKind.MATH_DISPLAY) {
+                String tag = block ? "div" : "span";
+                replacement = "<" + tag + " class=\"math-display\">" + HtmlUtils.htmlEscape(token.text()) + "</"
+                        + tag + ">";
+            } else {
+                replacement = inlineHtml(token);
+                if (block) {
+                    replacement = "<p>" + replacement + "</p>";
+                }
+            }
+            m.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        m.appendTail(out);
+        return out.toString();
+    }
+
+    /** Tracks, for increasing offsets, whether an offset lies inside a tag rather than in text. */
+    private static final class TagScanner {
+        private final String html;
+        private int pos;
+        private boolean inTag;
+        private char quote;
+
+        TagScanner(String html) {
+            this.html = html;
+        }
+
+        boolean insideTag(int offset) {
+            for (; pos < offset; pos++) {
+                char c = html.charAt(pos);
+                if (!inTag) {
+                    inTag = c == '<';
+                } else if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    inTag = false;
+                }
+            }
+            return inTag;
+        }
+    }
+
+    private static String inlineHtml(InlineToken token) {
+        String text = HtmlUtils.htmlEscape(token.text());
+        return switch (token.kind()) {
+            case SUB -> "<sub>" + text + "</sub>";
+            case SUP -> "<sup>" + text + "</sup>";
+            default -> "<span class=\"math-inline\">" + text + "</span>";
+        };
+    }
+
+    /**
+     * Swaps math, subscripts and superscripts for placeholder tokens so
+     * markdown emphasis and escapes never touch them. Fenced code blocks, code
+     * spans, link destinations and autolinks are left alone.
+     */
+    private static String extractTokens(String markdown, List<InlineToken> tokens) {
+        StringBuilder out = new StringBuilder(markdown.length());
+        StringBuilder text = new StringBuilder();
+        String fence = null;
+        int pos = 0;
+        while (pos < markdown.length()) {
+            int next = markdown.indexOf('\n', pos);
+            int end = next < 0 ? markdown.length() : next + 1;
+            String line = markdown.substring(pos, end);
+            String marker = fenceMarker(line);
+            if (fence != null) {
+                out.append(line);
+                if (marker != null && marker.charAt(0) == fence.charAt(0) && marker.length() >= fence.length()
+                        && line.strip().length() == marker.length()) {
+                    fence = null;
+                }
+            } else if (marker != null) {
+                extractInline(text.toString(), tokens, out);
+                text.setLength(0);
+                out.append(line);
+                fence = marker;
+            } else {
+                text.append(line);
+            }
+            pos = end;
+        }
+        extractInline(text.toString(), tokens, out);
+        return out.toString();
+    }
+
+    private static void extractInline(String s, List<InlineToken> tokens, StringBuilder out) {
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < n) {
+                out.append(c).append(s.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            if (c == '`') {
+                int run = runLength(s, i, '`');
+                int close = findRun(s, i + run, '`', run);
+                int stop = close >= 0 ? close + run : i + run;
+                out.append(s, i, stop);
+                i = stop;
+                continue;
+            }
+            if ((c == ']' && i + 1 < n && s.charAt(i + 1) == '(') || c == '<') {
+                int stop = c == '<' ? angleEnd(s, i) : destinationEnd(s, i + 1);
+                if (stop > i) {
+                    out.append(s, i, stop);
+                    i = stop;
+                    continue;
+                }
+            }
+            if (c == '~' || c == '^') {
+                if (c == '~' && i + 1 < n && s.charAt(i + 1) == '~') {
+                    int run = runLength(s, i, '~');
+                    out.append(s, i, i + run);
+                    i += run;
+                    continue;
+                }
+                int close = closingScript(s, i + 1, c);
+                if (close > 0) {
+                    TokenKind kind = c == '~' ? TokenKind.SUB : TokenKind.SUP;
+                    out.append(token(tokens, new InlineToken(kind, unescape(s.substring(i + 1, close)))));
+                    i = close + 1;
+                    continue;
+                }
+            }
+            if (c == '$') {
+                if (i + 1 < n && s.charAt(i + 1) == '$') {
+                    int close = s.indexOf("$$", i + 2);
+                    if (close > i + 2 && !s.substring(i + 2, close).contains("\n\n")) {
+                        out.append(token(tokens,
+                                new InlineToken(TokenKind.MATH_DISPLAY, s.substring(i + 2, close).strip())));
+                        i = close + 2;
+                        continue;
+                    }
+                } else {
+                    int close = closingDollar(s, i + 1);
+                    if (close > 0) {
+                        out.append(token(tokens, new InlineToken(TokenKind.MATH_INLINE, s.substring(i + 1, close))));
+                        i = close + 1;
+                        continue;
+                    }
+                }
+            }
+            out.append(c);
+            i++;
+        }
+    }
+
+    private static int closingDollar(CharSequence s, int start) {
+        int n = s.length();
+        if (start >= n || Character.isWhitespace(s.charAt(start))) {
+            return -1;
+        }
+        for (int i = start; i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '\n') {
+                return -1;
+            }
+            if (c == '\\') {
+                i++;
+                continue;
+            }
+            if (c == '$' && i > start && !Character.isWhitespace(s.charAt(i - 1))
+                    && (i + 1 >= n || !Character.isDigit(s.charAt(i + 1)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * markdown-it-sub / markdown-it-sup: the content runs to the next marker,
+     * is non-empty and holds no unescaped whitespace.
+     */
+    private static int closingScript(CharSequence s, int start, char marker) {
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+                continue;
+            }
+            if (c == marker) {
+                return i > start ? i : -1;
+            }
+            if (Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static String unescape(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length() && isAsciiPunctuationOrSpace(s.charAt(i + 1))) {
+                c = s.charAt(++i);
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static boolean isAsciiPunctuationOrSpace(char c) {
+        return c == ' ' || (c < 128 && !Character.isLetterOrDigit(c) && !Character.isISOControl(c));
+    }
+
+    /** End of a {@code (destination "title")} starting at {@code open}, or -1. */
+    private static int destinationEnd(CharSequence s, int open) {
+        int depth = 0;
+        for (int i = open; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            } else if (c == '\n' && i + 1 < s.length() && s.charAt(i + 1) == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /** End of an autolink or tag starting at {@code open} on the same line, or -1. */
+    private static int angleEnd(CharSequence s, int open) {
+        if (open + 1 >= s.length()) {
+            return -1;
+        }
+        char first = s.charAt(open + 1);
+        if (!Character.isLetter(first) && first != '/' && first != '!' && first != '?') {
+            return -1;
+        }
+        for (int i = open + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '>') {
+                return i + 1;
+            }
+            if (c == '\n' || c == '<') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static String token(List<InlineToken> tokens, InlineToken token) {
+        tokens.add(token);
+        return TOKEN_START + Integer.toString(tokens.size() - 1) + TOKEN_END;
+    }
+
+    private static String fenceMarker(String line) {
+        int indent = 0;
+        while (indent < line.length() && indent < 4 && line.charAt(indent) == ' ') {
+            indent++;
+        }
+        if (indent > 3 || indent >= line.length()) {
+            return null;
+        }
+        char c = line.charAt(indent);
+        if (c != '`' && c != '~') {
+            return null;
+        }
+        int run = runLength(line, indent, c);
+        return run >= 3 ? String.valueOf(c).repeat(run) : null;
+    }
+
+    private static int runLength(CharSequence s, int start, char c) {
+        int i = start;
+        while (i < s.length() && s.charAt(i) == c) {
+            i++;
+        }
+        return i - start;
+    }
+
+    private static int findRun(CharSequence s, int start, char c, int length) {
+        int i = start;
+        while (i < s.length()) {
+            if (s.charAt(i) == c) {
+                int run = runLength(s, i, c);
+                if (run == length) {
+                    return i;
+                }
+                i += run;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+}
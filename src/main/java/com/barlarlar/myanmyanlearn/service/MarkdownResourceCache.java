@@ -0,0 +1,184 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches the wire form of course markdown (UTF-8 body, gzip variant, ETag and
+ * Last-Modified) per course snapshot version, so conditional GETs can be
+ * answered without re-encoding or re-hashing the content.
+ *
+ * <p>
+ * Rendered HTML is cached separately per content id and updatedAt, so it is
+ * produced once on first read and survives edits elsewhere in the course.
+ */
+@Service
+public class MarkdownResourceCache {
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final CourseSnapshotCache courseSnapshotCache;
+    private final MarkdownHtmlRenderer markdownHtmlRenderer;
+    private final int maxEntries;
+    private final Map<String, MarkdownResource> entries;
+    private final Map<String, Optional<String>> htmlEntries;
+
+    public enum Kind {
+        SUBCHAPTER,
+        QUESTION,
+        EXPLANATION
+    }
+
+    public record MarkdownResource(byte[] body, byte[] gzipBody, String etag, Instant lastModified) {
+
+        public String gzipEtag() {
+            return etag + "-gz";
+        }
+    }
+
+    private record Source(long contentId, String markdown, LocalDateTime updatedAt) {
+    }
+
+    public MarkdownResourceCache(
+            CourseSnapshotCache courseSnapshotCache,
+            MarkdownHtmlRenderer markdownHtmlRenderer,
+            @Value("${app.markdown-cache.max-entries:4096}") int maxEntries) {
+        this.courseSnapshotCache = courseSnapshotCache;
+        this.markdownHtmlRenderer = markdownHtmlRenderer;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = lruMap(this.maxEntries);
+        this.htmlEntries = lruMap(this.maxEntries);
+    }
+
+    public MarkdownResource find(String courseId, Kind kind, Integer chapterOrder, Integer number) {
+        if (courseId == null || courseId.isBlank() || kind == null || chapterOrder == null || number == null) {
+            return null;
+        }
+        CourseSnapshot snapshot = courseSnapshotCache.get(courseId);
+        if (snapshot == null) {
+            return null;
+        }
+        String key = snapshot.courseId() + "\u0000" + snapshot.version() + "\u0000" + kind + "\u0000"
+                + chapterOrder + "\u0000" + number;
+        MarkdownResource cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Source source = locate(snapshot, kind, chapterOrder, number);
+        if (source == null) {
+            return null;
+        }
+        MarkdownResource resource = build(source.markdown(), source.updatedAt());
+        entries.put(key, resource);
+        return resource;
+    }
+
+    /**
+     * Returns the sanitized HTML rendering of the markdown, or {@code null} when
+     * it does not exist or must be rendered by the browser. Questions and
+     * explanations keep soft line breaks, as the assessment pages render them.
+     */
+    public String findHtml(String courseId, Kind kind, Integer chapterOrder, Integer number) {
+        if (courseId == null || courseId.isBlank() || kind == null || chapterOrder == null || number == null) {
+            return null;
+        }
+        CourseSnapshot snapshot = courseSnapshotCache.get(courseId);
+        Source source = snapshot != null ? locate(snapshot, kind, chapterOrder, number) : null;
+        if (source == null) {
+            return null;
+        }
+        String key = kind + "\u0000" + source.contentId() + "\u0000" + source.updatedAt();
+        Optional<String> cached = htmlEntries.get(key);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        String html = markdownHtmlRenderer.render(source.markdown(), kind != Kind.SUBCHAPTER);
+        htmlEntries.put(key, Optional.ofNullable(html));
+        return html;
+    }
+
+    private static Source locate(CourseSnapshot snapshot, Kind kind, int chapterOrder, int number) {
+        CourseSnapshot.ChapterSnapshot chapter = snapshot.chapter(chapterOrder);
+        if (chapter == null) {
+            return null;
+        }
+        long contentId;
+        String markdown;
+        LocalDateTime updatedAt;
+        if (kind == Kind.SUBCHAPTER) {
+            CourseSnapshot.SubchapterSnapshot sub = chapter.subchapter(number);
+            if (sub == null) {
+                return null;
+            }
+            contentId = sub.id();
+            markdown = sub.markdown();
+            updatedAt = sub.updatedAt();
+        } else {
+            CourseSnapshot.QuestionSnapshot q = chapter.question(number);
+            if (q == null) {
+                return null;
+            }
+            contentId = q.id();
+            markdown = kind == Kind.QUESTION ? q.questionMarkdown() : q.explanationMarkdown();
+            updatedAt = q.updatedAt();
+        }
+        if (markdown == null) {
+            return null;
+        }
+        return new Source(contentId, markdown, updatedAt != null ? updatedAt : snapshot.updatedAt());
+    }
+
+    private static <V> Map<String, V> lruMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    private static MarkdownResource build(String markdown, LocalDateTime updatedAt) {
+        byte[] body = markdown.getBytes(StandardCharsets.UTF_8);
+        byte[] gzipBody = body.length >= GZIP_MIN_BYTES ? gzip(body) : null;
+        if (gzipBody != null && gzipBody.length >= body.length) {
+            gzipBody = null;
+        }
+        Instant lastModified = updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant() : null;
+        return new MarkdownResource(body, gzipBody, contentHash(body), lastModified);
+    }
+
+    private static String contentHash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 27);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,244 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Translates markdown chunk by chunk. Documents are split on block boundaries
+ * by {@link MarkdownChunker}, chunks are translated on virtual threads with a
+ * bounded window, and each chunk goes through {@link TranslationCache} so an
+ * edit to one paragraph only re-translates the chunk that contains it.
+ *
+ * <p>
+ * In streaming mode the first chunk is streamed from upstream token by token
+ * while the following chunks are translated in the background, so the reader
+ * sees text almost immediately even for long pages.
+ */
+@Service
+public class MarkdownTranslationService implements DisposableBean {
+    private static final Object END_OF_STREAM = new Object();
+
+    private final TranslationCache translationCache;
+    private final int chunkChars;
+    private final int parallelism;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @FunctionalInterface
+    public interface ChunkTranslator {
+        String translate(String markdown) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface StreamingChunkTranslator {
+        /** Translates {@code markdown}, passing text to {@code onDelta} as it arrives; returns the full result. */
+        String translate(String markdown, DeltaSink onDelta) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface DeltaSink {
+        void accept(String delta) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ChunkSink {
+        /**
+         * Receives translated text in document order. Each chunk ends with its
+         * original separator; a streamed chunk may arrive in several pieces.
+         */
+        void accept(int index, String translated) throws Exception;
+    }
+
+    public MarkdownTranslationService(
+            TranslationCache translationCache,
+            @Value("${app.translation.chunk-chars:4000}") int chunkChars,
+            @Value("${app.translation.max-parallel-chunks:4}") int parallelism) {
+        this.translationCache = translationCache;
+        this.chunkChars = Math.max(500, chunkChars);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public String translate(String markdown, String sourceLang, String targetLang, int promptVersion,
+            ChunkTranslator translator) throws Exception {
+        StringBuilder out = new StringBuilder(markdown != null ? markdown.length() : 0);
+        translate(markdown, sourceLang, targetLang, promptVersion, translator, (index, part) -> out.append(part));
+        return out.toString();
+    }
+
+    public void translate(String markdown, String sourceLang, String targetLang, int promptVersion,
+            ChunkTranslator translator, ChunkSink sink) throws Exception {
+        translateFrom(MarkdownChunker.split(markdown, chunkChars), 0, sourceLang, targetLang, promptVersion,
+                translator, sink);
+    }
+
+    /**
+     * Translates each value through {@link #translate}, concurrently, so every
+     * item is served from and stored under the same per-chunk cache keys as
+     * single-document translations and pre-translation.
+     */
+    public Map<String, String> translateAll(Map<String, String> items, String sourceLang, String targetLang,
+            int promptVersion, ChunkTranslator translator) throws Exception {
+        Map<String, Future<String>> pending = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, String> item : items.entrySet()) {
+                String markdown = item.getValue() != null ? item.getValue() : "";
+                pending.put(item.getKey(), executor.submit(
+                        () -> translate(markdown, sourceLang, targetLang, promptVersion, translator)));
+            }
+            Map<String, String> out = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<String>> e : pending.entrySet()) {
+                out.put(e.getKey(), await(e.getValue()));
+            }
+            return out;
+        } finally {
+            for (Future<String> future : pending.values()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Runs {@link #stream} on a virtual thread; the returned future completes
+     * once every chunk has been handed to {@code sink}.
+     */
+    public CompletableFuture<Void> streamAsync(String markdown, String sourceLang, String targetLang,
+            int promptVersion, ChunkTranslator translator, StreamingChunkTranslator streamingTranslator,
+            ChunkSink sink) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                stream(markdown, sourceLang, targetLang, promptVersion, translator, streamingTranslator, sink);
+                done.complete(null);
+            } catch (Exception | Error e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    public void stream(String markdown, String sourceLang, String targetLang, int promptVersion,
+            ChunkTranslator translator, StreamingChunkTranslator streamingTranslator, ChunkSink sink)
+            throws Exception {
+        List<MarkdownChunker.Chunk> chunks = MarkdownChunker.split(markdown, chunkChars);
+        int head = 0;
+        while (head < chunks.size() && chunks.get(head).text().isBlank()) {
+            sink.accept(head, chunks.get(head).text() + chunks.get(head).separator());
+            head++;
+        }
+        if (head >= chunks.size()) {
+            return;
+        }
+
+        MarkdownChunker.Chunk first = chunks.get(head);
+        int index = head;
+        // Translate the rest in the background while the first chunk streams.
+        BlockingQueue<Object> rest = new LinkedBlockingQueue<>();
+        Future<?> background = executor.submit(() -> {
+            try {
+                translateFrom(chunks, index + 1, sourceLang, targetLang, promptVersion, translator,
+                        (i, part) -> rest.put(part));
+                rest.add(END_OF_STREAM);
+            } catch (Exception | Error e) {
+                rest.add(e);
+            }
+        });
+        try {
+            TranslationCache.Key key = TranslationCache.key(first.text(), sourceLang, targetLang, promptVersion);
+            boolean[] streamed = new boolean[1];
+            String translated = translationCache.translate(key, () -> streamingTranslator.translate(first.text(),
+                    delta -> {
+                        streamed[0] = true;
+                        sink.accept(index, delta);
+                    }));
+            if (!streamed[0]) {
+                sink.accept(index, translated);
+            }
+            sink.accept(index, first.separator());
+
+            for (int i = index + 1;; i++) {
+                Object next = rest.take();
+                if (next == END_OF_STREAM) {
+                    break;
+                }
+                if (next instanceof Exception e) {
+                    throw e;
+                }
+                if (next instanceof Error e) {
+                    throw e;
+                }
+                sink.accept(i, (String) next);
+            }
+        } finally {
+            background.cancel(true);
+        }
+    }
+
+    private void translateFrom(List<MarkdownChunker.Chunk> chunks, int start, String sourceLang,
+            String targetLang, int promptVersion, ChunkTranslator translator, ChunkSink sink) throws Exception {
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int submitted = start;
+        try {
+            while (submitted < chunks.size() && inFlight.size() < parallelism) {
+                inFlight.addLast(submit(chunks.get(submitted++), sourceLang, targetLang, promptVersion, translator));
+            }
+            for (int i = start; i < chunks.size(); i++) {
+                String translated = await(inFlight.removeFirst());
+                if (submitted < chunks.size()) {
+                    inFlight.addLast(
+                            submit(chunks.get(submitted++), sourceLang, targetLang, promptVersion, translator));
+                }
+                sink.accept(i, translated + chunks.get(i).separator());
+            }
+        } finally {
+            for (Future<String> pending : inFlight) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private Future<String> submit(MarkdownChunker.Chunk chunk, String sourceLang, String targetLang,
+            int promptVersion, ChunkTranslator translator) {
+        String text = chunk.text();
+        if (text.isBlank()) {
+            return CompletableFuture.completedFuture(text);
+        }
+        return executor.submit(() -> translationCache.translate(
+                TranslationCache.key(text, sourceLang, targetLang, promptVersion),
+                () -> translator.translate(text)));
+    }
+
+    private static String await(Future<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Translation cancelled.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
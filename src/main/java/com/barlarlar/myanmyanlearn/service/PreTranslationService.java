@@ -0,0 +1,266 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Warms {@link TranslationCache} for published courses. Each pass walks the
+ * subchapter, question and explanation markdown of every published course and
+ * translates it into the shipped UI languages through the same chunked path as
+ * {@code /reader/translate} and {@code /reader/translate/batch}, so reader and
+ * assessment-page toggles are answered from the store.
+ *
+ * <p>
+ * Upstream calls are spaced by a fixed rate and retried with exponential
+ * backoff. Courses are skipped once a pass completed for their current
+ * snapshot version; an interrupted pass resumes cheaply because chunks that
+ * were already translated are found in the persistent cache.
+ */
+@Slf4j
+@Service
+public class PreTranslationService {
+    private static final long MAX_BACKOFF_MS = 60_000L;
+
+    private final CourseSnapshotCache courseSnapshotCache;
+    private final MarkdownTranslationService markdownTranslationService;
+    private final TranslationGateway translationGateway;
+    private final boolean enabled;
+    private final List<String> languages;
+    private final long minIntervalNanos;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+
+    private final Map<String, Long> completedVersions = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Object rateLock = new Object();
+    private long nextCallAt;
+    private volatile Progress progress = Progress.idle();
+
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public record Progress(
+            State state,
+            int coursesTotal,
+            int coursesDone,
+            long itemsTotal,
+            long itemsDone,
+            long itemsFailed,
+            String currentCourseId,
+            String currentLanguage,
+            Instant startedAt,
+            Instant finishedAt,
+            String message) {
+
+        static Progress idle() {
+            return new Progress(State.IDLE, 0, 0, 0L, 0L, 0L, null, null, null, null, null);
+        }
+    }
+
+    public PreTranslationService(
+            CourseSnapshotCache courseSnapshotCache,
+            MarkdownTranslationService markdownTranslationService,
+            TranslationGateway translationGateway,
+            @Value("${app.pre-translation.enabled:false}") boolean enabled,
+            @Value("${app.pre-translation.languages:my,ja,zh,vi,ne,hi,bn,si,uz}") List<String> languages,
+            @Value("${app.pre-translation.requests-per-minute:30}") int requestsPerMinute,
+            @Value("${app.pre-translation.max-attempts:4}") int maxAttempts,
+            @Value("${app.pre-translation.initial-backoff-ms:2000}") long initialBackoffMs) {
+        this.courseSnapshotCache = courseSnapshotCache;
+        this.markdownTranslationService = markdownTranslationService;
+        this.translationGateway = translationGateway;
+        this.enabled = enabled;
+        Set<String> langs = new LinkedHashSet<>();
+        for (String l : languages) {
+            String v = GeminiTranslationClient.normalizeLang(l);
+            if (v != null) {
+                langs.add(v);
+            }
+        }
+        this.languages = List.copyOf(langs);
+        this.minIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, requestsPerMinute);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = Math.max(100L, initialBackoffMs);
+    }
+
+    public Progress progress() {
+        return progress;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.pre-translation.interval-ms:900000}",
+            initialDelayString = "${app.pre-translation.initial-delay-ms:120000}")
+    public void runScheduled() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    @Async
+    public void runAsync() {
+        run();
+    }
+
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        Instant startedAt = Instant.now();
+        try {
+            if (!translationGateway.isConfigured()) {
+                progress = new Progress(State.FAILED, 0, 0, 0L, 0L, 0L, null, null, startedAt, Instant.now(),
+                        "Translation API key is not configured.");
+                return;
+            }
+            // Only IDs are kept so the pass never pins more snapshots than the course cache holds.
+            List<String> pending = new ArrayList<>();
+            long itemsTotal = 0L;
+            for (CourseSnapshot.Header header : courseSnapshotCache.catalog()) {
+                if (!header.published()) {
+                    continue;
+                }
+                CourseSnapshot course = courseSnapshotCache.get(header.courseId());
+                if (course != null && !Objects.equals(completedVersions.get(course.courseId()), course.version())) {
+                    pending.add(course.courseId());
+                    itemsTotal += (long) markdownItems(course).size() * targetLanguages(course).size();
+                }
+            }
+
+            int coursesDone = 0;
+            long itemsDone = 0L;
+            long itemsFailed = 0L;
+            progress = new Progress(State.RUNNING, pending.size(), 0, itemsTotal, 0L, 0L, null, null, startedAt,
+                    null, null);
+            for (String courseId : pending) {
+                CourseSnapshot course = courseSnapshotCache.get(courseId);
+                if (course == null) {
+                    coursesDone++;
+                    continue;
+                }
+                String sourceLang = GeminiTranslationClient.normalizeLang(course.language());
+                List<String> items = markdownItems(course);
+                boolean complete = true;
+                for (String targetLang : targetLanguages(course)) {
+                    for (String markdown : items) {
+                        progress = new Progress(State.RUNNING, pending.size(), coursesDone, itemsTotal, itemsDone,
+                                itemsFailed, course.courseId(), targetLang, startedAt, null, null);
+                        try {
+                            markdownTranslationService.translate(markdown, sourceLang, targetLang,
+                                    GeminiTranslationClient.PROMPT_VERSION,
+                                    chunk -> translateWithRetry(sourceLang, targetLang, chunk));
+                            itemsDone++;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            progress = new Progress(State.FAILED, pending.size(), coursesDone, itemsTotal, itemsDone,
+                                    itemsFailed, course.courseId(), targetLang, startedAt, Instant.now(),
+                                    "Interrupted.");
+                            return;
+                        } catch (Exception e) {
+                            itemsFailed++;
+                            complete = false;
+                            log.warn("Pre-translation failed for course {} ({})", course.courseId(), targetLang, e);
+                        }
+                    }
+                }
+                if (complete) {
+                    completedVersions.put(course.courseId(), course.version());
+                }
+                coursesDone++;
+            }
+            progress = new Progress(State.COMPLETED, pending.size(), coursesDone, itemsTotal, itemsDone, itemsFailed,
+                    null, null, startedAt, Instant.now(), null);
+        } catch (RuntimeException e) {
+            log.warn("Pre-translation pass failed", e);
+            Progress p = progress;
+            progress = new Progress(State.FAILED, p.coursesTotal(), p.coursesDone(), p.itemsTotal(), p.itemsDone(),
+                    p.itemsFailed(), p.currentCourseId(), p.currentLanguage(), startedAt, Instant.now(),
+                    e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private String translateWithRetry(String sourceLang, String targetLang, String chunk) throws Exception {
+        long backoff = initialBackoffMs;
+        for (int attempt = 1;; attempt++) {
+            acquirePermit();
+            try {
+                return translationGateway.translateMarkdown(sourceLang, targetLang, chunk);
+            } catch (IOException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                Thread.sleep(backoff + jitter);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void acquirePermit() throws InterruptedException {
+        long waitNanos;
+        synchronized (rateLock) {
+            long now = System.nanoTime();
+            long slot = nextCallAt - now > 0 ? nextCallAt : now;
+            nextCallAt = slot + minIntervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private List<String> targetLanguages(CourseSnapshot course) {
+        String sourceLang = GeminiTranslationClient.normalizeLang(course.language());
+        List<String> out = new ArrayList<>();
+        for (String lang : languages) {
+            if (!lang.equals(sourceLang)) {
+                out.add(lang);
+            }
+        }
+        return out;
+    }
+
+    private static List<String> markdownItems(CourseSnapshot course) {
+        List<String> out = new ArrayList<>();
+        for (CourseSnapshot.ChapterSnapshot chapter : course.chapters()) {
+            for (CourseSnapshot.SubchapterSnapshot sub : chapter.subchapters()) {
+                addIfPresent(out, sub.markdown());
+            }
+            for (CourseSnapshot.QuestionSnapshot q : chapter.questions()) {
+                addIfPresent(out, q.questionMarkdown());
+                addIfPresent(out, q.explanationMarkdown());
+            }
+        }
+        return out;
+    }
+
+    private static void addIfPresent(List<String> out, String markdown) {
+        if (markdown != null && !markdown.isBlank()) {
+            out.add(markdown);
+        }
+    }
+}
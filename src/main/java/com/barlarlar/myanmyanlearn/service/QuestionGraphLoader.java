@@ -0,0 +1,179 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.barlarlar.myanmyanlearn.entity.CourseQuestionEntity;
+import com.barlarlar.myanmyanlearn.entity.CourseQuestionOptionEntity;
+import com.barlarlar.myanmyanlearn.entity.CourseQuestionSlotEntity;
+import com.barlarlar.myanmyanlearn.entity.CourseQuestionSlotOptionEntity;
+import com.barlarlar.myanmyanlearn.repository.CourseQuestionOptionRepository;
+import com.barlarlar.myanmyanlearn.repository.CourseQuestionRepository;
+import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotOptionRepository;
+import com.barlarlar.myanmyanlearn.repository.CourseQuestionSlotRepository;
+
+@Service
+@RequiredArgsConstructor
+public class QuestionGraphLoader {
+    private final CourseQuestionRepository courseQuestionRepository;
+    private final CourseQuestionSlotRepository courseQuestionSlotRepository;
+    private final CourseQuestionSlotOptionRepository courseQuestionSlotOptionRepository;
+    private final CourseQuestionOptionRepository courseQuestionOptionRepository;
+
+    public record QuestionGraph(
+            Map<Long, List<CourseQuestionEntity>> questionsByChapterId,
+            Map<Long, List<CourseQuestionSlotEntity>> slotsByQuestionId,
+            Map<Long, List<CourseQuestionSlotOptionEntity>> slotOptionsBySlotId,
+            Map<Long, List<CourseQuestionOptionEntity>> legacyOptionsByQuestionId) {
+
+        public static QuestionGraph empty() {
+            return new QuestionGraph(Map.of(), Map.of(), Map.of(), Map.of());
+        }
+    }
+
+    public QuestionGraph loadGraph(Collection<Long> chapterIds) {
+        List<Long> ids = distinctIds(chapterIds);
+        if (ids.isEmpty()) {
+            return QuestionGraph.empty();
+        }
+
+        Map<Long, List<CourseQuestionEntity>> questionsByChapterId = new LinkedHashMap<>();
+        List<Long> questionIds = new ArrayList<>();
+        for (CourseQuestionEntity q : nullToEmpty(
+                courseQuestionRepository.findByChapterIdInOrderByChapterIdAscQuestionNumberAsc(ids))) {
+            if (q == null || q.getId() == null || q.getChapterId() == null) {
+                continue;
+            }
+            questionsByChapterId.computeIfAbsent(q.getChapterId(), k -> new ArrayList<>()).add(q);
+            questionIds.add(q.getId());
+        }
+        if (questionIds.isEmpty()) {
+            return new QuestionGraph(questionsByChapterId, Map.of(), Map.of(), Map.of());
+        }
+
+        Map<Long, List<CourseQuestionSlotEntity>> slotsByQuestionId = new LinkedHashMap<>();
+        List<Long> slotIds = new ArrayList<>();
+        for (CourseQuestionSlotEntity slot : nullToEmpty(
+                courseQuestionSlotRepository.findByQuestionIdInOrderByQuestionIdAscSlotIndexAsc(questionIds))) {
+            if (slot == null || slot.getId() == null || slot.getQuestionId() == null) {
+                continue;
+            }
+            slotsByQuestionId.computeIfAbsent(slot.getQuestionId(), k -> new ArrayList<>()).add(slot);
+            slotIds.add(slot.getId());
+        }
+
+        Map<Long, List<CourseQuestionSlotOptionEntity>> slotOptionsBySlotId = new LinkedHashMap<>();
+        if (!slotIds.isEmpty()) {
+            for (CourseQuestionSlotOptionEntity opt : nullToEmpty(courseQuestionSlotOptionRepository
+                    .findByQuestionSlotIdInOrderByQuestionSlotIdAscOptionIndexAsc(slotIds))) {
+                if (opt == null || opt.getQuestionSlotId() == null) {
+                    continue;
+                }
+                slotOptionsBySlotId.computeIfAbsent(opt.getQuestionSlotId(), k -> new ArrayList<>()).add(opt);
+            }
+        }
+
+        List<Long> legacyQuestionIds = new ArrayList<>();
+        for (Long questionId : questionIds) {
+            if (!slotsByQuestionId.containsKey(questionId)) {
+                legacyQuestionIds.add(questionId);
+            }
+        }
+        Map<Long, List<CourseQuestionOptionEntity>> legacyOptionsByQuestionId = new LinkedHashMap<>();
+        if (!legacyQuestionIds.isEmpty()) {
+            for (CourseQuestionOptionEntity opt : nullToEmpty(courseQuestionOptionRepository
+                    .findByQuestionIdInOrderByQuestionIdAscOptionIndexAsc(legacyQuestionIds))) {
+                if (opt == null || opt.getQuestionId() == null) {
+                    continue;
+                }
+                legacyOptionsByQuestionId.computeIfAbsent(opt.getQuestionId(), k -> new ArrayList<>()).add(opt);
+            }
+        }
+
+        return new QuestionGraph(questionsByChapterId, slotsByQuestionId, slotOptionsBySlotId,
+                legacyOptionsByQuestionId);
+    }
+
+    /** Immutable question snapshots of the given chapters, keyed by chapter id, in question order. */
+    public Map<Long, List<CourseSnapshot.QuestionSnapshot>> loadQuestions(Collection<Long> chapterIds) {
+        QuestionGraph graph = loadGraph(chapterIds);
+        Map<Long, List<CourseSnapshot.QuestionSnapshot>> out = new LinkedHashMap<>();
+        for (Map.Entry<Long, List<CourseQuestionEntity>> e : graph.questionsByChapterId().entrySet()) {
+            out.put(e.getKey(), mapQuestions(graph, e.getValue()));
+        }
+        return out;
+    }
+
+    private List<CourseSnapshot.QuestionSnapshot> mapQuestions(QuestionGraph graph,
+            List<CourseQuestionEntity> questions) {
+        if (questions == null || questions.isEmpty()) {
+            return List.of();
+        }
+        List<CourseSnapshot.QuestionSnapshot> out = new ArrayList<>();
+        for (CourseQuestionEntity q : questions) {
+            if (q.getQuestionNumber() == null) {
+                continue;
+            }
+            List<List<CourseSnapshot.OptionSnapshot>> slotOptions = new ArrayList<>();
+            for (CourseQuestionSlotEntity slot : graph.slotsByQuestionId().getOrDefault(q.getId(), List.of())) {
+                List<CourseSnapshot.OptionSnapshot> mapped = new ArrayList<>();
+                for (CourseQuestionSlotOptionEntity opt : graph.slotOptionsBySlotId().getOrDefault(slot.getId(),
+                        List.of())) {
+                    if (opt.getOptionIndex() == null) {
+                        continue;
+                    }
+                    mapped.add(toOption(opt.getOptionIndex(), opt.getOptionContent(), opt.getCorrect()));
+                }
+                slotOptions.add(List.copyOf(mapped));
+            }
+            List<CourseSnapshot.OptionSnapshot> legacyOptions = new ArrayList<>();
+            for (CourseQuestionOptionEntity opt : graph.legacyOptionsByQuestionId().getOrDefault(q.getId(),
+                    List.of())) {
+                if (opt.getOptionIndex() == null) {
+                    continue;
+                }
+                legacyOptions.add(toOption(opt.getOptionIndex(), opt.getOptionContent(), opt.getCorrect()));
+            }
+            out.add(new CourseSnapshot.QuestionSnapshot(
+                    q.getId(),
+                    q.getQuestionUid(),
+                    q.getQuestionNumber(),
+                    q.getQuestionMarkdown(),
+                    q.getExplanationMarkdown(),
+                    q.getUpdatedAt(),
+                    List.copyOf(slotOptions),
+                    List.copyOf(legacyOptions)));
+        }
+        return List.copyOf(out);
+    }
+
+    private static CourseSnapshot.OptionSnapshot toOption(Integer optionIndex, String optionContent,
+            Boolean correct) {
+        return new CourseSnapshot.OptionSnapshot(optionIndex, optionContent, Boolean.TRUE.equals(correct));
+    }
+
+    private static List<Long> distinctIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> out = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                out.add(id);
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+}
@@ -31,6 +31,7 @@ public class RegistrationService {
     private final EmailService emailService;
     private final OtpService otpService;
     private final RegistrationSettingsService registrationSettingsService;
+    private final CurrentMemberService currentMemberService;
 
     /**
      * Register a new user with email verification
@@ -110,6 +111,7 @@ public class RegistrationService {
         member.setOtpCode(null);
         member.setOtpExpiresAt(null);
         memberRepository.save(member);
+        currentMemberService.evict(member.getUserId());
 
         return true;
     }
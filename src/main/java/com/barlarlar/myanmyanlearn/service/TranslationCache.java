@@ -0,0 +1,150 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Two-tier cache for machine translations: an in-memory LRU in front of the
+ * {@code translation_cache} table. Entries are keyed by the SHA-256 of the
+ * source text, the language pair and the prompt version, so changing the
+ * prompt invalidates old translations without touching the table. Concurrent
+ * misses for the same key share a single upstream call.
+ */
+@Slf4j
+@Service
+public class TranslationCache {
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxEntries;
+    private final Map<Key, String> entries;
+    private final ConcurrentHashMap<Key, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public record Key(String sourceHash, String sourceLang, String targetLang, int promptVersion) {
+    }
+
+    @FunctionalInterface
+    public interface Translator {
+        String translate() throws Exception;
+    }
+
+    public TranslationCache(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.translation-cache.max-entries:2048}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<Key, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > TranslationCache.this.maxEntries;
+            }
+        });
+    }
+
+    public static Key key(String text, String sourceLang, String targetLang, int promptVersion) {
+        return new Key(sha256(text), sourceLang != null ? sourceLang : "", targetLang, promptVersion);
+    }
+
+    /** Returns the cached translation, or {@code null} when neither tier has it. */
+    public String find(Key key) {
+        String cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String loaded = load(key);
+        if (loaded != null) {
+            entries.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public String translate(Key key, Translator translator) throws Exception {
+        String cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            String value = find(key);
+            if (value == null) {
+                value = translator.translate();
+                entries.put(key, value);
+                store(key, value);
+            }
+            pending.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private static String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String load(Key key) {
+        try {
+            List<String> rows = jdbcTemplate.queryForList("""
+                    select translated_text from translation_cache
+                    where source_hash = ? and source_lang = ? and target_lang = ? and prompt_version = ?""",
+                    String.class, key.sourceHash(), key.sourceLang(), key.targetLang(), key.promptVersion());
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read translation cache", e);
+            return null;
+        }
+    }
+
+    private void store(Key key, String translated) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.update("""
+                    insert into translation_cache
+                    (source_hash, source_lang, target_lang, prompt_version, translated_text, created_at, updated_at)
+                    values (?, ?, ?, ?, ?, ?, ?)
+                    on duplicate key update translated_text = values(translated_text),
+                    updated_at = values(updated_at)""",
+                    key.sourceHash(), key.sourceLang(), key.targetLang(), key.promptVersion(), translated, now, now);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write translation cache", e);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((text != null ? text : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
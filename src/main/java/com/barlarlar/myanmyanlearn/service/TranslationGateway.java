@@ -0,0 +1,236 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single entry point for upstream translation calls. Isolates request traffic
+ * from Gemini incidents with a bounded in-flight limit, per-call deadlines and
+ * a consecutive-failure circuit breaker; when the limit is saturated or the
+ * breaker is open, calls fail fast with {@link TranslationUnavailableException}
+ * instead of queueing. Latency, outcomes, rejections and token usage are
+ * published as {@code translation.upstream.*} meters.
+ */
+@Slf4j
+@Service
+public class TranslationGateway {
+    private final GeminiTranslationClient client;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+    private final Duration requestTimeout;
+    private final Duration streamTimeout;
+    private final int failureThreshold;
+    private final long openMs;
+
+    private final Object breakerLock = new Object();
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    /** Thrown without calling upstream when the gateway sheds load. */
+    public static class TranslationUnavailableException extends IOException {
+        public TranslationUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private enum Admission {
+        ADMITTED,
+        TRIAL,
+        REJECTED
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        GeminiTranslationClient.Completion run() throws Exception;
+    }
+
+    // Failures raised by the caller's sink (e.g. a closed browser connection) must not trip the breaker.
+    private static class DownstreamException extends Exception {
+        DownstreamException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    public TranslationGateway(
+            GeminiTranslationClient client,
+            MeterRegistry meterRegistry,
+            @Value("${app.translation.gateway.max-in-flight:16}") int maxInFlight,
+            @Value("${app.translation.gateway.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+            @Value("${app.translation.gateway.request-timeout-ms:30000}") long requestTimeoutMs,
+            @Value("${app.translation.gateway.stream-timeout-ms:60000}") long streamTimeoutMs,
+            @Value("${app.translation.gateway.failure-threshold:5}") int failureThreshold,
+            @Value("${app.translation.gateway.open-ms:30000}") long openMs) {
+        this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.permits = new Semaphore(this.maxInFlight);
+        this.acquireTimeoutMs = Math.max(0L, acquireTimeoutMs);
+        this.requestTimeout = Duration.ofMillis(Math.max(1000L, requestTimeoutMs));
+        this.streamTimeout = Duration.ofMillis(Math.max(1000L, streamTimeoutMs));
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = Math.max(1000L, openMs);
+        Gauge.builder("translation.upstream.in_flight", permits, p -> this.maxInFlight - p.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("translation.upstream.circuit.open", this, g -> g.isOpen() ? 1.0 : 0.0)
+                .register(meterRegistry);
+    }
+
+    public boolean isConfigured() {
+        return client.isConfigured();
+    }
+
+    public String translateMarkdown(String sourceLang, String targetLang, String text) throws Exception {
+        return execute("translate", () -> client.translateMarkdown(sourceLang, targetLang, text, requestTimeout));
+    }
+
+    public String streamTranslateMarkdown(String sourceLang, String targetLang, String text,
+            MarkdownTranslationService.DeltaSink onDelta) throws Exception {
+        return execute("stream", () -> client.streamTranslateMarkdown(sourceLang, targetLang, text, streamTimeout,
+                delta -> {
+                    try {
+                        onDelta.accept(delta);
+                    } catch (Exception e) {
+                        throw new DownstreamException(e);
+                    }
+                }));
+    }
+
+    public String generateText(String prompt) throws Exception {
+        return execute("generate", () -> client.generateText(prompt, requestTimeout));
+    }
+
+    private String execute(String operation, Call call) throws Exception {
+        Admission admission = admit();
+        if (admission == Admission.REJECTED) {
+            reject(operation, "circuit_open");
+            throw new TranslationUnavailableException("Translation is temporarily unavailable.");
+        }
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            if (!acquired && admission == Admission.TRIAL) {
+                releaseTrial();
+            }
+        }
+        if (!acquired) {
+            reject(operation, "saturated");
+            throw new TranslationUnavailableException("Translation service is busy.");
+        }
+        long start = System.nanoTime();
+        try {
+            GeminiTranslationClient.Completion completion = call.run();
+            onSuccess();
+            record(operation, "success", start);
+            tokens(operation, "prompt", completion.promptTokens());
+            tokens(operation, "output", completion.outputTokens());
+            return completion.text();
+        } catch (InterruptedException e) {
+            if (admission == Admission.TRIAL) {
+                releaseTrial();
+            }
+            record(operation, "cancelled", start);
+            throw e;
+        } catch (DownstreamException e) {
+            if (admission == Admission.TRIAL) {
+                releaseTrial();
+            }
+            record(operation, "cancelled", start);
+            throw (Exception) e.getCause();
+        } catch (Exception e) {
+            onFailure();
+            record(operation, "error", start);
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isOpen() {
+        synchronized (breakerLock) {
+            return consecutiveFailures >= failureThreshold && System.currentTimeMillis() < openUntil;
+        }
+    }
+
+    // Closed: everything passes. Open: nothing passes until openUntil. Half-open: one trial call at a time.
+    private Admission admit() {
+        synchronized (breakerLock) {
+            if (consecutiveFailures < failureThreshold) {
+                return Admission.ADMITTED;
+            }
+            if (System.currentTimeMillis() < openUntil || trialInFlight) {
+                return Admission.REJECTED;
+            }
+            trialInFlight = true;
+            return Admission.TRIAL;
+        }
+    }
+
+    private void releaseTrial() {
+        synchronized (breakerLock) {
+            trialInFlight = false;
+        }
+    }
+
+    private void onSuccess() {
+        synchronized (breakerLock) {
+            if (consecutiveFailures >= failureThreshold) {
+                log.info("Translation circuit closed");
+            }
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+    }
+
+    private void onFailure() {
+        synchronized (breakerLock) {
+            consecutiveFailures++;
+            trialInFlight = false;
+            if (consecutiveFailures >= failureThreshold) {
+                if (consecutiveFailures == failureThreshold) {
+                    log.warn("Translation circuit opened after {} consecutive failures", consecutiveFailures);
+                }
+                openUntil = System.currentTimeMillis() + openMs;
+            }
+        }
+    }
+
+    private void record(String operation, String outcome, long startNanos) {
+        Timer.builder("translation.upstream.latency")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void reject(String operation, String reason) {
+        Counter.builder("translation.upstream.rejected")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void tokens(String operation, String kind, long count) {
+        if (count > 0L) {
+            Counter.builder("translation.upstream.tokens")
+                    .tag("operation", operation)
+                    .tag("kind", kind)
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
+}
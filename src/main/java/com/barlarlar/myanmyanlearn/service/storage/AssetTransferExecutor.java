@@ -0,0 +1,101 @@
+package com.barlarlar.myanmyanlearn.service.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AssetTransferExecutor implements DisposableBean {
+    private final int concurrency;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @FunctionalInterface
+    public interface Transfer<I, O> {
+        O apply(I input) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Sink<I, O> {
+        void accept(int index, I input, O output) throws IOException;
+    }
+
+    public AssetTransferExecutor(@Value("${app.asset-transfer.concurrency:8}") int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Runs {@code transfer} for every input with at most {@code concurrency}
+     * transfers in flight, and hands the results to {@code sink} on the calling
+     * thread in input order. The first failure cancels every outstanding transfer.
+     */
+    public <I, O> void transferOrdered(List<I> inputs, Transfer<I, O> transfer, Sink<I, O> sink)
+            throws IOException {
+        if (inputs == null || inputs.isEmpty()) {
+            return;
+        }
+        Deque<Future<O>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            while (submitted < inputs.size() && inFlight.size() < concurrency) {
+                inFlight.addLast(submit(transfer, inputs.get(submitted++)));
+            }
+            for (int i = 0; i < inputs.size(); i++) {
+                O output = await(inFlight.removeFirst());
+                if (submitted < inputs.size()) {
+                    inFlight.addLast(submit(transfer, inputs.get(submitted++)));
+                }
+                sink.accept(i, inputs.get(i), output);
+            }
+        } finally {
+            for (Future<O> pending : inFlight) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <I, O> Future<O> submit(Transfer<I, O> transfer, I input) {
+        return executor.submit(() -> {
+            try {
+                return transfer.apply(input);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static <O> O await(Future<O> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Asset transfer interrupted.", e);
+        } catch (CancellationException e) {
+            throw new IOException("Asset transfer cancelled.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Asset transfer failed.", cause);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.barlarlar.myanmyanlearn.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Storage facade used by the application. Content is stored once per SHA-256
+ * in the backend under {@code blobs/}, and each key is a row in
+ * {@link StorageAssetIndex} pointing at its blob. Blobs are reference counted
+ * and deleted when the last key pointing at them is deleted or overwritten.
+ * Keys are served under {@code /uploads/} by the application.
+ *
+ * <p>
+ * Objects written before content addressing keep living under their own key;
+ * they are read, listed and deleted directly, and replaced by a blob link the
+ * next time the key is written.
+ */
+@Slf4j
+@Service
+@Primary
+public class IndexedStorageService implements StorageService {
+    public static final String BLOB_PREFIX = "blobs/";
+    private static final String PUBLIC_PREFIX = "/uploads/";
+
+    private final StorageService backend;
+    private final StorageAssetIndex storageAssetIndex;
+
+    public IndexedStorageService(
+            @Qualifier("storageBackend") StorageService backend,
+            StorageAssetIndex storageAssetIndex) {
+        this.backend = backend;
+        this.storageAssetIndex = storageAssetIndex;
+    }
+
+    @Override
+    public StoredObject put(String key, MultipartFile file) throws IOException {
+        if (file instanceof PathMultipartFile pathFile && pathFile.path() != null) {
+            return putFile(key, pathFile.originalFilename(), pathFile.contentType(), pathFile.path());
+        }
+        try (InputStream in = file.getInputStream()) {
+            return putStream(key, file.getOriginalFilename(), file.getContentType(), in, file.getSize());
+        }
+    }
+
+    @Override
+    public StoredObject putStream(String key, String originalFilename, String contentType, InputStream in,
+            long size) throws IOException {
+        Path spool = Files.createTempFile("storage-put-", ".tmp");
+        try {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            return putFile(key, originalFilename, contentType, spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public StoredObject putFile(String key, String originalFilename, String contentType, Path file)
+            throws IOException {
+        String k = checkKey(key);
+        String contentHash = sha256(file);
+        StorageAssetIndex.IndexedAsset current = storageAssetIndex.find(k);
+        if (current != null && contentHash.equals(current.contentHash())) {
+            return current.object();
+        }
+        String blobKey = blobKey(contentHash);
+        StoredObject stored = new StoredObject(k, PUBLIC_PREFIX + k, Files.size(file), contentType, contentHash,
+                Instant.now());
+        storageAssetIndex.link(stored, contentHash, () -> {
+            if (!backend.exists(blobKey)) {
+                backend.putFile(blobKey, originalFilename, contentType, file);
+            }
+        }, this::deleteBlob);
+        if (current == null || !current.linked()) {
+            deleteLegacyObject(k);
+        }
+        return stored;
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix) throws IOException {
+        String p = prefix != null ? prefix.trim() : "";
+        if (p.isBlank()) {
+            return List.of();
+        }
+        if (storageAssetIndex.covers(p)) {
+            return storageAssetIndex.list(p);
+        }
+        Map<String, StoredObject> byKey = new LinkedHashMap<>();
+        for (StoredObject o : backend.list(p)) {
+            if (o != null && o.key() != null && !o.key().startsWith(BLOB_PREFIX)) {
+                byKey.put(o.key(), o);
+            }
+        }
+        for (StoredObject o : storageAssetIndex.listLinked(p)) {
+            byKey.put(o.key(), o);
+        }
+        List<StoredObject> out = new ArrayList<>(byKey.values());
+        out.sort(Comparator.comparing(StoredObject::key));
+        return out;
+    }
+
+    @Override
+    public byte[] getBytes(String key) throws IOException {
+        return backend.getBytes(resolve(key));
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        return backend.openStream(resolve(key));
+    }
+
+    @Override
+    public long copyTo(String key, OutputStream out) throws IOException {
+        return backend.copyTo(resolve(key), out);
+    }
+
+    @Override
+    public long copyToFile(String key, Path target) throws IOException {
+        return backend.copyToFile(resolve(key), target);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        StorageAssetIndex.IndexedAsset asset = storageAssetIndex.find(key);
+        return (asset != null && asset.linked()) || backend.exists(key);
+    }
+
+    @Override
+    public StoredObject copy(String sourceKey, String targetKey, String contentType) throws IOException {
+        String target = checkKey(targetKey);
+        StorageAssetIndex.IndexedAsset source = storageAssetIndex.find(sourceKey);
+        if (source == null || !source.linked()) {
+            storageAssetIndex.unlink(target, this::deleteBlob);
+            StoredObject stored = backend.copy(sourceKey, target, contentType);
+            storageAssetIndex.record(stored);
+            return stored;
+        }
+        String contentHash = source.contentHash();
+        StorageAssetIndex.IndexedAsset current = storageAssetIndex.find(target);
+        if (current != null && contentHash.equals(current.contentHash())) {
+            return current.object();
+        }
+        String blobKey = blobKey(contentHash);
+        StoredObject stored = new StoredObject(target, PUBLIC_PREFIX + target, source.object().size(),
+                contentType != null ? contentType : source.object().contentType(), contentHash, Instant.now());
+        storageAssetIndex.link(stored, contentHash, () -> {
+            if (!backend.exists(blobKey)) {
+                throw new IOException("Storage object not found.");
+            }
+        }, this::deleteBlob);
+        if (current == null || !current.linked()) {
+            deleteLegacyObject(target);
+        }
+        return stored;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        String k = checkKey(key);
+        if (storageAssetIndex.unlink(k, this::deleteBlob)) {
+            return;
+        }
+        backend.delete(k);
+        storageAssetIndex.remove(k);
+    }
+
+    private String resolve(String key) {
+        StorageAssetIndex.IndexedAsset asset = storageAssetIndex.find(key);
+        return asset != null && asset.linked() ? blobKey(asset.contentHash()) : key;
+    }
+
+    private void deleteBlob(String contentHash) throws IOException {
+        backend.delete(blobKey(contentHash));
+    }
+
+    // A key written before content addressing may still have its own object; the link now shadows it.
+    private void deleteLegacyObject(String key) {
+        try {
+            backend.delete(key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete superseded storage object {}", key, e);
+        }
+    }
+
+    private static String blobKey(String contentHash) {
+        return BLOB_PREFIX + contentHash.substring(0, 2) + "/" + contentHash;
+    }
+
+    private static String checkKey(String key) throws IOException {
+        String k = key != null ? key.trim() : "";
+        if (k.isBlank() || k.startsWith(BLOB_PREFIX)) {
+            throw new IOException("Invalid storage key.");
+        }
+        return k;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available.", e);
+        }
+        byte[] buf = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buf)) >= 0) {
+                digest.update(buf, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
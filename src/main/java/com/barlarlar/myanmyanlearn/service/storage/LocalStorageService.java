@@ -1,9 +1,15 @@
 package com.barlarlar.myanmyanlearn.service.storage;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -13,7 +19,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-@Service
+@Service("storageBackend")
 @ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
 public class LocalStorageService implements StorageService {
     private final Path baseDir;
@@ -28,23 +34,67 @@ public class LocalStorageService implements StorageService {
 
     @Override
     public StoredObject put(String key, MultipartFile file) throws IOException {
-        if (key == null || key.isBlank()) {
-            throw new IOException("Invalid storage key.");
+        if (file instanceof PathMultipartFile pathFile && pathFile.path() != null) {
+            return putFile(key, pathFile.originalFilename(), pathFile.contentType(), pathFile.path());
         }
-        Files.createDirectories(baseDir);
+        try (InputStream in = file.getInputStream()) {
+            return putStream(key, file.getOriginalFilename(), file.getContentType(), in, file.getSize());
+        }
+    }
 
-        Path targetPath = baseDir.resolve(key).normalize();
-        if (!targetPath.startsWith(baseDir)) {
-            throw new IOException("Invalid upload path.");
+    @Override
+    public StoredObject putStream(String key, String originalFilename, String contentType, InputStream in,
+            long size) throws IOException {
+        Path targetPath = resolveUploadPath(key);
+        Path staging = stagingFileFor(targetPath);
+        try {
+            long written = Files.copy(in, staging, StandardCopyOption.REPLACE_EXISTING);
+            replaceWith(staging, targetPath);
+            return new StoredObject(key, publicBaseUrl + "/" + trimLeadingSlash(key), written, contentType, null);
+        } finally {
+            Files.deleteIfExists(staging);
         }
-        Path parent = targetPath.getParent();
-        if (parent != null) {
-            Files.createDirectories(parent);
+    }
+
+    @Override
+    public StoredObject putFile(String key, String originalFilename, String contentType, Path file)
+            throws IOException {
+        Path targetPath = resolveUploadPath(key);
+        Path staging = stagingFileFor(targetPath);
+        try {
+            long written;
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+                    FileChannel target = FileChannel.open(staging, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                written = transferAll(source, target);
+            }
+            replaceWith(staging, targetPath);
+            return new StoredObject(key, publicBaseUrl + "/" + trimLeadingSlash(key), written, contentType, null);
+        } finally {
+            Files.deleteIfExists(staging);
         }
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    }
 
-        String url = publicBaseUrl + "/" + trimLeadingSlash(key);
-        return new StoredObject(key, url);
+    @Override
+    public StoredObject copy(String sourceKey, String targetKey, String contentType) throws IOException {
+        Path sourcePath = resolveReadPath(sourceKey);
+        Path targetPath = resolveUploadPath(targetKey);
+        if (!sourcePath.equals(targetPath)) {
+            Path staging = stagingFileFor(targetPath);
+            try {
+                Files.delete(staging);
+                try {
+                    Files.createLink(staging, sourcePath);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(sourcePath, staging);
+                }
+                replaceWith(staging, targetPath);
+            } finally {
+                Files.deleteIfExists(staging);
+            }
+        }
+        return new StoredObject(targetKey, publicBaseUrl + "/" + trimLeadingSlash(targetKey), Files.size(targetPath),
+                contentType, null);
     }
 
     @Override
@@ -63,42 +113,56 @@ public class LocalStorageService implements StorageService {
         }
         List<Path> files = new ArrayList<>();
         try (Stream<Path> s = Files.walk(dir)) {
-            s.filter(Files::isRegularFile).forEach(files::add);
+            s.filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().startsWith(".upload-"))
+                    .forEach(files::add);
         }
-        files.sort(Comparator.comparingLong((Path x) -> {
-            try {
-                return Files.getLastModifiedTime(x).toMillis();
-            } catch (IOException e) {
-                return 0L;
-            }
-        }).reversed()
-                .thenComparing(Path::toString));
-
         List<StoredObject> out = new ArrayList<>(files.size());
         for (Path f : files) {
             Path rel = baseDir.relativize(f);
             String key = rel.toString().replace('\\', '/');
             String url = publicBaseUrl + "/" + trimLeadingSlash(key);
-            out.add(new StoredObject(key, url));
+            out.add(new StoredObject(key, url, Files.size(f), Files.probeContentType(f), null,
+                    Files.getLastModifiedTime(f).toInstant()));
         }
+        out.sort(Comparator.comparing(StoredObject::key));
         return out;
     }
 
     @Override
     public byte[] getBytes(String key) throws IOException {
-        String k = key != null ? key.trim() : "";
-        if (k.isBlank()) {
-            throw new IOException("Invalid storage key.");
+        return Files.readAllBytes(resolveReadPath(key));
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        return Files.newInputStream(resolveReadPath(key));
+    }
+
+    @Override
+    public long copyTo(String key, OutputStream out) throws IOException {
+        try (FileChannel source = FileChannel.open(resolveReadPath(key), StandardOpenOption.READ)) {
+            return transferAll(source, Channels.newChannel(out));
         }
-        k = trimLeadingSlash(k);
-        Path targetPath = baseDir.resolve(k).normalize();
-        if (!targetPath.startsWith(baseDir)) {
-            throw new IOException("Invalid read path.");
+    }
+
+    @Override
+    public long copyToFile(String key, Path target) throws IOException {
+        try (FileChannel source = FileChannel.open(resolveReadPath(key), StandardOpenOption.READ);
+                FileChannel sink = FileChannel.open(target, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return transferAll(source, sink);
         }
-        if (!Files.exists(targetPath) || Files.isDirectory(targetPath)) {
-            throw new IOException("File not found.");
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            resolveReadPath(key);
+            return true;
+        } catch (IOException e) {
+            return false;
         }
-        return Files.readAllBytes(targetPath);
     }
 
     @Override
@@ -141,6 +205,66 @@ public class LocalStorageService implements StorageService {
         return baseDir;
     }
 
+    private Path resolveUploadPath(String key) throws IOException {
+        if (key == null || key.isBlank()) {
+            throw new IOException("Invalid storage key.");
+        }
+        Files.createDirectories(baseDir);
+
+        Path targetPath = baseDir.resolve(key).normalize();
+        if (!targetPath.startsWith(baseDir)) {
+            throw new IOException("Invalid upload path.");
+        }
+        Path parent = targetPath.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return targetPath;
+    }
+
+    // Objects may share an inode with hard-linked copies, so writes always land on a fresh file that
+    // replaces the target instead of truncating it in place.
+    private static Path stagingFileFor(Path targetPath) throws IOException {
+        return Files.createTempFile(targetPath.getParent(), ".upload-", ".tmp");
+    }
+
+    private static void replaceWith(Path staging, Path targetPath) throws IOException {
+        try {
+            Files.move(staging, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (java.nio.file.AtomicMoveNotSupportedException e) {
+            Files.move(staging, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path resolveReadPath(String key) throws IOException {
+        String k = key != null ? key.trim() : "";
+        if (k.isBlank()) {
+            throw new IOException("Invalid storage key.");
+        }
+        k = trimLeadingSlash(k);
+        Path targetPath = baseDir.resolve(k).normalize();
+        if (!targetPath.startsWith(baseDir)) {
+            throw new IOException("Invalid read path.");
+        }
+        if (!Files.exists(targetPath) || Files.isDirectory(targetPath)) {
+            throw new IOException("File not found.");
+        }
+        return targetPath;
+    }
+
+    private static long transferAll(FileChannel source, WritableByteChannel target) throws IOException {
+        long size = source.size();
+        long position = 0L;
+        while (position < size) {
+            long transferred = source.transferTo(position, size - position, target);
+            if (transferred <= 0L) {
+                break;
+            }
+            position += transferred;
+        }
+        return position;
+    }
+
     private static String trimLeadingSlash(String v) {
         if (v == null) {
             return "";
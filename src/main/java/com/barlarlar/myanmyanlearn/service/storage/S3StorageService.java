@@ -2,18 +2,53 @@ package com.barlarlar.myanmyanlearn.service.storage;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-@Service
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetUrlRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+
+@Service("storageBackend")
 @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
-public class S3StorageService implements StorageService {
-    private final Object s3;
+public class S3StorageService implements StorageService, DisposableBean {
+    private final S3AsyncClient s3;
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
     private final String bucket;
     private final String keyPrefix;
     private final String publicUrlPrefix;
@@ -24,7 +59,12 @@ public class S3StorageService implements StorageService {
             @Value("${app.storage.s3.region:}") String region,
             @Value("${app.storage.s3.key-prefix:}") String keyPrefix,
             @Value("${app.storage.s3.public-url-prefix:}") String publicUrlPrefix,
-            @Value("${app.storage.s3.public-read:true}") boolean publicRead) {
+            @Value("${app.storage.s3.public-read:true}") boolean publicRead,
+            @Value("${app.storage.s3.endpoint:}") String endpoint,
+            @Value("${app.storage.s3.path-style-access:false}") boolean pathStyleAccess,
+            @Value("${app.storage.s3.max-connections:64}") int maxConnections,
+            @Value("${app.storage.s3.multipart-threshold-mb:16}") long multipartThresholdMb,
+            @Value("${app.storage.s3.multipart-part-size-mb:8}") long multipartPartSizeMb) {
         this.bucket = bucket != null ? bucket.trim() : "";
         if (this.bucket.isBlank()) {
             throw new IllegalArgumentException("Missing app.storage.s3.bucket");
@@ -33,16 +73,33 @@ public class S3StorageService implements StorageService {
         this.publicUrlPrefix = normalizeUrlPrefix(publicUrlPrefix);
         this.publicRead = publicRead;
 
-        this.s3 = createClient(region);
+        this.s3 = createClient(region, endpoint, pathStyleAccess, maxConnections, multipartThresholdMb,
+                multipartPartSizeMb);
     }
 
     @Override
     public StoredObject put(String key, MultipartFile file) throws IOException {
-        String logicalKey = normalizeObjectKey(trimLeadingSlash(key));
-        String objectKey = normalizeObjectKey(keyPrefix + logicalKey);
-        putObject(objectKey, file);
-        String url = buildPublicUrl(objectKey);
-        return new StoredObject(logicalKey, url);
+        if (file instanceof PathMultipartFile pathFile && pathFile.path() != null) {
+            return putFile(key, pathFile.originalFilename(), pathFile.contentType(), pathFile.path());
+        }
+        try (InputStream in = file.getInputStream()) {
+            return putStream(key, file.getOriginalFilename(), file.getContentType(), in, file.getSize());
+        }
+    }
+
+    @Override
+    public StoredObject putStream(String key, String originalFilename, String contentType, InputStream in,
+            long size) throws IOException {
+        if (size < 0L) {
+            return StorageService.super.putStream(key, originalFilename, contentType, in, size);
+        }
+        return putObject(key, contentType, size, AsyncRequestBody.fromInputStream(in, size, streamExecutor));
+    }
+
+    @Override
+    public StoredObject putFile(String key, String originalFilename, String contentType, Path file)
+            throws IOException {
+        return putObject(key, contentType, Files.size(file), AsyncRequestBody.fromFile(file));
     }
 
     @Override
@@ -53,103 +110,148 @@ public class S3StorageService implements StorageService {
         }
         String logicalPrefix = normalizeObjectKey(trimLeadingSlash(p));
         String objectPrefix = normalizeObjectKey(keyPrefix + logicalPrefix);
-        List<StoredObject> out = new ArrayList<>();
-        String token = null;
-        while (true) {
-            try {
-                Object reqBuilder = invokeStatic(
-                        "software.amazon.awssdk.services.s3.model.ListObjectsV2Request",
-                        "builder");
-                invoke(reqBuilder, "bucket", new Class<?>[] { String.class }, new Object[] { bucket });
-                invoke(reqBuilder, "prefix", new Class<?>[] { String.class }, new Object[] { objectPrefix });
-                if (token != null && !token.isBlank()) {
-                    invoke(reqBuilder, "continuationToken", new Class<?>[] { String.class }, new Object[] { token });
-                }
-                Object req = invoke(reqBuilder, "build");
-                Object resp = invoke(s3, "listObjectsV2", new Class<?>[] { req.getClass() }, new Object[] { req });
-                Object contents = invoke(resp, "contents");
-                if (contents instanceof Iterable<?> it) {
-                    for (Object o : it) {
-                        if (o == null) {
-                            continue;
-                        }
-                        Object keyObj = invoke(o, "key");
-                        String objectKey = keyObj != null ? String.valueOf(keyObj) : "";
-                        if (objectKey.isBlank()) {
-                            continue;
-                        }
-                        String logicalKey = objectKey;
-                        if (keyPrefix != null && !keyPrefix.isBlank() && logicalKey.startsWith(keyPrefix)) {
-                            logicalKey = logicalKey.substring(keyPrefix.length());
-                        }
-                        out.add(new StoredObject(logicalKey, buildPublicUrl(objectKey)));
-                    }
-                }
-                Object truncatedObj = invoke(resp, "isTruncated");
-                boolean truncated = truncatedObj instanceof Boolean b ? b.booleanValue() : false;
-                if (!truncated) {
-                    break;
-                }
-                Object tokenObj = invoke(resp, "nextContinuationToken");
-                token = tokenObj != null ? String.valueOf(tokenObj) : null;
-                if (token == null || token.isBlank()) {
-                    break;
-                }
-            } catch (Exception e) {
-                throw new IOException(e.getMessage(), e);
+
+        // Sub-prefixes are listed concurrently; continuation tokens only chain within a prefix.
+        List<String> subPrefixes = new ArrayList<>();
+        List<S3Object> objects = new ArrayList<>(await(listObjects(objectPrefix, "/", subPrefixes)));
+        List<CompletableFuture<List<S3Object>>> pending = new ArrayList<>(subPrefixes.size());
+        for (String subPrefix : subPrefixes) {
+            pending.add(listObjects(subPrefix, null, null));
+        }
+        for (CompletableFuture<List<S3Object>> future : pending) {
+            objects.addAll(await(future));
+        }
+        objects.sort(Comparator.comparing(S3Object::key));
+
+        List<StoredObject> out = new ArrayList<>(objects.size());
+        for (S3Object o : objects) {
+            String objectKey = o.key() != null ? o.key() : "";
+            if (objectKey.isBlank()) {
+                continue;
+            }
+            String logicalKey = objectKey;
+            if (keyPrefix != null && !keyPrefix.isBlank() && logicalKey.startsWith(keyPrefix)) {
+                logicalKey = logicalKey.substring(keyPrefix.length());
             }
+            long size = o.size() != null ? o.size() : -1L;
+            out.add(new StoredObject(logicalKey, buildPublicUrl(objectKey), size, null, o.eTag(), o.lastModified()));
         }
         return out;
     }
 
     @Override
-    public byte[] getBytes(String key) throws IOException {
-        String k = key != null ? key.trim() : "";
-        if (k.isBlank()) {
-            throw new IOException("Invalid storage key.");
-        }
-        String logicalKey = normalizeObjectKey(trimLeadingSlash(k));
+    public InputStream openStream(String key) throws IOException {
+        return await(s3.getObject(getObjectRequest(key), AsyncResponseTransformer.toBlockingInputStream()));
+    }
+
+    @Override
+    public long copyToFile(String key, Path target) throws IOException {
+        GetObjectResponse response = await(s3.getObject(getObjectRequest(key),
+                AsyncResponseTransformer.toFile(target, FileTransformerConfiguration.defaultCreateOrReplaceExisting())));
+        Long length = response.contentLength();
+        return length != null ? length : Files.size(target);
+    }
+
+    @Override
+    public StoredObject copy(String sourceKey, String targetKey, String contentType) throws IOException {
+        String logicalKey = normalizeObjectKey(trimLeadingSlash(targetKey));
         String objectKey = normalizeObjectKey(keyPrefix + logicalKey);
+        CopyObjectRequest.Builder req = CopyObjectRequest.builder()
+                .sourceBucket(bucket)
+                .sourceKey(objectKeyFor(sourceKey))
+                .destinationBucket(bucket)
+                .destinationKey(objectKey);
+        if (contentType != null && !contentType.isBlank()) {
+            req.contentType(contentType).metadataDirective(MetadataDirective.REPLACE);
+        }
+        if (publicRead) {
+            req.acl(ObjectCannedACL.PUBLIC_READ);
+        }
+        CopyObjectResponse response = await(s3.copyObject(req.build()));
+        String etag = response.copyObjectResult() != null ? response.copyObjectResult().eTag() : null;
+        return new StoredObject(logicalKey, buildPublicUrl(objectKey), -1L, contentType, etag);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
         try {
-            Object reqBuilder = invokeStatic(
-                    "software.amazon.awssdk.services.s3.model.GetObjectRequest",
-                    "builder");
-            invoke(reqBuilder, "bucket", new Class<?>[] { String.class }, new Object[] { bucket });
-            invoke(reqBuilder, "key", new Class<?>[] { String.class }, new Object[] { objectKey });
-            Object req = invoke(reqBuilder, "build");
-            Object resp = invoke(s3, "getObject", new Class<?>[] { req.getClass() }, new Object[] { req });
-            if (resp instanceof InputStream in) {
-                try (InputStream ignored = in) {
-                    return in.readAllBytes();
-                }
-            }
-            throw new IOException("Unsupported getObject response type.");
+            await(s3.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKeyFor(key))
+                    .build()));
+            return true;
         } catch (IOException e) {
+            if (e.getCause() instanceof S3Exception s3e && s3e.statusCode() == 404) {
+                return false;
+            }
             throw e;
-        } catch (Exception e) {
-            throw new IOException(e.getMessage(), e);
         }
     }
 
     @Override
     public void delete(String key) throws IOException {
+        await(s3.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKeyFor(key))
+                .build()));
+    }
+
+    @Override
+    public void destroy() {
+        s3.close();
+        streamExecutor.shutdownNow();
+    }
+
+    private StoredObject putObject(String key, String contentType, long size, AsyncRequestBody body)
+            throws IOException {
+        String logicalKey = normalizeObjectKey(trimLeadingSlash(key));
+        String objectKey = normalizeObjectKey(keyPrefix + logicalKey);
+        PutObjectRequest.Builder req = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .contentType(contentType);
+        if (publicRead) {
+            req.acl(ObjectCannedACL.PUBLIC_READ);
+        }
+        PutObjectResponse response = await(s3.putObject(req.build(), body));
+        return new StoredObject(logicalKey, buildPublicUrl(objectKey), size, contentType, response.eTag());
+    }
+
+    private CompletableFuture<List<S3Object>> listObjects(String objectPrefix, String delimiter,
+            List<String> commonPrefixes) {
+        ListObjectsV2Request.Builder req = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(objectPrefix);
+        if (delimiter != null) {
+            req.delimiter(delimiter);
+        }
+        List<S3Object> out = new ArrayList<>();
+        return s3.listObjectsV2Paginator(req.build()).subscribe(page -> {
+            out.addAll(page.contents());
+            if (commonPrefixes != null) {
+                for (CommonPrefix commonPrefix : page.commonPrefixes()) {
+                    if (commonPrefix.prefix() != null) {
+                        commonPrefixes.add(commonPrefix.prefix());
+                    }
+                }
+            }
+        }).thenApply(v -> out);
+    }
+
+    private GetObjectRequest getObjectRequest(String key) throws IOException {
+        return GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKeyFor(key))
+                .build();
+    }
+
+    private String objectKeyFor(String key) throws IOException {
         String k = key != null ? key.trim() : "";
         if (k.isBlank()) {
             throw new IOException("Invalid storage key.");
         }
         String logicalKey = normalizeObjectKey(trimLeadingSlash(k));
-        String objectKey = normalizeObjectKey(keyPrefix + logicalKey);
-        try {
-            Object reqBuilder = invokeStatic(
-                    "software.amazon.awssdk.services.s3.model.DeleteObjectRequest",
-                    "builder");
-            invoke(reqBuilder, "bucket", new Class<?>[] { String.class }, new Object[] { bucket });
-            invoke(reqBuilder, "key", new Class<?>[] { String.class }, new Object[] { objectKey });
-            Object req = invoke(reqBuilder, "build");
-            invoke(s3, "deleteObject", new Class<?>[] { req.getClass() }, new Object[] { req });
-        } catch (Exception e) {
-            throw new IOException(e.getMessage(), e);
-        }
+        return normalizeObjectKey(keyPrefix + logicalKey);
     }
 
     private String buildPublicUrl(String objectKey) {
@@ -157,88 +259,63 @@ public class S3StorageService implements StorageService {
             return publicUrlPrefix + "/" + objectKey;
         }
         try {
-            Object utilities = invoke(s3, "utilities");
-            Object getUrlReqBuilder = invokeStatic("software.amazon.awssdk.services.s3.model.GetUrlRequest", "builder");
-            invoke(getUrlReqBuilder, "bucket", new Class<?>[] { String.class }, new Object[] { bucket });
-            invoke(getUrlReqBuilder, "key", new Class<?>[] { String.class }, new Object[] { objectKey });
-            Object getUrlReq = invoke(getUrlReqBuilder, "build");
-            Object url = invoke(utilities, "getUrl", new Class<?>[] { getUrlReq.getClass() },
-                    new Object[] { getUrlReq });
-            return url != null ? url.toString() : "";
-        } catch (Exception e) {
+            return s3.utilities()
+                    .getUrl(GetUrlRequest.builder().bucket(bucket).key(objectKey).build())
+                    .toString();
+        } catch (RuntimeException e) {
             return "";
         }
     }
 
-    private Object createClient(String region) {
+    private static S3AsyncClient createClient(String region, String endpoint, boolean pathStyleAccess,
+            int maxConnections, long multipartThresholdMb, long multipartPartSizeMb) {
+        int connections = Math.max(1, maxConnections);
+        SdkAsyncHttpClient httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(connections)
+                .maxPendingConnectionAcquires(connections * 16)
+                .connectionAcquisitionTimeout(Duration.ofSeconds(30))
+                .connectionMaxIdleTime(Duration.ofSeconds(60))
+                .tcpKeepAlive(true)
+                .build();
+        long mb = 1024L * 1024L;
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .httpClient(httpClient)
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(Math.max(5L, multipartThresholdMb) * mb)
+                        .minimumPartSizeInBytes(Math.max(5L, multipartPartSizeMb) * mb)
+                        .build());
+        if (region != null && !region.isBlank()) {
+            builder.region(Region.of(region.trim()));
+        }
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint.trim()));
+        }
+        builder.forcePathStyle(pathStyleAccess);
         try {
-            Object builder = invokeStatic("software.amazon.awssdk.services.s3.S3Client", "builder");
-            if (region != null && !region.isBlank()) {
-                Object regionObj = invokeStatic(
-                        "software.amazon.awssdk.regions.Region",
-                        "of",
-                        new Class<?>[] { String.class },
-                        new Object[] { region.trim() });
-                invoke(builder, "region", new Class<?>[] { regionObj.getClass() }, new Object[] { regionObj });
-            }
-            return invoke(builder, "build");
-        } catch (Exception e) {
+            return builder.build();
+        } catch (RuntimeException e) {
+            httpClient.close();
             throw new IllegalStateException("Failed to create S3 client: " + e.getMessage(), e);
         }
     }
 
-    private void putObject(String objectKey, MultipartFile file) throws IOException {
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
         try {
-            Object reqBuilder = invokeStatic("software.amazon.awssdk.services.s3.model.PutObjectRequest", "builder");
-            invoke(reqBuilder, "bucket", new Class<?>[] { String.class }, new Object[] { bucket });
-            invoke(reqBuilder, "key", new Class<?>[] { String.class }, new Object[] { objectKey });
-            invoke(reqBuilder, "contentType", new Class<?>[] { String.class }, new Object[] { file.getContentType() });
-            if (publicRead) {
-                Object acl = getStaticField("software.amazon.awssdk.services.s3.model.ObjectCannedACL", "PUBLIC_READ");
-                invoke(reqBuilder, "acl", new Class<?>[] { acl.getClass() }, new Object[] { acl });
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("S3 request interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException io) {
+                throw io;
             }
-            Object req = invoke(reqBuilder, "build");
-
-            Object requestBody = invokeStatic(
-                    "software.amazon.awssdk.core.sync.RequestBody",
-                    "fromInputStream",
-                    new Class<?>[] { java.io.InputStream.class, long.class },
-                    new Object[] { file.getInputStream(), file.getSize() });
-            invoke(s3, "putObject", new Class<?>[] { req.getClass(), requestBody.getClass() },
-                    new Object[] { req, requestBody });
-        } catch (Exception e) {
-            throw new IOException(e.getMessage(), e);
+            throw new IOException(cause.getMessage(), cause);
         }
     }
 
-    private static Object invoke(Object target, String name) throws Exception {
-        Method m = target.getClass().getMethod(name);
-        return m.invoke(target);
-    }
-
-    private static Object invoke(Object target, String name, Class<?>[] paramTypes, Object[] args) throws Exception {
-        Method m = target.getClass().getMethod(name, paramTypes);
-        return m.invoke(target, args);
-    }
-
-    private static Object invokeStatic(String className, String name) throws Exception {
-        Class<?> c = Class.forName(className);
-        Method m = c.getMethod(name);
-        return m.invoke(null);
-    }
-
-    private static Object invokeStatic(String className, String name, Class<?>[] paramTypes, Object[] args)
-            throws Exception {
-        Class<?> c = Class.forName(className);
-        Method m = c.getMethod(name, paramTypes);
-        return m.invoke(null, args);
-    }
-
-    private static Object getStaticField(String className, String fieldName) throws Exception {
-        Class<?> c = Class.forName(className);
-        return c.getField(fieldName).get(null);
-    }
-
     private static String normalizeKeyPrefix(String v) {
         String s = v == null ? "" : v.trim();
         if (s.isBlank()) {
@@ -0,0 +1,365 @@
+package com.barlarlar.myanmyanlearn.service.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.barlarlar.myanmyanlearn.entity.StorageAssetEntity;
+import com.barlarlar.myanmyanlearn.repository.StorageAssetRepository;
+
+/**
+ * Database index of stored keys. A row either describes an object the backend
+ * holds under its own key ({@code content_hash} null, kept in sync by the
+ * reconciler) or links a logical key to a content-addressed blob, counted in
+ * {@code storage_blobs}. Blob counts change under the blob row's lock, in the
+ * same transaction as the link, and the blob is deleted when its count reaches
+ * zero.
+ */
+@Slf4j
+@Service
+public class StorageAssetIndex {
+    private static final String UPSERT_SQL = """
+            insert into storage_assets
+            (storage_key, course_folder, chapter_folder, target_folder, url, size_bytes, content_type, etag,
+            content_hash, last_modified, created_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on duplicate key update url = values(url), size_bytes = coalesce(values(size_bytes), size_bytes),
+            content_type = coalesce(values(content_type), content_type), etag = values(etag),
+            content_hash = values(content_hash),
+            last_modified = coalesce(values(last_modified), last_modified), updated_at = values(updated_at)""";
+
+    // Rows for objects the backend holds under their own key never overwrite a row that links a blob.
+    private static final String OBJECT_UPSERT_SQL = """
+            insert into storage_assets
+            (storage_key, course_folder, chapter_folder, target_folder, url, size_bytes, content_type, etag,
+            content_hash, last_modified, created_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on duplicate key update url = if(content_hash is null, values(url), url),
+            size_bytes = if(content_hash is null, coalesce(values(size_bytes), size_bytes), size_bytes),
+            content_type = if(content_hash is null, coalesce(values(content_type), content_type), content_type),
+            etag = if(content_hash is null, values(etag), etag),
+            last_modified = if(content_hash is null, coalesce(values(last_modified), last_modified), last_modified),
+            updated_at = values(updated_at)""";
+
+    private final StorageService backend;
+    private final StorageAssetRepository storageAssetRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<String> reconcilePrefixes;
+    private volatile boolean ready;
+    // Keys removed while a reconcile pass runs; the pass may have listed them before the delete.
+    private final Set<String> removedDuringReconcile = ConcurrentHashMap.newKeySet();
+    private volatile boolean reconciling;
+
+    public record IndexedAsset(StorageService.StoredObject object, String contentHash) {
+        public boolean linked() {
+            return contentHash != null;
+        }
+    }
+
+    @FunctionalInterface
+    public interface StorageAction {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface BlobDeleter {
+        void delete(String contentHash) throws IOException;
+    }
+
+    public StorageAssetIndex(
+            @Qualifier("storageBackend") StorageService backend,
+            StorageAssetRepository storageAssetRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.storage.index.prefixes:courses/,profiles/}") List<String> reconcilePrefixes) {
+        this.backend = backend;
+        this.storageAssetRepository = storageAssetRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> prefixes = new ArrayList<>();
+        for (String p : reconcilePrefixes) {
+            String v = p != null ? p.trim() : "";
+            if (!v.isBlank()) {
+                prefixes.add(v.endsWith("/") ? v : v + "/");
+            }
+        }
+        this.reconcilePrefixes = List.copyOf(prefixes);
+    }
+
+    public boolean covers(String prefix) {
+        if (!ready || prefix == null) {
+            return false;
+        }
+        for (String p : reconcilePrefixes) {
+            if (prefix.startsWith(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<StorageService.StoredObject> list(String prefix) {
+        List<StorageService.StoredObject> out = new ArrayList<>();
+        for (StorageAssetEntity a : storageAssetRepository.findByStorageKeyStartingWith(prefix)) {
+            out.add(toStoredObject(a));
+        }
+        // Sorted here rather than in SQL, whose collation may not order keys like String.compareTo.
+        out.sort(Comparator.comparing(StorageService.StoredObject::key));
+        return out;
+    }
+
+    /** Logical keys under {@code prefix} that link a blob, in key order. */
+    public List<StorageService.StoredObject> listLinked(String prefix) {
+        List<StorageService.StoredObject> out = new ArrayList<>();
+        for (StorageAssetEntity a : storageAssetRepository.findByStorageKeyStartingWithAndContentHashIsNotNull(prefix)) {
+            out.add(toStoredObject(a));
+        }
+        out.sort(Comparator.comparing(StorageService.StoredObject::key));
+        return out;
+    }
+
+    public IndexedAsset find(String key) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        try {
+            StorageAssetEntity a = storageAssetRepository.findById(key.trim()).orElse(null);
+            return a != null ? new IndexedAsset(toStoredObject(a), a.getContentHash()) : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Indexes an object the backend holds under its own key. */
+    public void record(StorageService.StoredObject stored) {
+        if (stored == null || stored.key() == null || stored.key().isBlank()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            upsert(OBJECT_UPSERT_SQL, List.of(stored.lastModified() != null ? stored : withLastModified(stored, now)),
+                    null, now);
+        } catch (RuntimeException e) {
+            log.warn("Failed to index storage object {}", stored.key(), e);
+        }
+    }
+
+    /**
+     * Points {@code stored.key()} at the blob {@code contentHash}, counting the
+     * reference, and releases the blob the key linked before. {@code ensureBlob}
+     * runs while the blob row is locked, so a concurrent release cannot delete
+     * the blob between the existence check and the link.
+     */
+    public void link(StorageService.StoredObject stored, String contentHash, StorageAction ensureBlob,
+            BlobDeleter deleteBlob) throws IOException {
+        inTransaction(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update("""
+                    insert into storage_blobs (content_hash, size_bytes, ref_count, created_at, updated_at)
+                    values (?, ?, 1, ?, ?)
+                    on duplicate key update ref_count = ref_count + 1, updated_at = values(updated_at)""",
+                    contentHash, stored.size() >= 0L ? stored.size() : null, Timestamp.valueOf(now),
+                    Timestamp.valueOf(now));
+            ensureBlob.run();
+            List<String> previous = jdbcTemplate.queryForList(
+                    "select content_hash from storage_assets where storage_key = ? for update", String.class,
+                    stored.key());
+            upsert(UPSERT_SQL, List.of(stored.lastModified() != null ? stored : withLastModified(stored, now)),
+                    contentHash, now);
+            if (!previous.isEmpty() && previous.get(0) != null) {
+                release(previous.get(0), deleteBlob);
+            }
+        });
+    }
+
+    /**
+     * Removes a key that links a blob and releases the blob, deleting it at
+     * zero references. Returns false, changing nothing, when the key does not
+     * link a blob.
+     */
+    public boolean unlink(String key, BlobDeleter deleteBlob) throws IOException {
+        boolean[] linked = { false };
+        inTransaction(() -> {
+            List<String> hashes = jdbcTemplate.queryForList(
+                    "select content_hash from storage_assets where storage_key = ? for update", String.class, key);
+            if (hashes.isEmpty() || hashes.get(0) == null) {
+                return;
+            }
+            linked[0] = true;
+            jdbcTemplate.update("delete from storage_assets where storage_key = ?", key);
+            release(hashes.get(0), deleteBlob);
+        });
+        return linked[0];
+    }
+
+    /** Drops the row of an object the backend holds under its own key; rows linking a blob are kept. */
+    public void remove(String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        if (reconciling) {
+            removedDuringReconcile.add(key.trim());
+        }
+        try {
+            jdbcTemplate.update("delete from storage_assets where storage_key = ? and content_hash is null",
+                    key.trim());
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove storage object {} from index", key, e);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.index.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.storage.index.reconcile-interval-ms:3600000}")
+    public synchronized void reconcile() {
+        reconciling = true;
+        try {
+            for (String prefix : reconcilePrefixes) {
+                reconcilePrefix(prefix);
+            }
+            ready = true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Storage index reconciliation failed", e);
+        } finally {
+            reconciling = false;
+            removedDuringReconcile.clear();
+        }
+    }
+
+    private void reconcilePrefix(String prefix) throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<StorageService.StoredObject> actual = backend.list(prefix);
+        upsert(OBJECT_UPSERT_SQL, actual, null, startedAt);
+        // A key deleted after the listing was re-inserted above with the pass timestamp, so the
+        // sweep below would keep it; drop it again once the backend confirms it is gone.
+        for (StorageService.StoredObject o : actual) {
+            if (o != null && o.key() != null && removedDuringReconcile.contains(o.key()) && !backend.exists(o.key())) {
+                remove(o.key());
+            }
+        }
+        // Rows written by concurrent puts carry a later timestamp and survive the sweep; rows linking a
+        // blob have no backend object of their own and are never swept.
+        jdbcTemplate.update("""
+                delete from storage_assets where storage_key like ? escape '!' and updated_at < ?
+                and content_hash is null""", escapeLike(prefix) + "%", Timestamp.valueOf(startedAt));
+    }
+
+    private void release(String contentHash, BlobDeleter deleteBlob) throws IOException {
+        List<Integer> counts = jdbcTemplate.queryForList(
+                "select ref_count from storage_blobs where content_hash = ? for update", Integer.class, contentHash);
+        if (counts.isEmpty()) {
+            return;
+        }
+        if (counts.get(0) > 1) {
+            jdbcTemplate.update(
+                    "update storage_blobs set ref_count = ref_count - 1, updated_at = ? where content_hash = ?",
+                    Timestamp.valueOf(LocalDateTime.now()), contentHash);
+            return;
+        }
+        // Still under the row lock: a link of the same content waits and then uploads the blob again.
+        deleteBlob.delete(contentHash);
+        jdbcTemplate.update("delete from storage_blobs where content_hash = ?", contentHash);
+    }
+
+    private void inTransaction(StorageAction action) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    action.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void upsert(String sql, List<StorageService.StoredObject> objects, String contentHash,
+            LocalDateTime now) {
+        List<StorageService.StoredObject> rows = new ArrayList<>();
+        for (StorageService.StoredObject o : objects) {
+            if (o != null && o.key() != null && !o.key().isBlank()) {
+                rows.add(o);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp ts = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(sql, rows, 500, (ps, o) -> {
+            String[] folders = folders(o.key());
+            ps.setString(1, o.key());
+            ps.setString(2, folders[0]);
+            ps.setString(3, folders[1]);
+            ps.setString(4, folders[2]);
+            ps.setString(5, o.url());
+            if (o.size() >= 0L) {
+                ps.setLong(6, o.size());
+            } else {
+                ps.setNull(6, java.sql.Types.BIGINT);
+            }
+            ps.setString(7, o.contentType());
+            ps.setString(8, o.etag());
+            ps.setString(9, contentHash);
+            ps.setTimestamp(10, o.lastModified() != null
+                    ? Timestamp.valueOf(LocalDateTime.ofInstant(o.lastModified(), ZoneId.systemDefault()))
+                    : null);
+            ps.setTimestamp(11, ts);
+            ps.setTimestamp(12, ts);
+        });
+    }
+
+    private static StorageService.StoredObject toStoredObject(StorageAssetEntity a) {
+        long size = a.getSizeBytes() != null ? a.getSizeBytes() : -1L;
+        return new StorageService.StoredObject(a.getStorageKey(), a.getUrl(), size, a.getContentType(), a.getEtag(),
+                a.getLastModified() != null ? a.getLastModified().atZone(ZoneId.systemDefault()).toInstant() : null);
+    }
+
+    private static StorageService.StoredObject withLastModified(StorageService.StoredObject o, LocalDateTime at) {
+        return new StorageService.StoredObject(o.key(), o.url(), o.size(), o.contentType(), o.etag(),
+                at.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static String[] folders(String key) {
+        String[] out = new String[3];
+        String[] parts = key.split("/");
+        if (parts.length > 1 && "courses".equals(parts[0])) {
+            out[0] = parts[1];
+            if (parts.length > 4 && "markdown-editor".equals(parts[2])) {
+                out[1] = parts[3];
+                out[2] = parts[4];
+            }
+        }
+        return out;
+    }
+
+    private static String escapeLike(String v) {
+        return v.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
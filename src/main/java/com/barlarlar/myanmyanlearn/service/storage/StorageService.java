@@ -3,6 +3,11 @@ package com.barlarlar.myanmyanlearn.service.storage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,15 +23,126 @@ public interface StorageService {
         return put(key, new InMemoryMultipartFile(name, ct, data));
     }
 
+    default StoredObject putFile(String key, String originalFilename, String contentType, Path file)
+            throws IOException {
+        String name = originalFilename != null ? originalFilename : "file";
+        String ct = contentType != null ? contentType : "application/octet-stream";
+        return put(key, new PathMultipartFile(name, ct, file));
+    }
+
+    default StoredObject putStream(String key, String originalFilename, String contentType, InputStream in,
+            long size) throws IOException {
+        Path spool = Files.createTempFile("storage-put-", ".tmp");
+        try {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            return putFile(key, originalFilename, contentType, spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /** Objects whose key starts with {@code prefix}, in ascending key order ({@link String#compareTo}). */
     List<StoredObject> list(String prefix) throws IOException;
 
     default byte[] getBytes(String key) throws IOException {
+        try (InputStream in = openStream(key)) {
+            return in.readAllBytes();
+        }
+    }
+
+    default InputStream openStream(String key) throws IOException {
         throw new IOException("Storage read not supported.");
     }
 
+    default long copyTo(String key, OutputStream out) throws IOException {
+        try (InputStream in = openStream(key)) {
+            return in.transferTo(out);
+        }
+    }
+
+    default long copyToFile(String key, Path target) throws IOException {
+        try (InputStream in = openStream(key)) {
+            return Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    default StoredObject copy(String sourceKey, String targetKey, String contentType) throws IOException {
+        try (InputStream in = openStream(sourceKey)) {
+            return putStream(targetKey, null, contentType, in, -1L);
+        }
+    }
+
+    default boolean exists(String key) throws IOException {
+        try (InputStream in = openStream(key)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     void delete(String key) throws IOException;
 
-    record StoredObject(String key, String url) {
+    record StoredObject(String key, String url, long size, String contentType, String etag, Instant lastModified) {
+        public StoredObject(String key, String url, long size, String contentType, String etag) {
+            this(key, url, size, contentType, etag, null);
+        }
+
+        public StoredObject(String key, String url) {
+            this(key, url, -1L, null, null, null);
+        }
+    }
+
+    record PathMultipartFile(String originalFilename, String contentType, Path path) implements MultipartFile {
+        @Override
+        @org.springframework.lang.NonNull
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        @org.springframework.lang.NonNull
+        public String getOriginalFilename() {
+            return originalFilename != null ? originalFilename : "";
+        }
+
+        @Override
+        @org.springframework.lang.NonNull
+        public String getContentType() {
+            return contentType != null ? contentType : "";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0L;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return path != null ? Files.size(path) : 0L;
+            } catch (IOException e) {
+                return 0L;
+            }
+        }
+
+        @Override
+        @org.springframework.lang.NonNull
+        public byte[] getBytes() throws IOException {
+            return path != null ? Files.readAllBytes(path) : new byte[0];
+        }
+
+        @Override
+        @org.springframework.lang.NonNull
+        public InputStream getInputStream() throws IOException {
+            return path != null ? Files.newInputStream(path) : InputStream.nullInputStream();
+        }
+
+        @Override
+        public void transferTo(@org.springframework.lang.NonNull java.io.File dest)
+                throws IOException, IllegalStateException {
+            Objects.requireNonNull(dest, "dest");
+            Files.copy(Objects.requireNonNull(path, "path"), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     record InMemoryMultipartFile(String originalFilename, String contentType, byte[] bytes) implements MultipartFile {
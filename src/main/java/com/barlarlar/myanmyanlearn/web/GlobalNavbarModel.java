@@ -1,7 +1,6 @@
 package com.barlarlar.myanmyanlearn.web;
 
-import com.barlarlar.myanmyanlearn.entity.Member;
-import com.barlarlar.myanmyanlearn.repository.MemberRepository;
+import com.barlarlar.myanmyanlearn.service.CurrentMemberService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
@@ -19,7 +18,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class GlobalNavbarModel {
 
-    private final MemberRepository memberRepository;
+    private final CurrentMemberService currentMemberService;
     private final MessageSource messageSource;
 
     @ModelAttribute
@@ -59,21 +58,20 @@ public class GlobalNavbarModel {
         // Try to enrich with Member info if available
         if (username != null) {
             try {
-                Optional<Member> memberOpt = memberRepository != null ? memberRepository.findById(username)
-                        : Optional.empty();
+                Optional<CurrentMemberService.CurrentMember> memberOpt = currentMemberService.find(username);
                 if (memberOpt.isPresent()) {
-                    Member m = memberOpt.get();
-                    String fullName = getFullName(m.getFirstName(), m.getLastName());
-                    String nameInitials = computeInitialsFromName(m.getFirstName(), m.getLastName());
+                    CurrentMemberService.CurrentMember m = memberOpt.get();
+                    String fullName = getFullName(m.firstName(), m.lastName());
+                    String nameInitials = computeInitialsFromName(m.firstName(), m.lastName());
 
-                    if (!model.containsAttribute("userFirstName") && m.getFirstName() != null) {
-                        model.addAttribute("userFirstName", m.getFirstName());
+                    if (!model.containsAttribute("userFirstName") && m.firstName() != null) {
+                        model.addAttribute("userFirstName", m.firstName());
                     }
-                    if (!model.containsAttribute("userLastName") && m.getLastName() != null) {
-                        model.addAttribute("userLastName", m.getLastName());
+                    if (!model.containsAttribute("userLastName") && m.lastName() != null) {
+                        model.addAttribute("userLastName", m.lastName());
                     }
-                    if (!model.containsAttribute("userEmail") && m.getEmail() != null) {
-                        model.addAttribute("userEmail", m.getEmail());
+                    if (!model.containsAttribute("userEmail") && m.email() != null) {
+                        model.addAttribute("userEmail", m.email());
                     }
                     if (!model.containsAttribute("userFullName") && fullName != null) {
                         model.addAttribute("userFullName", fullName);
@@ -81,8 +79,8 @@ public class GlobalNavbarModel {
                     if (!model.containsAttribute("userInitials") && nameInitials != null) {
                         model.addAttribute("userInitials", nameInitials);
                     }
-                    if (!model.containsAttribute("userProfileImage") && m.getProfileImage() != null) {
-                        model.addAttribute("userProfileImage", m.getProfileImage());
+                    if (!model.containsAttribute("userProfileImage") && m.profileImage() != null) {
+                        model.addAttribute("userProfileImage", m.profileImage());
                     }
                     // Prefer display name from member if not set
                     if (displayName == null)
@@ -0,0 +1,159 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class AssessmentScoreJsonMergerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void streamingMergeMatchesTreeMerge() throws Exception {
+        Random random = new Random(20261018L);
+        for (int i = 0; i < 5000; i++) {
+            String existing = random.nextInt(10) == 0 ? null : document(random);
+            String incoming = random.nextInt(20) == 0 ? null : document(random);
+            assertThat(AssessmentScoreJsonMerger.mergeByChapterNo(existing, incoming))
+                    .as("existing=%s incoming=%s", existing, incoming)
+                    .isEqualTo(treeMerge(existing, incoming));
+        }
+    }
+
+    @Test
+    void courseIdAfterChaptersIsWrittenFirst() throws Exception {
+        String existing = "{\"chapters\":[{\"chapter_no\":1,\"questions\":[]}],\"courseId\":\"c1\"}";
+        String incoming = "{\"chapters\":[{\"chapter_no\":2,\"questions\":[]}]}";
+        assertThat(AssessmentScoreJsonMerger.mergeByChapterNo(existing, incoming)).isEqualTo(
+                "{\"courseId\":\"c1\",\"chapters\":[{\"chapter_no\":1,\"questions\":[]},"
+                        + "{\"chapter_no\":2,\"questions\":[]}]}");
+    }
+
+    @Test
+    void repeatedKeysKeepFirstPositionAndLastValue() throws Exception {
+        String existing = "{\"chapters\":[{\"chapter_no\":1,\"v\":\"a\",\"q\":{\"x\":1,\"y\":2,\"x\":3},"
+                + "\"v\":\"b\"}]}";
+        String incoming = "{\"chapters\":[{\"chapter_no\":2,\"w\":1,\"chapter_no\":\"3\",\"w\":2}]}";
+        assertThat(AssessmentScoreJsonMerger.mergeByChapterNo(existing, incoming)).isEqualTo(
+                "{\"chapters\":[{\"chapter_no\":1,\"v\":\"b\",\"q\":{\"x\":3,\"y\":2}},"
+                        + "{\"chapter_no\":3,\"w\":2}]}");
+        assertThat(AssessmentScoreJsonMerger.mergeByChapterNo(existing, incoming))
+                .isEqualTo(treeMerge(existing, incoming));
+    }
+
+    @Test
+    void repeatedStoredChapterIsReplacedAtLastOccurrence() throws Exception {
+        String existing = "{\"chapters\":[{\"chapter_no\":1,\"v\":\"a\"},{\"chapter_no\":2},"
+                + "{\"chapter_no\":\"1\",\"v\":\"b\"}]}";
+        String incoming = "{\"chapters\":[{\"chapter_no\":1,\"v\":\"new\"}]}";
+        assertThat(AssessmentScoreJsonMerger.mergeByChapterNo(existing, incoming)).isEqualTo(
+                "{\"chapters\":[{\"chapter_no\":1,\"v\":\"a\"},{\"chapter_no\":2},{\"chapter_no\":1,\"v\":\"new\"}]}");
+        assertThat(AssessmentScoreJsonMerger.mergeByChapterNo(existing, incoming))
+                .isEqualTo(treeMerge(existing, incoming));
+    }
+
+    private static String treeMerge(String existing, String incoming) throws Exception {
+        JsonNode existingNode = existing != null ? MAPPER.readTree(existing) : null;
+        JsonNode incomingNode = incoming != null ? MAPPER.readTree(incoming) : null;
+        return MAPPER.writeValueAsString(AssessmentScoreJsonMerger.mergeByChapterNo(existingNode, incomingNode));
+    }
+
+    // Documents around the scorer's shape: shuffled top-level and chapter fields, repeated and
+    // malformed chapter numbers, non-object entries, and keys repeated within an object at any level.
+    private static String document(Random random) {
+        if (random.nextInt(30) == 0) {
+            return "[]";
+        }
+        List<String> fields = new ArrayList<>();
+        switch (random.nextInt(5)) {
+            case 0 -> fields.add("\"courseId\":null");
+            case 1 -> fields.add("\"courseId\":" + random.nextInt(3));
+            case 2 -> {
+            }
+            default -> fields.add("\"courseId\":\"c" + random.nextInt(3) + "\"");
+        }
+        switch (random.nextInt(8)) {
+            case 0 -> {
+            }
+            case 1 -> fields.add("\"chapters\":\"none\"");
+            default -> fields.add("\"chapters\":" + chapters(random));
+        }
+        if (random.nextInt(4) == 0) {
+            fields.add("\"meta\":{\"chapters\":[{\"chapter_no\":1}],\"courseId\":\"x\"}");
+        }
+        repeatKeys(random, fields);
+        Collections.shuffle(fields, random);
+        return "{" + String.join(",", fields) + "}";
+    }
+
+    private static String chapters(Random random) {
+        List<String> out = new ArrayList<>();
+        int count = random.nextInt(6);
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(12)) {
+                case 0 -> out.add("null");
+                case 1 -> out.add("\"chapter\"");
+                default -> out.add(chapter(random));
+            }
+        }
+        return "[" + String.join(",", out) + "]";
+    }
+
+    private static String chapter(Random random) {
+        List<String> fields = new ArrayList<>();
+        switch (random.nextInt(12)) {
+            case 0 -> {
+            }
+            case 1 -> fields.add("\"chapter_no\":null");
+            case 2 -> fields.add("\"chapter_no\":\"x\"");
+            case 3 -> fields.add("\"chapter_no\":1.5");
+            case 4 -> fields.add("\"chapter_no\":\" " + (1 + random.nextInt(4)) + " \"");
+            case 5 -> fields.add("\"chapter_no\":4294967298");
+            default -> fields.add("\"chapter_no\":" + (1 + random.nextInt(4)));
+        }
+        List<String> questions = new ArrayList<>();
+        int count = random.nextInt(3);
+        for (int q = 1; q <= count; q++) {
+            List<String> question = new ArrayList<>();
+            question.add("\"question_no\":" + q);
+            question.add("\"slopes\":[{\"slope_no\":1,\"is_correct\":" + random.nextBoolean() + "}]");
+            repeatKeys(random, question);
+            questions.add("{" + String.join(",", question) + "}");
+        }
+        fields.add("\"questions\":[" + String.join(",", questions) + "]");
+        if (random.nextBoolean()) {
+            fields.add("\"title\":\"t" + random.nextInt(100) + "\"");
+        }
+        if (random.nextInt(4) == 0) {
+            fields.add("\"score\":" + NUMBERS[random.nextInt(NUMBERS.length)]);
+        }
+        repeatKeys(random, fields);
+        Collections.shuffle(fields, random);
+        return "{" + String.join(",", fields) + "}";
+    }
+
+    private static final String[] NUMBERS = { "0", "-0", "1.50", "1e2", "0.0", "-3", "12345678901234567890" };
+
+    // Sometimes adds a second field under the name of an existing one, with a different value.
+    private static void repeatKeys(Random random, List<String> fields) {
+        if (fields.isEmpty() || random.nextInt(3) != 0) {
+            return;
+        }
+        String field = fields.get(random.nextInt(fields.size()));
+        String name = field.substring(0, field.indexOf(':'));
+        String value = switch (random.nextInt(4)) {
+            case 0 -> "null";
+            case 1 -> "\"r" + random.nextInt(10) + "\"";
+            case 2 -> String.valueOf(1 + random.nextInt(4));
+            default -> "{\"k\":1,\"k\":[" + random.nextInt(3) + "]}";
+        };
+        fields.add(name + ":" + value);
+    }
+}
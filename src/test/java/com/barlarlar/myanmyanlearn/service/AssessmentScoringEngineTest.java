@@ -0,0 +1,362 @@
+package com.barlarlar.myanmyanlearn.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.barlarlar.myanmyanlearn.model.Question;
+import com.barlarlar.myanmyanlearn.model.QuestionOption;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class AssessmentScoringEngineTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int[] OPTION_INDICES = { 0, 1, 2, 3, 63, 64, 100, -1, -7, Integer.MAX_VALUE };
+    private static final float[] MARKS = { 1f, 2f, 0.5f, 0.1f, 10f };
+
+    private final AssessmentScoringEngine engine = new AssessmentScoringEngine();
+
+    @Test
+    void scoreMatchesControllerAlgorithm() throws Exception {
+        Random random = new Random(20261018L);
+        for (int i = 0; i < 3000; i++) {
+            List<Question> questions = new ArrayList<>();
+            int count = random.nextInt(7);
+            for (int q = 0; q < count; q++) {
+                questions.add(question(random));
+            }
+            String courseId = switch (random.nextInt(4)) {
+                case 0 -> null;
+                case 1 -> "";
+                default -> "c" + random.nextInt(3);
+            };
+            List<Question> ordered = new ArrayList<>(questions);
+            ordered.sort(Comparator.<Question>comparingInt(q -> parseChapterOrder(q.getChapterId()))
+                    .thenComparingInt(Question::getQuestionNumber));
+            Map<String, String> params = params(random, ordered);
+            assertMatches(courseId, questions, params, "case " + i + " params=" + params);
+        }
+    }
+
+    @Test
+    void multiSlotMarksRoundHalfUpPerSlot() throws Exception {
+        Question q = new WeightedQuestion(2f);
+        q.setChapterId("1");
+        q.setQuestionNumber(1);
+        q.setSlotOptions(List.of(
+                List.of(option(0, "a", true), option(1, "b", false)),
+                List.of(option(0, "c", false), option(1, "d", true)),
+                List.of(option(0, "e", true), option(1, "f", false))));
+        Map<String, String> params = Map.of("q1-s1", "0", "q1-s2", "1", "q1-s3", "1");
+
+        AssessmentScoringEngine.ScoreResult result = engine.score(engine.compile("c1", List.of(q)), params);
+
+        assertThat(result.yourScore()).isEqualTo("1.333334");
+        assertMatches("c1", List.of(q), params, "multi-slot");
+    }
+
+    @Test
+    void correctIndicesOutsideMaskRangeAreScored() throws Exception {
+        Question q = new Question();
+        q.setChapterId("2");
+        q.setQuestionNumber(1);
+        q.setSlotOptions(List.of(
+                List.of(option(100, "far", true), option(3, "near", false)),
+                List.of(option(-7, "negative", true), option(64, "edge", true))));
+        Map<String, String> params = Map.of("q1-s1", "100", "q1-s2", "-7");
+
+        AssessmentScoringEngine.ScoreResult result = engine.score(engine.compile("c1", List.of(q)), params);
+
+        assertThat(result.yourScore()).isEqualTo("2");
+        assertMatches("c1", List.of(q), params, "sparse");
+    }
+
+    @Test
+    void missingAndGarbageParamsSelectNothing() throws Exception {
+        Question q = new Question();
+        q.setChapterId("1");
+        q.setQuestionNumber(1);
+        q.setOptions(List.of(option(0, "a", true), option(1, "b", false)));
+        Map<String, String> params = new HashMap<>();
+        params.put("q1-s1", "zero");
+        params.put("q01-s1", "0");
+        params.put("q1-s01", "0");
+        params.put("q2-s1", "0");
+        params.put("chapters", "1");
+
+        AssessmentScoringEngine.ScoreResult result = engine.score(engine.compile("c1", List.of(q)), params);
+
+        assertThat(result.yourScore()).isEqualTo("0");
+        assertThat(result.scoredQuestions().get(0).getSlots().get(0).getSelectedIndex()).isEqualTo(-1);
+        assertMatches("c1", List.of(q), params, "garbage");
+        assertMatches("c1", List.of(q), Map.of(), "missing");
+    }
+
+    private void assertMatches(String courseId, List<Question> questions, Map<String, String> params,
+            String description) throws Exception {
+        Legacy expected = legacyScore(courseId, new ArrayList<>(questions), params);
+        AssessmentScoringEngine.AnswerSheet sheet = engine.compile(courseId, questions);
+        AssessmentScoringEngine.ScoreResult result = engine.score(sheet, params);
+
+        assertThat(sheet.totalPossible()).as(description).isEqualTo(expected.totalPossible());
+        assertThat(result.yourScore()).as(description).isEqualTo(expected.yourScore());
+        assertThat(MAPPER.writeValueAsString(result.toScoreJson())).as(description)
+                .isEqualTo(MAPPER.writeValueAsString(expected.scoreJson()));
+
+        List<AssessmentScoringEngine.QuestionView> views = result.scoredQuestions();
+        assertThat(views.size()).as(description).isEqualTo(expected.scoredQuestions().size());
+        for (int i = 0; i < views.size(); i++) {
+            AssessmentScoringEngine.QuestionView view = views.get(i);
+            Map<String, Object> legacy = expected.scoredQuestions().get(i);
+            assertThat(view.getQ()).as(description).isSameAs(legacy.get("q"));
+            assertThat(view.getIndex()).as(description).isEqualTo(legacy.get("index"));
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> legacySlots = (List<Map<String, Object>>) legacy.get("slots");
+            List<AssessmentScoringEngine.SlotView> slots = view.getSlots();
+            assertThat(slots.size()).as(description).isEqualTo(legacySlots.size());
+            for (int s = 0; s < slots.size(); s++) {
+                AssessmentScoringEngine.SlotView slot = slots.get(s);
+                Map<String, Object> legacySlot = legacySlots.get(s);
+                String at = description + " question " + (i + 1) + " slot " + (s + 1);
+                assertThat(slot.getSlotNum()).as(at).isEqualTo(legacySlot.get("slotNum"));
+                assertThat(slot.getSelectedIndex()).as(at).isEqualTo(legacySlot.get("selectedIndex"));
+                assertThat(slot.getSelectedText()).as(at).isEqualTo(legacySlot.get("selectedText"));
+                assertThat(slot.getCorrectIndex()).as(at).isEqualTo(legacySlot.get("correctIndex"));
+                assertThat(slot.getCorrectText()).as(at).isEqualTo(legacySlot.get("correctText"));
+                assertThat(slot.getIsCorrect()).as(at).isEqualTo(legacySlot.get("isCorrect"));
+            }
+        }
+    }
+
+    private record Legacy(double totalPossible, String yourScore, List<Map<String, Object>> scoredQuestions,
+            ObjectNode scoreJson) {
+    }
+
+    // AssessmentController's scoring before AssessmentScoringEngine, kept as the reference.
+    private static Legacy legacyScore(String courseId, List<Question> questions, Map<String, String> allParams) {
+        questions.sort(Comparator.<Question>comparingInt(q -> parseChapterOrder(q.getChapterId()))
+                .thenComparingInt(Question::getQuestionNumber));
+
+        double totalPossible = questions.stream().mapToDouble(Question::getMarks).sum();
+
+        Map<String, Integer> selectionMap = allParams.entrySet().stream()
+                .filter(e -> e.getKey() != null && e.getKey().matches("q\\d+-s\\d+"))
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        e -> {
+                            try {
+                                return Integer.parseInt(e.getValue());
+                            } catch (NumberFormatException ex) {
+                                return -1;
+                            }
+                        }));
+
+        List<Map<String, Object>> scoredQuestions = new ArrayList<>();
+        BigDecimal earnedTotal = BigDecimal.ZERO;
+        for (int i = 0; i < questions.size(); i++) {
+            Question q = questions.get(i);
+            int idx = i + 1;
+            List<Map<String, Object>> slotViews = new ArrayList<>();
+            int slotCount = q.getSlotCount();
+            if (slotCount <= 0)
+                slotCount = 1;
+            BigDecimal qMarks = BigDecimal.valueOf((double) q.getMarks());
+            BigDecimal perSlotMarks = qMarks.divide(BigDecimal.valueOf((long) slotCount), 6, RoundingMode.HALF_UP);
+            BigDecimal earnedForQuestion = BigDecimal.ZERO;
+            for (int slot = 1; slot <= slotCount; slot++) {
+                List<QuestionOption> opts = (q.getSlotOptions() != null && q.getSlotOptions().size() >= slot)
+                        ? q.getSlotOptions().get(slot - 1)
+                        : q.getOptions();
+                int selectedIdx = -1;
+                String key = "q" + idx + "-s" + slot;
+                if (selectionMap.containsKey(key)) {
+                    selectedIdx = selectionMap.get(key);
+                }
+                String selectedText = null;
+                List<Integer> correctIndices = new ArrayList<>();
+                List<String> correctTexts = new ArrayList<>();
+                if (opts != null) {
+                    for (QuestionOption opt : opts) {
+                        if (opt.getOptionIndex() == selectedIdx) {
+                            selectedText = opt.getOptionContent();
+                        }
+                        if (opt.getIsCorrect()) {
+                            correctIndices.add(opt.getOptionIndex());
+                            correctTexts.add(opt.getOptionContent());
+                        }
+                    }
+                }
+                boolean isCorrect = (selectedIdx != -1) && correctIndices.contains(selectedIdx);
+                if (isCorrect) {
+                    earnedForQuestion = earnedForQuestion.add(perSlotMarks);
+                }
+                Map<String, Object> slotView = new HashMap<>();
+                slotView.put("slotNum", slot);
+                slotView.put("selectedIndex", selectedIdx);
+                slotView.put("selectedText", selectedText);
+                slotView.put("correctIndex", correctIndices.isEmpty() ? null : correctIndices.get(0));
+                slotView.put("correctText", correctTexts.isEmpty() ? null : String.join(", ", correctTexts));
+                slotView.put("isCorrect", isCorrect);
+                slotViews.add(slotView);
+            }
+            earnedTotal = earnedTotal.add(earnedForQuestion);
+            Map<String, Object> qView = new HashMap<>();
+            qView.put("q", q);
+            qView.put("index", idx);
+            qView.put("slots", slotViews);
+            scoredQuestions.add(qView);
+        }
+
+        ObjectNode root = MAPPER.createObjectNode();
+        if (courseId != null && !courseId.isBlank()) {
+            root.put("courseId", courseId);
+        } else {
+            root.putNull("courseId");
+        }
+        ArrayNode chaptersArr = MAPPER.createArrayNode();
+        Map<Integer, ObjectNode> chapterNodes = new LinkedHashMap<>();
+        for (Map<String, Object> sq : scoredQuestions) {
+            Question q = (Question) sq.get("q");
+            int chapterNo = parseChapterOrder(q.getChapterId());
+            if (chapterNo == Integer.MAX_VALUE) {
+                continue;
+            }
+            ObjectNode chapterNode = chapterNodes.get(chapterNo);
+            if (chapterNode == null) {
+                chapterNode = MAPPER.createObjectNode();
+                chapterNode.put("chapter_no", chapterNo);
+                chapterNode.set("questions", MAPPER.createArrayNode());
+                chapterNodes.put(chapterNo, chapterNode);
+            }
+            ObjectNode qNode = MAPPER.createObjectNode();
+            qNode.put("question_no", q.getQuestionNumber());
+            ArrayNode slopesArr = MAPPER.createArrayNode();
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> slots = (List<Map<String, Object>>) sq.get("slots");
+            for (Map<String, Object> slotView : slots) {
+                ObjectNode slopeNode = MAPPER.createObjectNode();
+                slopeNode.put("slope_no", (Integer) slotView.get("slotNum"));
+                slopeNode.put("is_correct", (Boolean) slotView.get("isCorrect"));
+                slopesArr.add(slopeNode);
+            }
+            qNode.set("slopes", slopesArr);
+            ((ArrayNode) chapterNode.get("questions")).add(qNode);
+        }
+        for (ObjectNode chapterNode : chapterNodes.values()) {
+            chaptersArr.add(chapterNode);
+        }
+        root.set("chapters", chaptersArr);
+
+        return new Legacy(totalPossible, earnedTotal.stripTrailingZeros().toPlainString(), scoredQuestions, root);
+    }
+
+    private static int parseChapterOrder(String chapterId) {
+        if (chapterId == null)
+            return Integer.MAX_VALUE;
+        try {
+            return Integer.parseInt(chapterId.trim());
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static Question question(Random random) {
+        Question q = random.nextInt(3) == 0 ? new WeightedQuestion(MARKS[random.nextInt(MARKS.length)])
+                : new Question();
+        q.setChapterId(switch (random.nextInt(8)) {
+            case 0 -> null;
+            case 1 -> "x";
+            case 2 -> " 2 ";
+            case 3 -> "10";
+            default -> String.valueOf(1 + random.nextInt(3));
+        });
+        q.setQuestionNumber(1 + random.nextInt(5));
+        if (random.nextInt(4) != 0) {
+            q.setOptions(options(random));
+        }
+        int slotLists = random.nextInt(4);
+        if (slotLists > 0 || random.nextBoolean()) {
+            List<List<QuestionOption>> slotOptions = new ArrayList<>();
+            for (int s = 0; s < slotLists; s++) {
+                slotOptions.add(options(random));
+            }
+            q.setSlotOptions(slotOptions);
+        }
+        return q;
+    }
+
+    private static List<QuestionOption> options(Random random) {
+        List<QuestionOption> out = new ArrayList<>();
+        int count = random.nextInt(5);
+        for (int o = 0; o < count; o++) {
+            out.add(option(OPTION_INDICES[random.nextInt(OPTION_INDICES.length)], "o" + random.nextInt(10),
+                    random.nextInt(3) == 0));
+        }
+        return out;
+    }
+
+    private static QuestionOption option(int index, String content, boolean correct) {
+        QuestionOption opt = new QuestionOption(index, content);
+        opt.setIsCorrect(correct);
+        return opt;
+    }
+
+    // Selections for the sorted questions: real option indices, out-of-range and garbage values,
+    // and keys the scorer must ignore.
+    private static Map<String, String> params(Random random, List<Question> ordered) {
+        Map<String, String> params = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            Question q = ordered.get(i);
+            int slots = Math.max(1, q.getSlotCount());
+            for (int s = 1; s <= slots; s++) {
+                if (random.nextInt(10) < 7) {
+                    params.put("q" + (i + 1) + "-s" + s, selection(random, q, s));
+                }
+            }
+        }
+        String[] noise = { "q0-s1", "q" + (ordered.size() + 1) + "-s1", "q1-s0", "q1-s9", "q01-s1", "q1-s01",
+                "qx-s1", "q1s1", "Q1-s1", "q1-s1 ", "q1-s", "q-s1", "q12345678901-s1", "chapters", "courseId",
+                "attemptKey" };
+        int extra = random.nextInt(4);
+        for (int n = 0; n < extra; n++) {
+            params.put(noise[random.nextInt(noise.length)], String.valueOf(random.nextInt(4)));
+        }
+        return params;
+    }
+
+    private static String selection(Random random, Question q, int slot) {
+        List<QuestionOption> opts = q.getSlotOptions() != null && q.getSlotOptions().size() >= slot
+                ? q.getSlotOptions().get(slot - 1)
+                : q.getOptions();
+        if (opts != null && !opts.isEmpty() && random.nextInt(3) != 0) {
+            return String.valueOf(opts.get(random.nextInt(opts.size())).getOptionIndex());
+        }
+        String[] values = { "-1", "abc", "", " 1", "+1", "1.0", "64", "100", "-7", "2147483647", "99999999999" };
+        return values[random.nextInt(values.length)];
+    }
+
+    private static final class WeightedQuestion extends Question {
+        private final float marks;
+
+        WeightedQuestion(float marks) {
+            this.marks = marks;
+        }
+
+        @Override
+        public float getMarks() {
+            return marks;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.barlarlar.myanmyanlearn.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+
+@Testcontainers(disabledWithoutDocker = true)
+class S3StorageServiceTest {
+    private static final String BUCKET = "myanmyanlearn-test";
+
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-10-13T13-34-11Z");
+
+    static S3StorageService storage;
+
+    @BeforeAll
+    static void setUp() {
+        // S3StorageService resolves credentials through the default provider chain.
+        System.setProperty("aws.accessKeyId", MINIO.getUserName());
+        System.setProperty("aws.secretAccessKey", MINIO.getPassword());
+        try (S3Client admin = S3Client.builder()
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(MINIO.getUserName(), MINIO.getPassword())))
+                .build()) {
+            admin.createBucket(CreateBucketRequest.builder().bucket(BUCKET).build());
+        }
+        storage = new S3StorageService(BUCKET, "us-east-1", "app", "", false, MINIO.getS3URL(), true, 8, 5L, 5L);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (storage != null) {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    void putStreamAboveThresholdUploadsInParts() throws Exception {
+        byte[] data = new byte[12 * 1024 * 1024 + 123];
+        new Random(7).nextBytes(data);
+
+        StorageService.StoredObject stored = storage.putStream("multipart/big.bin", "big.bin",
+                "application/octet-stream", new ByteArrayInputStream(data), data.length);
+
+        assertThat(stored.key()).isEqualTo("multipart/big.bin");
+        assertThat(stored.size()).isEqualTo(data.length);
+        // Multipart ETags carry the part count after a dash.
+        assertThat(stored.etag()).matches("\"?[0-9a-f]+-\\d+\"?");
+        try (InputStream in = storage.openStream("multipart/big.bin")) {
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void listWalksSubPrefixesConcurrentlyAndSortsByKey() throws Exception {
+        List<String> keys = List.of(
+                "listing/z-top.txt",
+                "listing/b/2.txt",
+                "listing/a/1.txt",
+                "listing/b/c/3.txt",
+                "listing/a/0.txt");
+        for (String key : keys) {
+            storage.putBytes(key, "f.txt", "text/plain", key.getBytes(StandardCharsets.UTF_8));
+        }
+        storage.putBytes("listing-other/x.txt", "x.txt", "text/plain", new byte[] { 1 });
+
+        List<StorageService.StoredObject> listed = storage.list("listing/");
+
+        assertThat(listed).extracting(StorageService.StoredObject::key).containsExactly(
+                "listing/a/0.txt",
+                "listing/a/1.txt",
+                "listing/b/2.txt",
+                "listing/b/c/3.txt",
+                "listing/z-top.txt");
+        assertThat(listed).allSatisfy(o -> {
+            assertThat(o.size()).isPositive();
+            assertThat(o.lastModified()).isNotNull();
+        });
+    }
+
+    @Test
+    void copyDuplicatesContentUnderTheTargetKey() throws Exception {
+        byte[] data = "copy me".getBytes(StandardCharsets.UTF_8);
+        storage.putBytes("copy/source.txt", "source.txt", "text/plain", data);
+
+        StorageService.StoredObject copied = storage.copy("copy/source.txt", "copy/target.md", "text/markdown");
+
+        assertThat(copied.key()).isEqualTo("copy/target.md");
+        assertThat(copied.etag()).isNotBlank();
+        assertThat(storage.getBytes("copy/target.md")).isEqualTo(data);
+        storage.delete("copy/source.txt");
+        assertThat(storage.exists("copy/source.txt")).isFalse();
+        assertThat(storage.exists("copy/target.md")).isTrue();
+        assertThat(storage.list("copy/")).extracting(StorageService.StoredObject::key)
+                .containsExactly("copy/target.md");
+    }
+}